@@ -0,0 +1,36 @@
+package com.ismaelrh.gameboy;
+
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures whole-frame emulation of the blargg cpu ROMs, without display nor pacing.
+ * ROM directory can be changed with -Dblargg.dir
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameBenchmark {
+
+    @Param({"01", "02", "03", "04", "05", "06", "07", "08", "09", "10", "11"})
+    public String rom;
+
+    private Emulator emulator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String dir = System.getProperty("blargg.dir", "src/test/resources/blargg/cpu");
+        emulator = new Emulator();
+        emulator.insertCartridge(CartridgeFactory.load(dir + "/" + rom + ".gb"));
+    }
+
+    @Benchmark
+    public long runFrame() throws Exception {
+        return emulator.runFrames(1);
+    }
+}
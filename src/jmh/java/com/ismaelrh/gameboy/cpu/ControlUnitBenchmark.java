@@ -0,0 +1,79 @@
+package com.ismaelrh.gameboy.cpu;
+
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ControlUnit.runInstruction over a ROM filled with a repeating mix of instructions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlUnitBenchmark {
+
+    private static final int INSTRUCTIONS = 1000;
+
+    //Register operations plus LD A,(HL) and LD (HL),A, with HL in ROM or at 0xC000 (work RAM), so the program
+    //can loop forever without modifying itself
+    private static final byte[] LOAD = {0x41, 0x7E, 0x16, 0x12, 0x58, 0x21, (byte) 0x00, (byte) 0xC0, 0x77};
+    private static final byte[] ALU = {(byte) 0x80, (byte) 0xA9, 0x1C, 0x15, (byte) 0xFE, 0x10, (byte) 0x91, 0x03};
+    private static final byte[] CB = {(byte) 0xCB, 0x11, (byte) 0xCB, 0x47, (byte) 0xCB, (byte) 0xC0, (byte) 0xCB, 0x37};
+    private static final byte[] MIXED = {0x41, (byte) 0x80, (byte) 0xCB, 0x11, 0x7E, 0x1C, (byte) 0xCB, 0x47, 0x03, 0x18, 0x00};
+
+    @Param({"load", "alu", "cb", "mixed"})
+    public String mix;
+
+    private ControlUnit controlUnit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Memory memory = new Memory();
+        Registers registers = new Registers();
+        registers.initForRealGB();
+
+        FakeCartridge cartridge = new FakeCartridge();
+        byte[] pattern = getPattern(mix);
+        int address = 0x0100;
+        while (address + pattern.length < 0x7FF0) {
+            for (byte b : pattern) {
+                cartridge.write((char) address++, b);
+            }
+        }
+        //JP 0x0100
+        cartridge.write((char) address++, (byte) 0xC3);
+        cartridge.write((char) address++, (byte) 0x00);
+        cartridge.write((char) address, (byte) 0x01);
+
+        memory.insertCartridge(cartridge);
+        controlUnit = new ControlUnit(registers, memory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUCTIONS)
+    public int runInstruction() throws Exception {
+        int cycles = 0;
+        for (int i = 0; i < INSTRUCTIONS; i++) {
+            cycles += controlUnit.runInstruction();
+        }
+        return cycles;
+    }
+
+    private static byte[] getPattern(String mix) {
+        switch (mix) {
+            case "load":
+                return LOAD;
+            case "alu":
+                return ALU;
+            case "cb":
+                return CB;
+            default:
+                return MIXED;
+        }
+    }
+}
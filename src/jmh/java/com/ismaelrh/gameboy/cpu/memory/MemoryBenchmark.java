@@ -0,0 +1,98 @@
+package com.ismaelrh.gameboy.cpu.memory;
+
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.periphericals.timer.Timer;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.gpu.Gpu;
+import com.ismaelrh.gameboy.gpu.lcd.NullLcd;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Memory.read and Memory.write for each memory region.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBenchmark {
+
+    private static final int ACCESSES = 1024;
+
+    @Param({"ROM", "VRAM", "EXTERNAL_RAM", "INTERNAL_RAM", "OAM", "IO", "HRAM"})
+    public String region;
+
+    private Memory memory;
+    private char[] addresses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        memory = new Memory();
+        memory.insertCartridge(new FakeCartridge());
+        Scheduler scheduler = new Scheduler();
+        memory.addMMIODevice(new Timer(memory, scheduler));
+        memory.addMMIODevice(new Gpu(memory, new NullLcd(), scheduler));
+
+        int start;
+        int size;
+        switch (region) {
+            case "ROM":
+                start = 0x0000;
+                size = 0x8000;
+                break;
+            case "VRAM":
+                start = 0x8000;
+                size = 0x2000;
+                break;
+            case "EXTERNAL_RAM":
+                start = 0xA000;
+                size = 0x2000;
+                break;
+            case "INTERNAL_RAM":
+                start = 0xC000;
+                size = 0x2000;
+                break;
+            case "OAM":
+                start = 0xFE00;
+                size = 0xA0;
+                break;
+            case "IO":
+                //Timer and GPU registers, plus unmapped ones
+                start = 0xFF04;
+                size = 0x48;
+                break;
+            default:
+                start = 0xFF80;
+                size = 0x7F;
+        }
+        addresses = new char[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            addresses[i] = (char) (start + (i * 7) % size);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public int read() {
+        int sum = 0;
+        for (char address : addresses) {
+            sum += memory.read(address);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void write() {
+        for (int i = 0; i < addresses.length; i++) {
+            //Avoid touching LCDC, it would switch the LCD off
+            char address = addresses[i];
+            if (address != 0xFF40) {
+                memory.write(address, (byte) i);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ismaelrh.gameboy.cpu.periphericals.timer;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-instruction cost of the timer with the counter enabled at its fastest rate:
+ * advancing the scheduler clock, and reading DIV and TIMA.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerBenchmark {
+
+    private static final int TICKS = 1000;
+
+    private Scheduler scheduler;
+    private Timer timer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Memory memory = new Memory();
+        scheduler = new Scheduler();
+        timer = new Timer(memory, scheduler);
+        memory.addMMIODevice(timer);
+        scheduler.addDevice(timer);
+        memory.write((char) 0xFF07, (byte) 0x05);   //Enabled, 262144Hz
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public void advance() {
+        for (int i = 0; i < TICKS; i++) {
+            scheduler.advance(4);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public int read() {
+        int sum = 0;
+        for (int i = 0; i < TICKS; i++) {
+            scheduler.advance(4);
+            sum += timer.onRead((char) 0xFF04) + timer.onRead((char) 0xFF05);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ismaelrh.gameboy.gpu;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.gpu.lcd.NullLcd;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rendering of a single background scanline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpuBenchmark {
+
+    private Gpu gpu;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Memory memory = new Memory();
+        gpu = new Gpu(memory, new NullLcd(), new Scheduler());
+        memory.addMMIODevice(gpu);
+
+        //Random tile data and tile map
+        Random random = new Random(42);
+        for (int address = 0x8000; address < 0xA000; address++) {
+            memory.write((char) address, (byte) random.nextInt(256));
+        }
+        memory.write((char) 0xFF47, (byte) 0xE4);   //Pallete
+        memory.write((char) 0xFF42, (byte) 0x05);   //Scroll Y
+        memory.write((char) 0xFF43, (byte) 0x03);   //Unaligned scroll X
+        memory.write((char) 0xFF40, (byte) 0x91);   //LCD on, BG on, tileset 1
+    }
+
+    @Benchmark
+    public void doScanline() {
+        gpu.doScanline();
+    }
+}
@@ -0,0 +1,361 @@
+package com.ismaelrh.gameboy;
+
+import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.ControlUnit;
+import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.cartridge.Cartridge;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.periphericals.dma.OamDma;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.Joypad;
+import com.ismaelrh.gameboy.cpu.periphericals.serial.Serial;
+import com.ismaelrh.gameboy.cpu.periphericals.timer.Timer;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.debug.trace.TraceRecorder;
+import com.ismaelrh.gameboy.gpu.Gpu;
+import com.ismaelrh.gameboy.gpu.lcd.Lcd;
+import com.ismaelrh.gameboy.gpu.lcd.NullLcd;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * Owns all the components of a Game Boy and runs them as fast as possible.
+ * There is no pacing here, callers that need real time speed have to throttle by themselves.
+ */
+public class Emulator {
+
+    private final static int STATE_MAGIC = 0x47423453;  //"GB4S"
+    private final static int STATE_HEADER_SIZE = 10;    //Magic, version and cartridge name length
+    public final static int STATE_VERSION = 8;
+
+    /**
+     * Upper bound of a save state: the machine takes around 26KB, plus up to 128KB of cartridge RAM.
+     */
+    public final static int MAX_STATE_SIZE = 192 * 1024;
+
+    /**
+     * Longest jump of the clock while halted or in a busy-wait loop, so a machine with no events
+     * (LCD and timer off) still returns from step() now and then.
+     */
+    private final static int MAX_SKIP_CYCLES = Const.LCD_CYCLES_PER_FRAME;
+
+    private final Scheduler scheduler;
+    private final Memory memory;
+    private final Registers registers;
+    private final ControlUnit controlUnit;
+    private final Timer timer;
+    private final Serial serial;
+    private final OamDma oamDma;
+    private final Joypad joypad;
+    private final Gpu gpu;
+    private final Lcd lcd;
+    private Cartridge cartridge;
+    private ByteBuffer rollbackState;   //Machine before a state load, allocated on the first one
+    private boolean skipIdleLoops = true;
+
+    public Emulator() {
+        this(new NullLcd());
+    }
+
+    public Emulator(Lcd lcd) {
+        this.lcd = lcd;
+        this.scheduler = new Scheduler();
+        this.memory = new Memory();
+        this.registers = new Registers();
+        this.registers.initForRealGB();
+        this.timer = new Timer(memory, scheduler);
+        this.serial = new Serial(scheduler);
+        this.oamDma = new OamDma(scheduler);
+        this.joypad = new Joypad(scheduler);
+        this.gpu = new Gpu(memory, lcd, scheduler);
+        this.controlUnit = new ControlUnit(registers, memory);
+        memory.addMMIODevice(timer);
+        memory.addMMIODevice(serial);
+        memory.addMMIODevice(gpu);
+        memory.addMMIODevice(oamDma);
+        memory.addMMIODevice(joypad);
+        scheduler.addDevice(timer);
+        scheduler.addDevice(serial);
+        scheduler.addDevice(gpu);
+        scheduler.addDevice(oamDma);
+        scheduler.addDevice(joypad);
+    }
+
+    public void insertCartridge(Cartridge cartridge) {
+        this.cartridge = cartridge;
+        memory.insertCartridge(cartridge);
+    }
+
+    /**
+     * Persists battery backed cartridge RAM now, instead of waiting for the background flush.
+     */
+    public void flush() {
+        if (cartridge != null) {
+            cartridge.flush();
+        }
+    }
+
+    /**
+     * Closes the inserted cartridge, flushing and releasing its save file. The emulator must not run afterwards.
+     */
+    public void close() {
+        if (cartridge != null) {
+            cartridge.close();
+        }
+    }
+
+    /**
+     * Maps the bootrom at 0x0000 and starts execution from it.
+     */
+    public void setBootrom(String filePath) throws Exception {
+        memory.setBootrom(filePath);
+        registers.setPC((char) 0x0000);
+    }
+
+    /**
+     * Keeps the last instructions executed, see {@link TraceRecorder}. Null stops recording.
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        controlUnit.setTraceRecorder(traceRecorder);
+    }
+
+    /**
+     * Busy-wait loops are skipped by default, unless a debugger or a trace recorder is attached to the control unit,
+     * as they have to see every instruction. Either way, the machine ends up in exactly the same state at the same cycle.
+     */
+    public void setSkipIdleLoops(boolean skipIdleLoops) {
+        this.skipIdleLoops = skipIdleLoops;
+    }
+
+    /**
+     * Executes a single instruction and the interruption that may come after it.
+     * Peripherals are only run when the clock reaches their next event.
+     * While halted, or once a busy-wait loop is detected, the clock jumps straight to the next event instead.
+     *
+     * @return cycles spent
+     */
+    public int step() throws Exception {
+        return step(Long.MAX_VALUE);
+    }
+
+    //Skipping never goes past the limit, so loops that stop at a given cycle still stop at the same instruction
+    private int step(long cycleLimit) throws Exception {
+        if (controlUnit.isHaltedUntilEvent()) {
+            return skipHalt(cycleLimit);
+        }
+        int instCycles = controlUnit.runInstruction();
+        controlUnit.checkInterruptions();
+        scheduler.advance(instCycles);
+        if (skipIdleLoops) {
+            int loopCycles = controlUnit.getIdleLoopCycles();
+            if (loopCycles != 0) {
+                instCycles += skipIdleLoop(loopCycles, cycleLimit);
+            }
+        }
+        return instCycles;
+    }
+
+    //Same as running halt 4 cycles at a time until an event fires or the limit is reached
+    private int skipHalt(long cycleLimit) {
+        long cycles = scheduler.getCycles();
+        long target = Math.min(Math.min(scheduler.getNextEventCycle(), cycleLimit), cycles + MAX_SKIP_CYCLES);
+        int skipped = (int) Math.max(4, (target - cycles + 3) & ~3L);
+        scheduler.advance(skipped);
+        return skipped;
+    }
+
+    //Whole iterations only, the one during which the next event fires has to be run to see its effects
+    private int skipIdleLoop(int loopCycles, long cycleLimit) {
+        long cycles = scheduler.getCycles();
+        if (scheduler.getLastEventCycle() > cycles - loopCycles) {
+            return 0;   //Something may have changed during the iteration, the next one is not the same
+        }
+        long target = Math.min(Math.min(scheduler.getNextEventCycle(), cycleLimit), cycles + MAX_SKIP_CYCLES);
+        int skipped = (int) ((target - cycles) / loopCycles * loopCycles);
+        if (skipped > 0) {
+            scheduler.advance(skipped);
+        }
+        return skipped;
+    }
+
+    /**
+     * Runs at least the given number of cycles. The last instruction can overrun the target.
+     *
+     * @return cycles actually executed
+     */
+    public long runCycles(long cyclesToRun) throws Exception {
+        long start = scheduler.getCycles();
+        long target = start + cyclesToRun;
+        while (scheduler.getCycles() < target) {
+            step(target);
+        }
+        return scheduler.getCycles() - start;
+    }
+
+    /**
+     * Runs the given number of LCD frames (70224 cycles each).
+     *
+     * @return cycles actually executed
+     */
+    public long runFrames(int frames) throws Exception {
+        return runCycles((long) frames * Const.LCD_CYCLES_PER_FRAME);
+    }
+
+    /**
+     * Runs until the condition is true. The condition is checked after every instruction,
+     * or after every jump of the clock while halted or busy-waiting.
+     *
+     * @return cycles actually executed
+     */
+    public long runUntil(Predicate<Emulator> condition) throws Exception {
+        return runUntil(condition, Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs until the condition is true or the maximum number of cycles is reached,
+     * whatever happens first. The condition is checked after every instruction,
+     * or after every jump of the clock while halted or busy-waiting.
+     *
+     * @return cycles actually executed
+     */
+    public long runUntil(Predicate<Emulator> condition, long maxCycles) throws Exception {
+        long start = scheduler.getCycles();
+        long limit = maxCycles > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + maxCycles;
+        while (!condition.test(this) && scheduler.getCycles() - start < maxCycles) {
+            step(limit);
+        }
+        return scheduler.getCycles() - start;
+    }
+
+    /**
+     * Writes the whole machine at the current cycle into the buffer, starting at its position.
+     * The buffer can be reused between snapshots, nothing is allocated.
+     */
+    public void saveState(ByteBuffer out) {
+        byte[] name = getCartridgeName().getBytes(StandardCharsets.UTF_8);
+        out.putInt(STATE_MAGIC);
+        out.putInt(STATE_VERSION);
+        out.putShort((short) name.length);
+        out.put(name);
+        registers.saveState(out);
+        memory.saveState(out);
+        timer.saveState(out);
+        serial.saveState(out);
+        gpu.saveState(out);
+        oamDma.saveState(out);
+        joypad.saveState(out);
+        if (cartridge != null) {
+            cartridge.saveState(out);
+        }
+        scheduler.saveState(out);
+    }
+
+    /**
+     * Snapshot of the whole machine, ready to be read or written to a channel.
+     */
+    public ByteBuffer saveState() {
+        ByteBuffer out = ByteBuffer.allocate(MAX_STATE_SIZE);
+        saveState(out);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Restores a snapshot taken with the same cartridge inserted. Execution continues at the exact
+     * cycle where it was taken. Nothing is changed if the header does not match, or if the snapshot turns out to be
+     * truncated or corrupt: the machine is saved before and restored if any part fails to load.
+     * The frame buffer is not part of the machine, it is cleared by any load.
+     */
+    public void loadState(ByteBuffer in) throws Exception {
+        if (in.remaining() < STATE_HEADER_SIZE || in.getInt() != STATE_MAGIC) {
+            throw new Exception("Not a save state");
+        }
+        int version = in.getInt();
+        if (version != STATE_VERSION) {
+            throw new Exception("Unsupported save state version " + version + ", expected " + STATE_VERSION);
+        }
+        int nameLength = in.getShort();
+        if (nameLength < 0 || nameLength > in.remaining()) {
+            throw new Exception("Save state is truncated or corrupt");
+        }
+        byte[] name = new byte[nameLength];
+        in.get(name);
+        String savedName = new String(name, StandardCharsets.UTF_8);
+        if (!savedName.equals(getCartridgeName())) {
+            throw new Exception("Save state is for cartridge '" + savedName + "', inserted is '" + getCartridgeName() + "'");
+        }
+
+        if (rollbackState == null) {
+            rollbackState = ByteBuffer.allocate(MAX_STATE_SIZE);
+        }
+        rollbackState.clear();
+        saveState(rollbackState);
+        rollbackState.flip();
+        rollbackState.position(STATE_HEADER_SIZE + nameLength);
+        try {
+            loadDevices(in);
+        } catch (Exception e) {
+            loadDevices(rollbackState);
+            throw new Exception("Save state is truncated or corrupt, nothing was changed", e);
+        }
+    }
+
+    private void loadDevices(ByteBuffer in) {
+        registers.loadState(in);
+        memory.loadState(in);
+        timer.loadState(in);
+        serial.loadState(in);
+        gpu.loadState(in);
+        oamDma.loadState(in);
+        joypad.loadState(in);
+        if (cartridge != null) {
+            cartridge.loadState(in);
+        }
+        scheduler.loadState(in);
+    }
+
+    private String getCartridgeName() {
+        return cartridge != null && cartridge.getName() != null ? cartridge.getName() : "";
+    }
+
+    public long getCycles() {
+        return scheduler.getCycles();
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Memory getMemory() {
+        return memory;
+    }
+
+    public Registers getRegisters() {
+        return registers;
+    }
+
+    public ControlUnit getControlUnit() {
+        return controlUnit;
+    }
+
+    public Timer getTimer() {
+        return timer;
+    }
+
+    public Serial getSerial() {
+        return serial;
+    }
+
+    public Gpu getGpu() {
+        return gpu;
+    }
+
+    public Joypad getJoypad() {
+        return joypad;
+    }
+
+    public Lcd getLcd() {
+        return lcd;
+    }
+}
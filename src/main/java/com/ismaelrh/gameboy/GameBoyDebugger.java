@@ -1,14 +1,12 @@
 package com.ismaelrh.gameboy;
 
 import com.ismaelrh.gameboy.cpu.Const;
-import com.ismaelrh.gameboy.cpu.ControlUnit;
-import com.ismaelrh.gameboy.cpu.Registers;
-import com.ismaelrh.gameboy.cpu.cartridge.BasicCartridge;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
 import com.ismaelrh.gameboy.cpu.cartridge.Cartridge;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.Button;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.Joypad;
 import com.ismaelrh.gameboy.debug.tileset.TileSetDisplay;
-import com.ismaelrh.gameboy.gpu.Gpu;
 import com.ismaelrh.gameboy.gpu.lcd.swing.SwingLcd;
-import com.ismaelrh.gameboy.cpu.periphericals.timer.Timer;
 import com.ismaelrh.gameboy.debug.blargg.BlarggTestInterceptor;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.debug.debugger.console.ConsoleController;
@@ -16,6 +14,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 
 public class GameBoyDebugger {
 
@@ -24,83 +24,105 @@ public class GameBoyDebugger {
 
     public static void main(String[] args) throws Exception {
 
-        Memory memory = new Memory();
-        Registers registers = new Registers();
-        registers.initForRealGB();
-        Timer timer = new Timer(memory);
+        if (args.length < 1) {
+            System.err.println("Usage: GameBoyDebugger <rom> [bootrom]");
+            System.exit(1);
+        }
 
         SwingLcd lcd = new SwingLcd(2);
+        Emulator emulator = new Emulator(lcd);
+        Memory memory = emulator.getMemory();
 
-
-        Gpu gpu = new Gpu(memory, lcd);
-        TileSetDisplay displayTileset0 = new TileSetDisplay(memory, gpu, (char) 0x8000);
-        TileSetDisplay displayTileset1 = new TileSetDisplay(memory, gpu, (char) 0x8800);
-        startGUI(lcd.getDisplayPanel(), displayTileset0.getDisplayPanel(), displayTileset1.getDisplayPanel());
-
-        ControlUnit controlUnit = new ControlUnit(registers, memory);
+        TileSetDisplay displayTileset0 = new TileSetDisplay(memory, emulator.getGpu(), (char) 0x8000);
+        TileSetDisplay displayTileset1 = new TileSetDisplay(memory, emulator.getGpu(), (char) 0x8800);
+        JFrame window = startGUI(lcd.getDisplayPanel(), displayTileset0.getDisplayPanel(), displayTileset1.getDisplayPanel());
+        window.addKeyListener(new JoypadKeys(emulator.getJoypad()));
 
         //Register console debugger
-        controlUnit.setDebuggerController(new ConsoleController());
+        emulator.getControlUnit().setDebuggerController(new ConsoleController());
 
         //Log status provider
-        //controlUnit.setLogStatusProvider(new BinJgbLogStatusProvider("/Users/ismaelrh/gb/binjgb/bin/test.txt"));
+        //emulator.getControlUnit().setLogStatusProvider(new BinJgbLogStatusProvider("test.txt"));
 
         //Register blargg interceptor to get output and put it on console
         memory.addInterceptor(new BlarggTestInterceptor());
-        memory.addMMIODevice(timer);
-        memory.addMMIODevice(gpu);
-
-        Cartridge cartridge = new BasicCartridge("Blargg CPU test 6", "/Users/ismaelrh/gb/dr_mario.gb");
-        memory.insertCartridge(cartridge);
-        setBootrom(memory, registers, "/Users/ismaelrh/gb/dmg_boot.bin");
 
+        Cartridge cartridge = CartridgeFactory.load(args[0]);
+        emulator.insertCartridge(cartridge);
+        if (args.length > 1) {
+            emulator.setBootrom(args[1]);
+        }
 
-        double remainingCyclesPerFrame = Const.CYCLES_PER_FRAME;
         long nanosStartFrame = System.nanoTime();
-
-        //I end on the end of every frame to check
-        long totalC = 0;
-        long startTime = System.currentTimeMillis();
         while (true) {
 
-            int cycles = controlUnit.runInstruction();
-            controlUnit.checkInterruptions();
-            timer.tick(cycles);
-            gpu.tick(cycles);
+            emulator.runFrames(1);
 
-            remainingCyclesPerFrame -= cycles;
+            displayTileset0.display();
+            displayTileset1.display();
+            long nanosEndFrame = System.nanoTime();
+            long elapsedTimeNanos = (nanosEndFrame - nanosStartFrame);
+            long remainingTimeNanos = Const.NANOS_PER_FRAME / 2 - elapsedTimeNanos;
 
-            if (remainingCyclesPerFrame <= 0) {
-                displayTileset0.display();
-                displayTileset1.display();
-                long nanosEndFrame = System.nanoTime();
-                long elapsedTimeNanos = (nanosEndFrame - nanosStartFrame);
-                long remainingTimeNanos = Const.NANOS_PER_FRAME/2 - elapsedTimeNanos;
+            if (remainingTimeNanos > 0) {
+                long millisToSleep = remainingTimeNanos / 1000000;
+                int nanosToSleep = (int) (remainingTimeNanos - millisToSleep * 1000000);
+                Thread.sleep(millisToSleep, nanosToSleep);
+            }
+            nanosStartFrame = System.nanoTime();
+        }
+    }
 
-                if (remainingTimeNanos > 0) {
-                    long millisToSleep = remainingTimeNanos / 1000000;
-                    int nanosToSleep = (int) (remainingTimeNanos - millisToSleep * 1000000);
-                    Thread.sleep(millisToSleep, nanosToSleep);
-                }
-                nanosStartFrame = System.nanoTime();
-                remainingCyclesPerFrame = Const.CYCLES_PER_FRAME;
+    /**
+     * Arrows, Z (A), X (B), Enter (START) and Backspace (SELECT). Key events come from the Swing thread,
+     * the only one pressing buttons.
+     */
+    private static class JoypadKeys extends KeyAdapter {
 
-            }
+        private final Joypad joypad;
 
-            totalC += cycles;
-            /*if (totalC % 1000000 == 0) {
-                double totalTime = (System.currentTimeMillis() - startTime) / 1000.0;
-                System.out.println("Pace: " + totalC / (totalTime * Const.CYCLES_PER_FRAME) + " frames/s");
-            }*/
+        JoypadKeys(Joypad joypad) {
+            this.joypad = joypad;
+        }
 
+        @Override
+        public void keyPressed(KeyEvent e) {
+            Button button = getButton(e.getKeyCode());
+            if (button != null) {
+                joypad.press(button);
+            }
+        }
 
+        @Override
+        public void keyReleased(KeyEvent e) {
+            Button button = getButton(e.getKeyCode());
+            if (button != null) {
+                joypad.release(button);
+            }
         }
-        //blargg.flush();
-    }
 
-    private static void setBootrom(Memory memory, Registers registers, String filePath) throws Exception {
-        memory.setBootrom(filePath);
-        registers.setPC((char) 0x0000);
+        private static Button getButton(int keyCode) {
+            switch (keyCode) {
+                case KeyEvent.VK_RIGHT:
+                    return Button.RIGHT;
+                case KeyEvent.VK_LEFT:
+                    return Button.LEFT;
+                case KeyEvent.VK_UP:
+                    return Button.UP;
+                case KeyEvent.VK_DOWN:
+                    return Button.DOWN;
+                case KeyEvent.VK_Z:
+                    return Button.A;
+                case KeyEvent.VK_X:
+                    return Button.B;
+                case KeyEvent.VK_BACK_SPACE:
+                    return Button.SELECT;
+                case KeyEvent.VK_ENTER:
+                    return Button.START;
+                default:
+                    return null;
+            }
+        }
     }
 
     private static JFrame startGUI(JPanel display, JPanel tileset0, JPanel tileset1) {
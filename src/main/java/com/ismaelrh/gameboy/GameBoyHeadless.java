@@ -0,0 +1,91 @@
+package com.ismaelrh.gameboy;
+
+import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.ScriptedInput;
+import com.ismaelrh.gameboy.debug.blargg.BlarggTestInterceptor;
+import com.ismaelrh.gameboy.debug.trace.TraceRecorder;
+import com.ismaelrh.gameboy.movie.Movie;
+import com.ismaelrh.gameboy.movie.MovieRecorder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Paths;
+
+/**
+ * Runs a ROM without display and without pacing, printing serial output to console.
+ * Usage: GameBoyHeadless rom [frames] [bootrom]
+ * With -Dtrace=file, the last instructions are dumped to that file if emulation fails.
+ * With -Dinput=file, buttons are pressed as that script says, see {@link ScriptedInput}.
+ * With -Drecord=file, the run is saved as a movie to that file, to be checked later with MoviePlayer.
+ */
+public class GameBoyHeadless {
+
+    private static final Logger log = LogManager.getLogger(GameBoyHeadless.class);
+
+    private static final int DEFAULT_FRAMES = 60 * 60;
+    private static final int TRACE_INSTRUCTIONS = 4 * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 1) {
+            System.err.println("Usage: GameBoyHeadless <rom> [frames] [bootrom]");
+            System.exit(1);
+        }
+
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRAMES;
+
+        Emulator emulator = new Emulator();
+        emulator.getMemory().addInterceptor(new BlarggTestInterceptor());
+        emulator.insertCartridge(CartridgeFactory.load(args[0]));
+        if (args.length > 2) {
+            emulator.setBootrom(args[2]);
+        }
+
+        String inputFile = System.getProperty("input");
+        if (inputFile != null) {
+            emulator.getJoypad().setInput(ScriptedInput.load(Paths.get(inputFile)));
+        }
+
+        String traceFile = System.getProperty("trace");
+        TraceRecorder trace = null;
+        if (traceFile != null) {
+            trace = new TraceRecorder(emulator.getScheduler(), TRACE_INSTRUCTIONS);
+            emulator.setTraceRecorder(trace);
+        }
+
+        String movieFile = System.getProperty("record");
+        MovieRecorder recorder = null;
+        if (movieFile != null) {
+            recorder = new MovieRecorder(emulator, Movie.hashRom(args[0]));
+            recorder.start();
+        }
+
+        long startNanos = System.nanoTime();
+        long cycles = 0;
+        try {
+            if (recorder != null) {
+                for (int frame = 0; frame < frames; frame++) {
+                    cycles += emulator.runFrames(1);
+                    recorder.onFrame();
+                }
+                recorder.finish().write(Paths.get(movieFile));
+            } else {
+                cycles = emulator.runFrames(frames);
+            }
+        } catch (Exception e) {
+            if (trace != null) {
+                trace.dump(Paths.get(traceFile));
+                log.error("Emulation failed, last " + trace.size() + " instructions dumped to " + traceFile);
+            }
+            throw e;
+        } finally {
+            emulator.close();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+        System.out.println();
+        log.info(String.format("Ran %d frames (%d cycles) in %.3f s, %.1fx real time",
+                frames, cycles, seconds, (cycles * Const.SECONDS_PER_CYCLE) / seconds));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ismaelrh.gameboy.cpu;
+
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.InstHandler;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+
+/**
+ * Straight run of already decoded instructions, ending at the first one that can jump or at the end of its page.
+ * Instructions are never modified once decoded, so they are executed as they are.
+ * The block is stale as soon as its page is written.
+ */
+class BasicBlock {
+
+    private final int page;
+    private final int codeVersion;
+    private final char[] addresses;
+    private final InstHandler[] handlers;
+    private final Instruction[] instructions;
+    private final boolean idleLoopCandidate;
+
+    BasicBlock(int page, int codeVersion, char[] addresses, InstHandler[] handlers, Instruction[] instructions) {
+        this.page = page;
+        this.codeVersion = codeVersion;
+        this.addresses = addresses;
+        this.handlers = handlers;
+        this.instructions = instructions;
+        this.idleLoopCandidate = IdleLoopDetector.isCandidate(instructions);
+    }
+
+    int size() {
+        return addresses.length;
+    }
+
+    char getAddress(int index) {
+        return addresses[index];
+    }
+
+    InstHandler getHandler(int index) {
+        return handlers[index];
+    }
+
+    Instruction getInstruction(int index) {
+        return instructions[index];
+    }
+
+    /**
+     * It could be a busy-wait loop, see {@link IdleLoopDetector}.
+     */
+    boolean isIdleLoopCandidate() {
+        return idleLoopCandidate;
+    }
+
+    boolean isValid(Memory memory) {
+        return memory.getCodeVersion(page) == codeVersion;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ismaelrh.gameboy.cpu;
+
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
+import com.ismaelrh.gameboy.cpu.instructions.InstHandler;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+
+import java.util.Arrays;
+
+/**
+ * Basic blocks decoded from ROM (per bank), internal RAM and high RAM, by start address.
+ * Blocks never cross a page, so writing to a page only has to invalidate the blocks of that page.
+ * Pages whose blocks keep being invalidated (code and data mixed, self modifying code) stop being cached.
+ */
+public class BlockCache {
+
+    private final static int PAGE_SIZE = 256;
+    private final static int ROM_BANK_PAGES = 64;   //16KB
+    private final static int MAX_BLOCK_INSTRUCTIONS = 64;
+    private final static int MAX_PAGE_REBUILDS = 64;
+
+    private final Memory memory;
+    private final InstDispatchTable dispatchTable;
+
+    private BasicBlock[][] romPages;   //Grows with the banks in use
+    private BasicBlock[] bootromPage;
+    private BasicBlock[][] ramPages;
+    private final int[] pageRebuilds = new int[PAGE_SIZE];
+    private int codeEpoch;
+
+    //Reused while decoding, blocks get copies of the used part
+    private final char[] addresses = new char[MAX_BLOCK_INSTRUCTIONS];
+    private final InstHandler[] handlers = new InstHandler[MAX_BLOCK_INSTRUCTIONS];
+    private final Instruction[] instructions = new Instruction[MAX_BLOCK_INSTRUCTIONS];
+
+    public BlockCache(Memory memory, InstDispatchTable dispatchTable) {
+        this.memory = memory;
+        this.dispatchTable = dispatchTable;
+        clear();
+    }
+
+    /**
+     * Block starting at the address, decoding it if needed.
+     * Null if code there cannot be cached, or the first instruction cannot be decoded within the page.
+     */
+    BasicBlock getBlock(char address) {
+        if (codeEpoch != memory.getCodeEpoch()) {
+            clear();    //Everything is stale, and it may even be another cartridge
+        }
+        int page = address >>> 8;
+        if (pageRebuilds[page] > MAX_PAGE_REBUILDS || !memory.isCodeCacheable(address)) {
+            return null;
+        }
+        BasicBlock[] blocks = getPage(address);
+        int offset = address & 0xFF;
+        BasicBlock block = blocks[offset];
+        if (block == null || !block.isValid(memory)) {
+            if (block != null) {
+                pageRebuilds[page]++;
+            }
+            block = decode(address);
+            blocks[offset] = block;
+        }
+        return block;
+    }
+
+    private void clear() {
+        romPages = new BasicBlock[2 * ROM_BANK_PAGES][];
+        bootromPage = new BasicBlock[PAGE_SIZE];
+        ramPages = new BasicBlock[PAGE_SIZE][];
+        Arrays.fill(pageRebuilds, 0);
+        codeEpoch = memory.getCodeEpoch();
+    }
+
+    private BasicBlock[] getPage(char address) {
+        int page = address >>> 8;
+        if (address >= 0x8000) {
+            if (ramPages[page] == null) {
+                ramPages[page] = new BasicBlock[PAGE_SIZE];
+            }
+            return ramPages[page];
+        }
+        int bank = memory.getRomBank(address);
+        if (bank < 0) {
+            return bootromPage;
+        }
+        int index = bank * ROM_BANK_PAGES + (page % ROM_BANK_PAGES);
+        if (index >= romPages.length) {
+            romPages = Arrays.copyOf(romPages, Math.max(index + 1, romPages.length * 2));
+        }
+        if (romPages[index] == null) {
+            romPages[index] = new BasicBlock[PAGE_SIZE];
+        }
+        return romPages[index];
+    }
+
+    private BasicBlock decode(char start) {
+        int page = start >>> 8;
+        int pageEnd = (page + 1) * PAGE_SIZE;
+        int codeVersion = memory.getCodeVersion(page);
+
+        int count = 0;
+        int address = start;
+        while (count < MAX_BLOCK_INSTRUCTIONS) {
+            int index = memory.read((char) address) & 0xFF;
+            int length = 1;
+            if (index == 0xCB) {
+                if (address + 1 >= pageEnd) {
+                    break;
+                }
+                index = InstDispatchTable.CB_OFFSET + (memory.read((char) (address + 1)) & 0xFF);
+                length = 2;
+            }
+            InstHandler handler = dispatchTable.get(index);
+            if (handler == null || address + length + handler.getExtraBytes() > pageEnd) {
+                break;  //Left to the interpreter
+            }
+
+            Instruction instruction = new Instruction(handler.getOpcode());
+            instruction.setDescription(handler.getDescription());
+            if (handler.isCb()) {
+                instruction.setPrefix((byte) 0xCB);
+            }
+            if (handler.getExtraBytes() != 0) {
+                instruction.setNn1(memory.read((char) (address + length)));
+                if (handler.getExtraBytes() == 2) {
+                    instruction.setNn2(memory.read((char) (address + length + 1)));
+                }
+            }
+            length += handler.getExtraBytes();
+            instruction.setInstBytes(length);
+
+            addresses[count] = (char) address;
+            handlers[count] = handler;
+            instructions[count] = instruction;
+            count++;
+            address += length;
+
+            if (handler.isBlockEnd() || address >= pageEnd) {
+                break;
+            }
+        }
+
+        if (count == 0) {
+            return null;
+        }
+        memory.watchCode(start, address - start);
+        return new BasicBlock(page, codeVersion, Arrays.copyOf(addresses, count),
+                Arrays.copyOf(handlers, count), Arrays.copyOf(instructions, count));
+    }
+}
@@ -12,4 +12,6 @@ public class Const {
     public static double MILLIS_PER_FRAME = (1/DISPLAY_FRAMES_PER_S)*1_000.0; //16.67 MILLIS_PER_CYCLE * CYCLES_PER_FRAME;
     public static long NANOS_PER_FRAME = (long) (MILLIS_PER_FRAME * 1_000_000.0);
 
+    public static int LCD_CYCLES_PER_FRAME = 70224; //154 lines of 456 cycles
+
 }
@@ -1,14 +1,15 @@
 package com.ismaelrh.gameboy.cpu;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
-import com.ismaelrh.gameboy.cpu.instruction.InstructionFactory;
 import com.ismaelrh.gameboy.cpu.instructions.implementation.JumpCommands;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.instructions.InstDecoder;
-import com.ismaelrh.gameboy.cpu.instructions.InstDescription;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
+import com.ismaelrh.gameboy.cpu.instructions.InstHandler;
 import com.ismaelrh.gameboy.debug.debugger.Debugger;
 import com.ismaelrh.gameboy.debug.debugger.DebuggerController;
 import com.ismaelrh.gameboy.debug.logCheck.LogStatusProvider;
+import com.ismaelrh.gameboy.debug.trace.TraceRecorder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -22,53 +23,163 @@ public class ControlUnit {
     private Registers registers;
     private Memory memory;
     private InstDecoder decoder;
+    private InstDispatchTable dispatchTable;
     private Debugger debugger;
     private ExecutionInfo executionInfo;
 
+    //Whether instructions go through the debugger. Without one attached, nothing but the instruction is run
+    private boolean instrumented = false;
+    private TraceRecorder traceRecorder;
+
+    //Reused for every instruction that is not in a block, each control unit has its own so several can run at once
+    private final Instruction instruction = new Instruction((byte) 0);
+
+    private final BlockCache blockCache;
+    private BasicBlock block;
+    private int blockIndex;
+    private int blockRomMappingVersion;
+
+    private final IdleLoopDetector idleLoopDetector;
+    private int idleLoopCycles;
+
     public ControlUnit(Registers registers, Memory memory) {
         this.registers = registers;
         this.memory = memory;
         this.decoder = new InstDecoder();
+        this.dispatchTable = new InstDispatchTable(decoder);
+        this.blockCache = new BlockCache(memory, dispatchTable);
+        this.idleLoopDetector = new IdleLoopDetector(memory);
         this.executionInfo = new ExecutionInfo();
         this.debugger = new Debugger(memory, registers, executionInfo);
     }
 
+    /**
+     * Swaps in the instrumented path, or back to the lean one if null and there is no log status provider.
+     * It is applied from the next instruction, call it from the thread running the emulation.
+     */
     public void setDebuggerController(DebuggerController controller) {
         this.debugger.setController(controller);
+        this.instrumented = debugger.isAttached();
     }
 
     public void setLogStatusProvider(LogStatusProvider logStatusProvider) {
         this.debugger.setLogStatusProvider(logStatusProvider);
+        this.instrumented = debugger.isAttached();
     }
 
+    public boolean isInstrumented() {
+        return instrumented;
+    }
+
+    /**
+     * Every instruction is recorded before it runs. Null stops recording.
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    /**
+     * Instructions come from the cached basic block of the current PC if possible, so there is
+     * no fetch nor decode. Otherwise, or if it is not possible to cache code at PC, they are decoded one by one.
+     * The debugger is only called when instrumented.
+     */
     public int runInstruction() throws Exception {
 
+        idleLoopCycles = 0;
         if (registers.isHalt()) {
             return 4;
         }
 
-        Instruction instruction = readInstruction();
-        InstDescription description = instruction.getDescription();
+        char pc = registers.getPC();
+        if (!continuesBlock(pc)) {
+            block = blockCache.getBlock(pc);
+            blockIndex = 0;
+            blockRomMappingVersion = memory.getRomMappingVersion();
+            if (block == null) {
+                idleLoopDetector.reset();
+                return decodeAndRunInstruction();
+            }
+            if (block.isIdleLoopCandidate()) {
+                idleLoopDetector.start(block, registers);
+            }
+        }
+
+        Instruction blockInstruction = block.getInstruction(blockIndex);
+        InstHandler handler = block.getHandler(blockIndex);
+        blockIndex++;
+
+        if (traceRecorder != null) {
+            traceRecorder.record(registers, blockInstruction);
+        }
+        if (instrumented) {
+            executionInfo.setCurrentInstruction(blockInstruction);
+            debugger.debug();   //This can block the execution
+        }
+
+        registers.setPC((char) (pc + blockInstruction.getInstBytes()));
+        int instCycles = handler.getInst().apply(blockInstruction, memory, registers);
+        executionInfo.addCycles(instCycles);
+
+        if (block.isIdleLoopCandidate()) {
+            idleLoopDetector.addCycles(instCycles);
+            //The debugger and the trace have to see every iteration
+            if (blockIndex == block.size() && !instrumented && traceRecorder == null) {
+                idleLoopCycles = idleLoopDetector.end(block, registers);
+            }
+        }
+        return instCycles;
+    }
+
+    /**
+     * Cycles of the busy-wait loop iteration that the last instruction completed, 0 if it did not complete one.
+     * Until the next peripheral event, the following iterations would do exactly the same.
+     */
+    public int getIdleLoopCycles() {
+        return idleLoopCycles;
+    }
+
+    /**
+     * Halted with nothing that could wake it up before the next peripheral event.
+     */
+    public boolean isHaltedUntilEvent() {
+        return registers.isHalt() && (memory.interruptEnable & memory.interruptFlags & 0x1F) == 0;
+    }
+
+    //Next instruction of the current block, unless something jumped, wrote to the block or switched banks
+    private boolean continuesBlock(char pc) {
+        return block != null
+                && blockIndex < block.size()
+                && block.getAddress(blockIndex) == pc
+                && blockRomMappingVersion == memory.getRomMappingVersion()
+                && block.isValid(memory);
+    }
 
-        executionInfo.setCurrentInstruction(instruction);
-        debugger.debug();   //This can block the execution
+    private int decodeAndRunInstruction() throws Exception {
+        InstHandler handler = readInstruction(instruction);
+
+        if (traceRecorder != null) {
+            traceRecorder.record(registers, instruction);
+        }
+        if (instrumented) {
+            executionInfo.setCurrentInstruction(instruction);
+            debugger.debug();   //This can block the execution
+        }
 
         //Then, increment PC as needed
         registers.setPC((char) (registers.getPC() + instruction.getInstBytes()));
 
         //Execute and return the number of cycles that it took
-        int instCycles = description.getInst().apply(instruction, memory, registers);
+        int instCycles = handler.getInst().apply(instruction, memory, registers);
         executionInfo.addCycles(instCycles);
 
-        //Release instruction object
-        InstructionFactory.releaseInstruction(instruction);
+        instruction.clear();
         return instCycles;
     }
 
     public void checkInterruptions() {
 
         //You can exit halt mode even if IME is disabled, just if there are interruptions that could be serviced
-        if (memory.interruptEnable != 0 && memory.interruptFlags != 0 && registers.isHalt()) {
+        if ((memory.interruptEnable & memory.interruptFlags & 0x1F) != 0 && registers.isHalt()) {
             registers.setHalt(false);
         }
 
@@ -84,6 +195,8 @@ public class ControlUnit {
                     registers.setIme(false);
                     JumpCommands.doCall(Memory.ISR[mask], memory, registers);
                     memory.interruptFlags &= ~mask;
+                    idleLoopDetector.reset();
+                    idleLoopCycles = 0;
                     return;
                 }
             }
@@ -92,43 +205,45 @@ public class ControlUnit {
     }
 
     //Does NOT increment PC
-    private Instruction readInstruction() {
+    private InstHandler readInstruction(Instruction inst) throws Exception {
 
         char initialPC = registers.getPC();
         char auxPC = initialPC;
 
-        boolean isCB = false;
-
         //Fetch 1st op byte
-        byte opcode = this.memory.read(auxPC);
+        int index = this.memory.read(auxPC) & 0xFF;
         auxPC += 1;
 
-        if (opcode == (byte) 0xCB) { //Prefix operation
-            opcode = this.memory.read(auxPC);
+        if (index == 0xCB) { //Prefix operation
+            index = InstDispatchTable.CB_OFFSET + (this.memory.read(auxPC) & 0xFF);
             auxPC += 1;
-            isCB = true;
         }
 
-        //Decode
-        InstDescription instDescription = decoder.getInst(isCB, opcode);
-        Instruction inst = InstructionFactory.getInstruction(opcode);
-        inst.setDescription(instDescription);
+        //Decode, just a lookup as the table is already built
+        InstHandler handler = dispatchTable.get(index);
+        if (handler == null) {
+            inst.clear();
+            throw new Exception(String.format("Instruction 0x%02X does not exist! @%04X", index & 0xFF, (int) initialPC));
+        }
+        inst.setOpcode(handler.getOpcode());
+        inst.setDescription(handler.getDescription());
 
-        if (isCB) {
+        if (handler.isCb()) {
             inst.setPrefix((byte) 0xCB);
         }
 
         //Fetch (2nd step, as it is already decoded)
-        if (instDescription.getExtraBytes() == 1 || instDescription.getExtraBytes() == 2) {
+        int extraBytes = handler.getExtraBytes();
+        if (extraBytes != 0) {
             inst.setNn1(this.memory.read(auxPC));
             auxPC += 1;
-        }
-        if (instDescription.getExtraBytes() == 2) {
-            inst.setNn2(this.memory.read(auxPC));
-            auxPC += 1;
+            if (extraBytes == 2) {
+                inst.setNn2(this.memory.read(auxPC));
+                auxPC += 1;
+            }
         }
         inst.setInstBytes(auxPC - initialPC);
-        return inst;
+        return handler;
     }
 
     private byte readAndIncPC() {
@@ -0,0 +1,152 @@
+package com.ismaelrh.gameboy.cpu;
+
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+
+/**
+ * Recognizes busy-wait loops, like polling LY or a flag set by an interruption: a basic block that jumps back
+ * to its own start, never writes memory and leaves the registers as they were.
+ * If nothing it read changed during an iteration, the next ones are exactly the same until a peripheral event,
+ * so they can be skipped as a whole.
+ */
+class IdleLoopDetector {
+
+    //Dispatch indexes of the instructions that only touch registers or read memory
+    private final static boolean[] READ_ONLY = new boolean[InstDispatchTable.CB_OFFSET * 2];
+
+    static {
+        READ_ONLY[0x00] = true;                         //nop
+        for (int index = 0x40; index < 0xC0; index++) {
+            READ_ONLY[index] = index < 0x70 || index > 0x77;   //ld r,r / ld r,(HL) and ALU with A, not ld (HL),r nor halt
+        }
+        for (int r = 0; r < 8; r++) {
+            if (r != 6) {                               //(HL) would write
+                READ_ONLY[0x04 + (r << 3)] = true;      //inc r
+                READ_ONLY[0x05 + (r << 3)] = true;      //dec r
+            }
+            READ_ONLY[0x06 + (r << 3)] = r != 6;        //ld r,n
+            READ_ONLY[0xC6 + (r << 3)] = true;          //ALU with A and n
+        }
+        for (int rr = 0; rr < 4; rr++) {
+            READ_ONLY[0x03 + (rr << 4)] = true;         //inc rr
+            READ_ONLY[0x0B + (rr << 4)] = true;         //dec rr
+        }
+        int[] others = {
+                0x0A, 0x1A, 0x2A, 0x3A,                 //ld A,(BC) / (DE) / (HL+) / (HL-)
+                0xF0, 0xF2, 0xFA,                       //ld A,(FF00+n) / (FF00+C) / (nn)
+                0x07, 0x0F, 0x17, 0x1F, 0x27, 0x2F, 0x37, 0x3F,
+                0x18, 0x20, 0x28, 0x30, 0x38,           //jr
+                0xC3, 0xC2, 0xCA, 0xD2, 0xDA            //jp
+        };
+        for (int index : others) {
+            READ_ONLY[index] = true;
+        }
+        for (int cb = 0; cb < 256; cb++) {
+            boolean bit = cb >= 0x40 && cb < 0x80;
+            READ_ONLY[InstDispatchTable.CB_OFFSET + cb] = bit || (cb & 0x07) != 6;     //Only bit n,(HL) reads it
+        }
+    }
+
+    private final Memory memory;
+
+    //Registers when the block was entered at its start
+    private BasicBlock loop;
+    private char af;
+    private char bc;
+    private char de;
+    private char hl;
+    private char sp;
+    private int cycles;
+
+    IdleLoopDetector(Memory memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * Only read-only instructions, ending in a jump that may go back to the start.
+     */
+    static boolean isCandidate(Instruction[] instructions) {
+        for (Instruction instruction : instructions) {
+            if (!READ_ONLY[getIndex(instruction)]) {
+                return false;
+            }
+        }
+        int last = getIndex(instructions[instructions.length - 1]);
+        return last == 0x18 || last == 0x20 || last == 0x28 || last == 0x30 || last == 0x38
+                || last == 0xC3 || last == 0xC2 || last == 0xCA || last == 0xD2 || last == 0xDA;
+    }
+
+    void start(BasicBlock block, Registers registers) {
+        loop = block;
+        af = registers.getAF();
+        bc = registers.getBC();
+        de = registers.getDE();
+        hl = registers.getHL();
+        sp = registers.getSP();
+        cycles = 0;
+    }
+
+    void addCycles(int instCycles) {
+        cycles += instCycles;
+    }
+
+    /**
+     * Something other than the loop ran, like an interruption.
+     */
+    void reset() {
+        loop = null;
+    }
+
+    /**
+     * Called when the last instruction of the block has run.
+     *
+     * @return cycles of the iteration if it can be repeated as is, 0 otherwise
+     */
+    int end(BasicBlock block, Registers registers) {
+        boolean idle = loop == block
+                && registers.getPC() == block.getAddress(0)
+                && registers.getAF() == af && registers.getBC() == bc && registers.getDE() == de
+                && registers.getHL() == hl && registers.getSP() == sp
+                && readsAreStable(block, registers);
+        loop = null;
+        return idle ? cycles : 0;
+    }
+
+    //Registers are the same on every iteration, so are the addresses read
+    private boolean readsAreStable(BasicBlock block, Registers registers) {
+        for (int i = 0; i < block.size(); i++) {
+            Instruction instruction = block.getInstruction(i);
+            int address = getReadAddress(getIndex(instruction), instruction, registers);
+            if (address >= 0 && !memory.isStableUntilEvent((char) address)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getReadAddress(int index, Instruction instruction, Registers registers) {
+        switch (index) {
+            case 0x0A:
+                return registers.getBC();
+            case 0x1A:
+                return registers.getDE();
+            case 0xF0:
+                return 0xFF00 + (instruction.getNn1() & 0xFF);
+            case 0xF2:
+                return 0xFF00 + (registers.getC() & 0xFF);
+            case 0xFA:
+                return ((instruction.getNn2() & 0xFF) << 8) | (instruction.getNn1() & 0xFF);
+            default:
+                boolean readsHL = index == 0x2A || index == 0x3A
+                        || (index >= 0x40 && index < 0xC0 && (index & 0x07) == 6)
+                        || (index >= InstDispatchTable.CB_OFFSET && (index & 0x07) == 6);
+                return readsHL ? registers.getHL() : -1;
+        }
+    }
+
+    private static int getIndex(Instruction instruction) {
+        int opcode = instruction.getOpcode() & 0xFF;
+        return instruction.getPrefix() != null ? InstDispatchTable.CB_OFFSET + opcode : opcode;
+    }
+}
@@ -1,11 +1,13 @@
 package com.ismaelrh.gameboy.cpu;
 
+import com.ismaelrh.gameboy.state.Snapshotable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
-public class Registers {
+public class Registers implements Snapshotable {
 
     private static final Logger log = LogManager.getLogger(Registers.class);
 
@@ -356,6 +358,121 @@ public class Registers {
         }
     }
 
+    /*
+     * Accessors resolved once from a register code, so pre-bound instruction handlers
+     * do not need to go through the getByCode/setByCode switch on every execution.
+     */
+    @FunctionalInterface
+    public interface ByteGetter {
+        byte get(Registers registers);
+    }
+
+    @FunctionalInterface
+    public interface ByteSetter {
+        void set(Registers registers, byte data);
+    }
+
+    @FunctionalInterface
+    public interface CharGetter {
+        char get(Registers registers);
+    }
+
+    @FunctionalInterface
+    public interface CharSetter {
+        void set(Registers registers, char data);
+    }
+
+    public static ByteGetter getterByCode(byte regCode) {
+        switch (regCode) {
+            case A:
+                return Registers::getA;
+            case B:
+                return Registers::getB;
+            case C:
+                return Registers::getC;
+            case D:
+                return Registers::getD;
+            case E:
+                return Registers::getE;
+            case H:
+                return Registers::getH;
+            case L:
+                return Registers::getL;
+            default:
+                throw new IllegalArgumentException("Incorrect register code: " + String.format("%02x", (int) regCode));
+        }
+    }
+
+    public static ByteSetter setterByCode(byte regCode) {
+        switch (regCode) {
+            case A:
+                return Registers::setA;
+            case B:
+                return Registers::setB;
+            case C:
+                return Registers::setC;
+            case D:
+                return Registers::setD;
+            case E:
+                return Registers::setE;
+            case H:
+                return Registers::setH;
+            case L:
+                return Registers::setL;
+            default:
+                throw new IllegalArgumentException("Incorrect register code: " + String.format("%02x", (int) regCode));
+        }
+    }
+
+    public static CharGetter getterByDoubleCode(byte regCode, boolean useSP) {
+        switch (regCode) {
+            case BC:
+                return Registers::getBC;
+            case DE:
+                return Registers::getDE;
+            case HL:
+                return Registers::getHL;
+            case AF_SP:
+                return useSP ? Registers::getSP : Registers::getAF;
+            default:
+                throw new IllegalArgumentException("Incorrect double register code: " + String.format("%02x", (int) regCode));
+        }
+    }
+
+    public static CharSetter setterByDoubleCode(byte regCode, boolean useSP) {
+        switch (regCode) {
+            case BC:
+                return Registers::setBC;
+            case DE:
+                return Registers::setDE;
+            case HL:
+                return Registers::setHL;
+            case AF_SP:
+                return useSP ? Registers::setSP : Registers::setAF;
+            default:
+                throw new IllegalArgumentException("Incorrect double register code: " + String.format("%02x", (int) regCode));
+        }
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putChar(pc).putChar(sp).putChar(af).putChar(bc).putChar(de).putChar(hl);
+        out.put((byte) (ime ? 1 : 0));
+        out.put((byte) (halt ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        pc = in.getChar();
+        sp = in.getChar();
+        af = in.getChar();
+        bc = in.getChar();
+        de = in.getChar();
+        hl = in.getChar();
+        ime = in.get() != 0;
+        halt = in.get() != 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
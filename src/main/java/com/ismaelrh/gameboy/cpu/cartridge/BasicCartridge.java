@@ -1,45 +1,47 @@
 package com.ismaelrh.gameboy.cpu.cartridge;
 
-import com.ismaelrh.gameboy.cpu.instructions.InstDecoder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.File;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
 
+/**
+ * Cartridge without a controller, up to 32KB of ROM without banking and optionally up to 8KB of RAM
+ * at 0xA000 - 0xBFFF, always enabled.
+ */
 public class BasicCartridge implements Cartridge {
 
     private static final Logger log = LogManager.getLogger(BasicCartridge.class);
 
     private String name;
-    private String filePath;
 
     //Cartridge: 0x0000 to 0x7FFF (32KB)
     private final static int CARTRIDGE_SIZE_BYTES = 32768;
-    private byte[] cartridge;
-    private int realSize;
+    private final static int RAM_SIZE_BYTES = 8192;
+    private final static char EXTERNAL_RAM_START = 0xA000;
+    private final ByteBuffer cartridge;
+    private final int realSize;
+    private final ExternalRam ram;
+    private final int ramMask;      //Smaller RAM is mirrored over the 8KB
 
     public BasicCartridge(String name, String filePath) throws Exception {
-        this.name = name;
-        this.filePath = filePath;
-        cartridge = new byte[CARTRIDGE_SIZE_BYTES];
-        loadFile();
+        this(name, RomImage.map(filePath));
         log.info("Loaded cartridge '" + name + "' with size " + realSize + " bytes");
     }
 
-    private void loadFile() throws Exception {
-        File file = new File(filePath);
-        if (!file.isFile() || !file.canRead()) {
-            throw new Exception("Cannot read file " + filePath);
-        }
-        byte[] content = Files.readAllBytes(file.toPath());
-        if (content.length > 32768) {
-            throw new Exception("Read file cannot fit into cartridge! Max is 32768B, file is " + content.length + "B");
-        }
-        realSize = content.length;
-        for (int i = 0; i < content.length; i++) {
-            cartridge[i] = content[i];
+    public BasicCartridge(String name, ByteBuffer rom) throws Exception {
+        this(name, rom, ExternalRam.allocate(0));
+    }
+
+    public BasicCartridge(String name, ByteBuffer rom, ExternalRam ram) throws Exception {
+        if (rom.capacity() > CARTRIDGE_SIZE_BYTES) {
+            throw new Exception("Read file cannot fit into cartridge! Max is 32768B, file is " + rom.capacity() + "B");
         }
+        this.name = name;
+        this.cartridge = rom;
+        this.realSize = rom.capacity();
+        this.ram = ram;
+        this.ramMask = Math.min(ram.size(), RAM_SIZE_BYTES) - 1;
     }
 
     @Override
@@ -50,14 +52,57 @@ public class BasicCartridge implements Cartridge {
 
     @Override
     public byte read(char address) {
-        return cartridge[address];
+        if (address >= realSize) {
+            return 0x00;
+        }
+        return cartridge.get(address);
     }
 
     @Override
     public void write(char address, byte data) {
-        //Write is disabled on this cartridges
-        String addressString = String.format("0x%04X", (short) address);
-        String dataString = String.format("0x%02X", data);
-        log.error("Attempted to write to read only cartridge! Address " + addressString + ", Data " + dataString + " Ignored.");
+        //Write is disabled on this cartridges. Games usually write to select bank 1, it is not an error.
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Ignored write to read only cartridge @%04X=%02X", (int) address, data));
+        }
+    }
+
+    @Override
+    public boolean hasRam() {
+        return ram.size() > 0;
+    }
+
+    @Override
+    public byte readRam(char address) {
+        if (ram.size() == 0) {
+            return (byte) 0xFF;
+        }
+        return ram.read((address - EXTERNAL_RAM_START) & ramMask);
+    }
+
+    @Override
+    public void writeRam(char address, byte data) {
+        if (ram.size() > 0) {
+            ram.write((address - EXTERNAL_RAM_START) & ramMask, data);
+        }
+    }
+
+    @Override
+    public void flush() {
+        ram.flush();
+    }
+
+    @Override
+    public void close() {
+        ram.close();
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        ram.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        ram.loadState(in);
     }
 }
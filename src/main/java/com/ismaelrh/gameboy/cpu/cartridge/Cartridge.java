@@ -1,11 +1,59 @@
 package com.ismaelrh.gameboy.cpu.cartridge;
 
-//Cartridge: 0x0000 to 0x7FFF (32KB)
-public interface Cartridge {
+import com.ismaelrh.gameboy.state.Snapshotable;
+
+import java.nio.ByteBuffer;
+
+//Cartridge: 0x0000 to 0x7FFF (32KB), and optionally external RAM: 0xA000 to 0xBFFF (8KB)
+public interface Cartridge extends Snapshotable {
 
     String getName();
 
     byte read(char address);
 
     void write(char address, byte data);
+
+    /**
+     * ROM bank currently mapped at the address, so code decoded from it can be told apart from other banks.
+     */
+    default int getRomBank(char address) {
+        return address < 0x4000 ? 0 : 1;
+    }
+
+    /**
+     * Whether the cartridge handles 0xA000 - 0xBFFF. If not, memory keeps its own external RAM.
+     */
+    default boolean hasRam() {
+        return false;
+    }
+
+    default byte readRam(char address) {
+        return (byte) 0xFF;
+    }
+
+    default void writeRam(char address, byte data) {
+    }
+
+    /**
+     * Persists battery backed RAM, if any. It is also done periodically in background and on shutdown.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Flushes battery backed RAM, if any, and releases its save file. The cartridge must not be used afterwards.
+     */
+    default void close() {
+    }
+
+    /**
+     * Bank selection and RAM contents. ROM is never saved, nothing to do for cartridges without a controller.
+     */
+    @Override
+    default void saveState(ByteBuffer out) {
+    }
+
+    @Override
+    default void loadState(ByteBuffer in) {
+    }
 }
@@ -0,0 +1,81 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Creates the right cartridge for a ROM file, according to the type on its header.
+ */
+public class CartridgeFactory {
+
+    private static final Logger log = LogManager.getLogger(CartridgeFactory.class);
+
+    /**
+     * Battery backed RAM is saved next to the ROM, with .sav extension.
+     */
+    public static Cartridge load(String filePath) throws Exception {
+        return load(filePath, getDefaultSavePath(filePath));
+    }
+
+    /**
+     * @param saveFilePath file for battery backed RAM, or null to keep it only in memory
+     */
+    public static Cartridge load(String filePath, String saveFilePath) throws Exception {
+        ByteBuffer rom = RomImage.map(filePath);
+        CartridgeHeader header = new CartridgeHeader(rom);
+        String name = header.getTitle().isEmpty() ? new File(filePath).getName() : header.getTitle();
+        ExternalRam ram = createRam(header, saveFilePath);
+
+        Cartridge cartridge;
+        switch (header.getType()) {
+            case 0x00:  //ROM only
+            case 0x08:  //ROM + RAM
+            case 0x09:  //ROM + RAM + Battery
+                cartridge = new BasicCartridge(name, rom, ram);
+                break;
+            case 0x01:  //MBC1
+            case 0x02:  //MBC1 + RAM
+            case 0x03:  //MBC1 + RAM + Battery
+                cartridge = new Mbc1Cartridge(name, rom, ram);
+                break;
+            case 0x0F:  //MBC3 + Timer + Battery
+            case 0x10:  //MBC3 + Timer + RAM + Battery
+            case 0x11:  //MBC3
+            case 0x12:  //MBC3 + RAM
+            case 0x13:  //MBC3 + RAM + Battery
+                cartridge = new Mbc3Cartridge(name, rom, ram);
+                break;
+            case 0x19:  //MBC5
+            case 0x1A:  //MBC5 + RAM
+            case 0x1B:  //MBC5 + RAM + Battery
+            case 0x1C:  //MBC5 + Rumble
+            case 0x1D:  //MBC5 + Rumble + RAM
+            case 0x1E:  //MBC5 + Rumble + RAM + Battery
+                cartridge = new Mbc5Cartridge(name, rom, ram);
+                break;
+            default:
+                throw new Exception(String.format("Unsupported cartridge type 0x%02X in %s", header.getType(), filePath));
+        }
+        log.info(String.format("Loaded cartridge '%s' of type 0x%02X, ROM %dKB, RAM %dKB",
+                name, header.getType(), rom.capacity() / 1024, header.getRamSize() / 1024));
+        return cartridge;
+    }
+
+    public static String getDefaultSavePath(String filePath) {
+        int extension = filePath.lastIndexOf('.');
+        if (extension > filePath.lastIndexOf(File.separatorChar)) {
+            return filePath.substring(0, extension) + ".sav";
+        }
+        return filePath + ".sav";
+    }
+
+    private static ExternalRam createRam(CartridgeHeader header, String saveFilePath) throws Exception {
+        if (header.hasBattery() && header.getRamSize() > 0 && saveFilePath != null) {
+            return ExternalRam.map(saveFilePath, header.getRamSize());
+        }
+        return ExternalRam.allocate(header.getRamSize());
+    }
+}
@@ -0,0 +1,81 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cartridge header, 0x0100 - 0x014F of the ROM.
+ */
+public class CartridgeHeader {
+
+    private final static int TITLE_ADDRESS = 0x0134;
+    private final static int TITLE_LENGTH = 16;
+    private final static int TYPE_ADDRESS = 0x0147;
+    private final static int ROM_SIZE_ADDRESS = 0x0148;
+    private final static int RAM_SIZE_ADDRESS = 0x0149;
+    private final static int HEADER_END = 0x0150;
+
+    //Indexed by RAM size code
+    private final static int[] RAM_SIZES = new int[]{0, 2048, 8192, 32768, 131072, 65536};
+
+    private final String title;
+    private final int type;
+    private final int romSize;
+    private final int ramSize;
+
+    public CartridgeHeader(ByteBuffer rom) throws Exception {
+        if (rom.capacity() < HEADER_END) {
+            throw new Exception("ROM is too small to have a header: " + rom.capacity() + "B");
+        }
+        StringBuilder titleBuilder = new StringBuilder();
+        for (int i = 0; i < TITLE_LENGTH; i++) {
+            int c = rom.get(TITLE_ADDRESS + i) & 0xFF;
+            if (c == 0 || c >= 0x80) {    //Last bytes are used as flags in newer cartridges
+                break;
+            }
+            titleBuilder.append((char) c);
+        }
+        this.title = titleBuilder.toString().trim();
+        this.type = rom.get(TYPE_ADDRESS) & 0xFF;
+        this.romSize = 32768 << (rom.get(ROM_SIZE_ADDRESS) & 0xFF);
+        int ramSizeCode = rom.get(RAM_SIZE_ADDRESS) & 0xFF;
+        if (ramSizeCode >= RAM_SIZES.length) {
+            throw new Exception(String.format("Unknown RAM size code 0x%02X", ramSizeCode));
+        }
+        this.ramSize = RAM_SIZES[ramSizeCode];
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getRomSize() {
+        return romSize;
+    }
+
+    public int getRamSize() {
+        return ramSize;
+    }
+
+    public boolean hasBattery() {
+        switch (type) {
+            case 0x03:  //MBC1 + RAM + Battery
+            case 0x06:  //MBC2 + Battery
+            case 0x09:  //ROM + RAM + Battery
+            case 0x0D:  //MMM01 + RAM + Battery
+            case 0x0F:  //MBC3 + Timer + Battery
+            case 0x10:  //MBC3 + Timer + RAM + Battery
+            case 0x13:  //MBC3 + RAM + Battery
+            case 0x1B:  //MBC5 + RAM + Battery
+            case 0x1E:  //MBC5 + Rumble + RAM + Battery
+            case 0x22:  //MBC7 + Sensor + Rumble + RAM + Battery
+            case 0xFF:  //HuC1 + RAM + Battery
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import com.ismaelrh.gameboy.state.Snapshotable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * External RAM of a cartridge, 2KB to 128KB.
+ * Battery backed RAM is a read-write mapping of the .sav file, so stores go straight to the OS page cache
+ * and survive a crash of the emulator. Dirty saves are forced to disk by a background thread every second,
+ * and once more on shutdown or on close. Writes never block on disk.
+ */
+public class ExternalRam implements Snapshotable {
+
+    private static final Logger log = LogManager.getLogger(ExternalRam.class);
+
+    private final ByteBuffer buffer;
+    private final MappedByteBuffer saveFile;   //null if not battery backed
+    private final SaveFlusher flusher;         //null if not battery backed
+    private volatile boolean dirty = false;
+
+    private ExternalRam(ByteBuffer buffer, MappedByteBuffer saveFile, SaveFlusher flusher) {
+        this.buffer = buffer;
+        this.saveFile = saveFile;
+        this.flusher = flusher;
+    }
+
+    /**
+     * RAM that is lost on exit.
+     */
+    public static ExternalRam allocate(int size) {
+        return new ExternalRam(ByteBuffer.allocate(size), null, null);
+    }
+
+    /**
+     * RAM persisted on the given file. It is created or extended if needed, existing content is kept.
+     */
+    public static ExternalRam map(String saveFilePath, int size) throws IOException {
+        return map(saveFilePath, size, SaveFlusher.getDefault());
+    }
+
+    static ExternalRam map(String saveFilePath, int size, SaveFlusher flusher) throws IOException {
+        File file = new File(saveFilePath);
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        ExternalRam ram = new ExternalRam(mapped, mapped, flusher);
+        flusher.register(ram);
+        log.info("Mapped battery backed RAM to " + saveFilePath);
+        return ram;
+    }
+
+    public int size() {
+        return buffer.capacity();
+    }
+
+    public byte read(int index) {
+        return buffer.get(index);
+    }
+
+    public void write(int index, byte data) {
+        buffer.put(index, data);
+        dirty = true;
+    }
+
+    public boolean isBatteryBacked() {
+        return saveFile != null;
+    }
+
+    /**
+     * Forces pending changes to disk. Does nothing if not battery backed or nothing changed.
+     *
+     * @return whether there were changes to force
+     */
+    public boolean flush() {
+        if (saveFile != null && dirty) {
+            dirty = false;  //Before forcing, so writes done meanwhile are flushed next time
+            saveFile.force();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Flushes and stops the background flush, so the mapping is no longer kept reachable.
+     * Later writes are not forced to disk anymore, the RAM should not be used afterwards.
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.unregister(this);
+        }
+        flush();
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putInt(size());
+        ByteBuffer content = buffer.duplicate();
+        content.clear();
+        out.put(content);
+    }
+
+    /**
+     * Battery backed RAM is overwritten too, as the game would do, and flushed as any other write.
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        int size = in.getInt();
+        if (size != size()) {
+            throw new IllegalArgumentException("Saved RAM is " + size + "B, cartridge RAM is " + size() + "B");
+        }
+        ByteBuffer content = in.slice();
+        content.limit(size);
+        ByteBuffer target = buffer.duplicate();
+        target.clear();
+        target.put(content);
+        in.position(in.position() + size);
+        dirty = true;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MBC1: up to 2MB of ROM and 32KB of RAM.
+ * 0x0000 - 0x1FFF: RAM enable (0x0A)
+ * 0x2000 - 0x3FFF: lower 5 bits of ROM bank, 0 selects 1
+ * 0x4000 - 0x5FFF: 2 bits, RAM bank or upper bits of ROM bank
+ * 0x6000 - 0x7FFF: banking mode. On mode 1, upper bits also apply to 0x0000 - 0x3FFF and RAM
+ */
+public class Mbc1Cartridge extends MbcCartridge {
+
+    private int romBank = 1;
+    private int upperBits = 0;
+    private boolean advancedMode = false;
+
+    public Mbc1Cartridge(String name, ByteBuffer rom, ExternalRam ram) throws Exception {
+        super(name, rom, ram);
+        updateBanks();
+    }
+
+    @Override
+    public void write(char address, byte data) {
+        if (address < 0x2000) {
+            ramEnabled = (data & 0x0F) == 0x0A;
+        } else if (address < 0x4000) {
+            romBank = data & 0x1F;
+            if (romBank == 0) {
+                romBank = 1;
+            }
+            updateBanks();
+        } else if (address < 0x6000) {
+            upperBits = data & 0x03;
+            updateBanks();
+        } else {
+            advancedMode = (data & 0x01) != 0;
+            updateBanks();
+        }
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.put((byte) romBank);
+        out.put((byte) upperBits);
+        out.put((byte) (advancedMode ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        romBank = in.get();
+        upperBits = in.get();
+        advancedMode = in.get() != 0;
+    }
+
+    private void updateBanks() {
+        int upperRomBank = upperBits << 5;
+        selectRomBanks(advancedMode ? upperRomBank : 0, upperRomBank | romBank);
+        selectRamBank(advancedMode ? upperBits : 0);
+    }
+}
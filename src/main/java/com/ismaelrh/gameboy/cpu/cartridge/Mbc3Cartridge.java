@@ -0,0 +1,93 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MBC3: up to 2MB of ROM, 32KB of RAM and a real time clock.
+ * 0x0000 - 0x1FFF: RAM and RTC enable (0x0A)
+ * 0x2000 - 0x3FFF: 7 bits ROM bank, 0 selects 1
+ * 0x4000 - 0x5FFF: RAM bank (0x00 - 0x03) or RTC register (0x08 - 0x0C) mapped at 0xA000 - 0xBFFF
+ * 0x6000 - 0x7FFF: writing 0x00 and then 0x01 latches the RTC registers
+ * RTC registers keep the written values, they do not advance by themselves.
+ */
+public class Mbc3Cartridge extends MbcCartridge {
+
+    private final static int RTC_FIRST_REGISTER = 0x08;
+    private final static int RTC_LAST_REGISTER = 0x0C;
+
+    private final byte[] rtc = new byte[5];
+    private final byte[] latchedRtc = new byte[5];
+    private int ramBankOrRtc = 0;
+    private int lastLatchWrite = 0xFF;
+
+    public Mbc3Cartridge(String name, ByteBuffer rom, ExternalRam ram) throws Exception {
+        super(name, rom, ram);
+        selectRomBanks(0, 1);
+    }
+
+    @Override
+    public void write(char address, byte data) {
+        if (address < 0x2000) {
+            ramEnabled = (data & 0x0F) == 0x0A;
+        } else if (address < 0x4000) {
+            int romBank = data & 0x7F;
+            selectRomBanks(0, romBank == 0 ? 1 : romBank);
+        } else if (address < 0x6000) {
+            ramBankOrRtc = data & 0x0F;
+            if (ramBankOrRtc < RTC_FIRST_REGISTER) {
+                selectRamBank(ramBankOrRtc & 0x03);
+            }
+        } else {
+            if (lastLatchWrite == 0x00 && data == 0x01) {
+                System.arraycopy(rtc, 0, latchedRtc, 0, rtc.length);
+            }
+            lastLatchWrite = data & 0xFF;
+        }
+    }
+
+    @Override
+    public boolean hasRam() {
+        return true;    //RTC registers are mapped even without RAM
+    }
+
+    @Override
+    public byte readRam(char address) {
+        if (isRtcSelected()) {
+            return ramEnabled ? latchedRtc[ramBankOrRtc - RTC_FIRST_REGISTER] : (byte) 0xFF;
+        }
+        return super.readRam(address);
+    }
+
+    @Override
+    public void writeRam(char address, byte data) {
+        if (isRtcSelected()) {
+            if (ramEnabled) {
+                rtc[ramBankOrRtc - RTC_FIRST_REGISTER] = data;
+            }
+            return;
+        }
+        super.writeRam(address, data);
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.put(rtc);
+        out.put(latchedRtc);
+        out.put((byte) ramBankOrRtc);
+        out.put((byte) lastLatchWrite);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        in.get(rtc);
+        in.get(latchedRtc);
+        ramBankOrRtc = in.get();
+        lastLatchWrite = in.get() & 0xFF;
+    }
+
+    private boolean isRtcSelected() {
+        return ramBankOrRtc >= RTC_FIRST_REGISTER && ramBankOrRtc <= RTC_LAST_REGISTER;
+    }
+}
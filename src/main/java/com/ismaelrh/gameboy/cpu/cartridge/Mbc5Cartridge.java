@@ -0,0 +1,47 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MBC5: up to 8MB of ROM and 128KB of RAM.
+ * 0x0000 - 0x1FFF: RAM enable (0x0A)
+ * 0x2000 - 0x2FFF: lower 8 bits of ROM bank, 0 is a valid bank
+ * 0x3000 - 0x3FFF: 9th bit of ROM bank
+ * 0x4000 - 0x5FFF: RAM bank (0x00 - 0x0F)
+ */
+public class Mbc5Cartridge extends MbcCartridge {
+
+    private int romBank = 1;
+
+    public Mbc5Cartridge(String name, ByteBuffer rom, ExternalRam ram) throws Exception {
+        super(name, rom, ram);
+        selectRomBanks(0, romBank);
+    }
+
+    @Override
+    public void write(char address, byte data) {
+        if (address < 0x2000) {
+            ramEnabled = (data & 0x0F) == 0x0A;
+        } else if (address < 0x3000) {
+            romBank = (romBank & 0x100) | (data & 0xFF);
+            selectRomBanks(0, romBank);
+        } else if (address < 0x4000) {
+            romBank = (romBank & 0xFF) | ((data & 0x01) << 8);
+            selectRomBanks(0, romBank);
+        } else if (address < 0x6000) {
+            selectRamBank(data & 0x0F);
+        }
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putChar((char) romBank);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        romBank = in.getChar();
+    }
+}
@@ -0,0 +1,122 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Common part of cartridges with a memory bank controller.
+ * 0x0000 - 0x3FFF and 0x4000 - 0x7FFF each map a 16KB ROM bank, 0xA000 - 0xBFFF maps an 8KB RAM bank.
+ * Subclasses decode the writes to 0x0000 - 0x7FFF into bank selections.
+ */
+public abstract class MbcCartridge implements Cartridge {
+
+    protected final static int ROM_BANK_SIZE = 0x4000;
+    protected final static int RAM_BANK_SIZE = 0x2000;
+    private final static char EXTERNAL_RAM_START = 0xA000;
+
+    private final String name;
+    private final ByteBuffer rom;
+    private final int romBanks;
+
+    protected final ExternalRam ram;
+    private final int ramBanks;
+    private final int ramMask;
+    protected boolean ramEnabled = false;
+
+    private int lowRomOffset = 0;
+    private int highRomOffset = ROM_BANK_SIZE;
+    private int ramOffset = 0;
+
+    protected MbcCartridge(String name, ByteBuffer rom, ExternalRam ram) throws Exception {
+        if (rom.capacity() % ROM_BANK_SIZE != 0) {
+            throw new Exception("ROM size must be a multiple of 16KB, it is " + rom.capacity() + "B");
+        }
+        this.name = name;
+        this.rom = rom;
+        this.romBanks = rom.capacity() / ROM_BANK_SIZE;
+        this.ram = ram;
+        this.ramBanks = Math.max(1, ram.size() / RAM_BANK_SIZE);
+        this.ramMask = Math.min(ram.size(), RAM_BANK_SIZE) - 1;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte read(char address) {
+        if (address < ROM_BANK_SIZE) {
+            return rom.get(lowRomOffset + address);
+        }
+        return rom.get(highRomOffset + address - ROM_BANK_SIZE);
+    }
+
+    @Override
+    public int getRomBank(char address) {
+        return (address < ROM_BANK_SIZE ? lowRomOffset : highRomOffset) / ROM_BANK_SIZE;
+    }
+
+    @Override
+    public boolean hasRam() {
+        return ram.size() > 0;
+    }
+
+    @Override
+    public byte readRam(char address) {
+        if (!ramEnabled || ram.size() == 0) {
+            return (byte) 0xFF;
+        }
+        return ram.read(ramOffset + ((address - EXTERNAL_RAM_START) & ramMask));
+    }
+
+    @Override
+    public void writeRam(char address, byte data) {
+        if (ramEnabled && ram.size() > 0) {
+            ram.write(ramOffset + ((address - EXTERNAL_RAM_START) & ramMask), data);
+        }
+    }
+
+    @Override
+    public void flush() {
+        ram.flush();
+    }
+
+    @Override
+    public void close() {
+        ram.close();
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) (ramEnabled ? 1 : 0));
+        out.putInt(lowRomOffset);
+        out.putInt(highRomOffset);
+        out.putInt(ramOffset);
+        ram.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        ramEnabled = in.get() != 0;
+        lowRomOffset = in.getInt();
+        highRomOffset = in.getInt();
+        ramOffset = in.getInt();
+        ram.loadState(in);
+    }
+
+    /**
+     * Banks out of range wrap around the real size of the ROM.
+     */
+    protected void selectRomBanks(int lowBank, int highBank) {
+        lowRomOffset = (lowBank % romBanks) * ROM_BANK_SIZE;
+        highRomOffset = (highBank % romBanks) * ROM_BANK_SIZE;
+    }
+
+    protected void selectRamBank(int bank) {
+        ramOffset = (bank % ramBanks) * RAM_BANK_SIZE;
+    }
+
+    protected int getRomBanks() {
+        return romBanks;
+    }
+}
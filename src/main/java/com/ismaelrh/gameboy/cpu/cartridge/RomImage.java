@@ -0,0 +1,55 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ROM files mapped read-only in memory. A file is mapped once per JVM and the same buffer is shared by
+ * every cartridge that loads it, so instances do not hold their own copy of the ROM on the heap.
+ * Only absolute gets must be used on the returned buffer, they do not modify it and are safe to share.
+ * Mappings are held weakly, a ROM no cartridge uses anymore is unmapped by the garbage collector
+ * instead of staying mapped for the life of the JVM (the ROM farm loads hundreds of them).
+ */
+public class RomImage {
+
+    private static final Map<String, WeakReference<ByteBuffer>> mappedRoms = new ConcurrentHashMap<>();
+
+    public static ByteBuffer map(String filePath) throws Exception {
+        File file = new File(filePath);
+        if (!file.isFile() || !file.canRead()) {
+            throw new Exception("Cannot read file " + filePath);
+        }
+        Path path = file.toPath().toRealPath();
+        mappedRoms.values().removeIf(reference -> reference.get() == null);
+        ByteBuffer[] rom = new ByteBuffer[1];
+        try {
+            mappedRoms.compute(path.toString(), (key, reference) -> {
+                rom[0] = reference != null ? reference.get() : null;
+                if (rom[0] == null) {
+                    rom[0] = mapFile(path);
+                    return new WeakReference<>(rom[0]);
+                }
+                return reference;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rom[0];
+    }
+
+    private static ByteBuffer mapFile(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forces the registered battery backed RAMs to disk when they changed. The default one does it from a background
+ * thread every second, and once more on shutdown.
+ */
+class SaveFlusher {
+
+    private static final Logger log = LogManager.getLogger(SaveFlusher.class);
+
+    private static final long FLUSH_PERIOD_MILLIS = 1000;
+
+    private final Set<ExternalRam> saves = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Started on first use, so RAM that is not battery backed never starts the thread.
+     */
+    static SaveFlusher getDefault() {
+        return Default.INSTANCE;
+    }
+
+    void register(ExternalRam ram) {
+        saves.add(ram);
+    }
+
+    void unregister(ExternalRam ram) {
+        saves.remove(ram);
+    }
+
+    /**
+     * @return RAMs that had changes and were forced to disk
+     */
+    int flushAll() {
+        int flushed = 0;
+        for (ExternalRam ram : saves) {
+            try {
+                if (ram.flush()) {
+                    flushed++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not flush battery backed RAM", e);
+            }
+        }
+        return flushed;
+    }
+
+    private static class Default {
+
+        private static final SaveFlusher INSTANCE = new SaveFlusher();
+
+        static {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sav-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(INSTANCE::flushAll, FLUSH_PERIOD_MILLIS, FLUSH_PERIOD_MILLIS,
+                    TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::flushAll, "sav-flusher-shutdown"));
+        }
+    }
+}
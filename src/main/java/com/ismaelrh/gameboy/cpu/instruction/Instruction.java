@@ -23,7 +23,7 @@ public class Instruction {
 
     private byte nn2;
 
-    protected void clear() {
+    public void clear() {
         this.description = null;
         this.instBytes = 0;
         this.prefix = null;
@@ -0,0 +1,13 @@
+package com.ismaelrh.gameboy.cpu.instructions;
+
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+
+/**
+ * Builds, for a concrete opcode, an {@link Inst} with the operands encoded in the opcode
+ * (registers, bit numbers, conditions...) already resolved, so they are not decoded again on every execution.
+ */
+@FunctionalInterface
+public interface InstBinder {
+
+    Inst bind(Instruction opcode);
+}
@@ -49,6 +49,11 @@ public class InstDecoder {
         return res;
     }
 
+    //Same as getInst/getCbInst, but not existing opcodes are expected and not logged
+    public InstDescription getInstIfExists(boolean isCB, int opcode) {
+        return isCB ? cbOps[opcode & 0xFF] : normalOps[opcode & 0xFF];
+    }
+
     private void init() {
         for (int opcode = 0; opcode <= 0xFF; opcode++) {
             normalOps[opcode] = getMatchingInstruction(false, opcode);
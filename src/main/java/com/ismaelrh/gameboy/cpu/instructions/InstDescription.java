@@ -8,9 +8,11 @@ public class InstDescription {
     private String expr;
     private boolean cb;
     private Inst inst;
+    private InstBinder binder;
     private int extraBytes;
     private int numberOfPlaceholders;
     private Pattern pattern;
+    private boolean blockEnd = false;
 
     public InstDescription(String mnemonic, int prefix, String expr, int extraBytes, Inst inst) {
         this.mnemonic = mnemonic;
@@ -30,6 +32,16 @@ public class InstDescription {
         initialize();
     }
 
+    public InstDescription(String mnemonic, int prefix, String expr, int extraBytes, Inst inst, InstBinder binder) {
+        this(mnemonic, prefix, expr, extraBytes, inst);
+        this.binder = binder;
+    }
+
+    public InstDescription(String mnemonic, String expr, int extraBytes, Inst inst, InstBinder binder) {
+        this(mnemonic, expr, extraBytes, inst);
+        this.binder = binder;
+    }
+
     private void initialize() {
 
         //Calculate the regex pattern
@@ -41,6 +53,19 @@ public class InstDescription {
 
     }
 
+    /**
+     * Marks the instruction as one that can change the flow of execution (jumps, calls, returns, halt...),
+     * so a basic block cannot continue after it.
+     */
+    public InstDescription endsBlock() {
+        this.blockEnd = true;
+        return this;
+    }
+
+    public boolean isBlockEnd() {
+        return blockEnd;
+    }
+
     public boolean matches(int opcode) {
         if (!cb) {
             return opcodeMatches(opcode);
@@ -65,6 +90,11 @@ public class InstDescription {
         return inst;
     }
 
+    //Can be null, when the instruction has no operands encoded in the opcode
+    public InstBinder getBinder() {
+        return binder;
+    }
+
     public int getExtraBytes() {
         return extraBytes;
     }
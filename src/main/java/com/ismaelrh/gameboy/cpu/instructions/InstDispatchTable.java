@@ -0,0 +1,45 @@
+package com.ismaelrh.gameboy.cpu.instructions;
+
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+
+/**
+ * Flat table with one {@link InstHandler} per opcode, so executing an instruction is a single array access.
+ * Indexes 0x000-0x0FF are normal opcodes and 0x100-0x1FF are CB-prefixed ones.
+ * Non existing opcodes (and the 0xCB prefix itself) have a null entry.
+ */
+public class InstDispatchTable {
+
+    public final static int CB_OFFSET = 0x100;
+
+    private final InstHandler[] handlers = new InstHandler[512];
+
+    public InstDispatchTable(InstDecoder decoder) {
+        for (int opcode = 0; opcode <= 0xFF; opcode++) {
+            handlers[opcode] = createHandler(decoder.getInstIfExists(false, opcode), opcode);
+            handlers[CB_OFFSET + opcode] = createHandler(decoder.getInstIfExists(true, opcode), opcode);
+        }
+    }
+
+    public InstHandler get(int index) {
+        return handlers[index];
+    }
+
+    public InstHandler getInst(int opcode) {
+        return handlers[opcode & 0xFF];
+    }
+
+    public InstHandler getCbInst(int opcode) {
+        return handlers[CB_OFFSET + (opcode & 0xFF)];
+    }
+
+    private InstHandler createHandler(InstDescription description, int opcode) {
+        if (description == null) {
+            return null;
+        }
+        Inst inst = description.getInst();
+        if (description.getBinder() != null) {
+            inst = description.getBinder().bind(new Instruction((byte) opcode));
+        }
+        return new InstHandler(description, (byte) opcode, inst);
+    }
+}
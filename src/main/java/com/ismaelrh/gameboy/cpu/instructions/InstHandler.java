@@ -0,0 +1,49 @@
+package com.ismaelrh.gameboy.cpu.instructions;
+
+/**
+ * Everything needed to execute a concrete opcode, resolved once when the dispatch table is built:
+ * its description, the number of immediate bytes to fetch and the {@link Inst} to run,
+ * with operands already bound when the description provides an {@link InstBinder}.
+ */
+public final class InstHandler {
+
+    private final InstDescription description;
+    private final byte opcode;
+    private final boolean cb;
+    private final int extraBytes;
+    private final boolean blockEnd;
+    private final Inst inst;
+
+    public InstHandler(InstDescription description, byte opcode, Inst inst) {
+        this.description = description;
+        this.opcode = opcode;
+        this.cb = description.isCb();
+        this.extraBytes = description.getExtraBytes();
+        this.blockEnd = description.isBlockEnd();
+        this.inst = inst;
+    }
+
+    public InstDescription getDescription() {
+        return description;
+    }
+
+    public byte getOpcode() {
+        return opcode;
+    }
+
+    public boolean isCb() {
+        return cb;
+    }
+
+    public int getExtraBytes() {
+        return extraBytes;
+    }
+
+    public boolean isBlockEnd() {
+        return blockEnd;
+    }
+
+    public Inst getInst() {
+        return inst;
+    }
+}
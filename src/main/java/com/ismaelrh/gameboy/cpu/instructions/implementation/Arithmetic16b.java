@@ -1,8 +1,11 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.Registers.CharGetter;
+import com.ismaelrh.gameboy.cpu.Registers.CharSetter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -102,6 +105,50 @@ public class Arithmetic16b {
         return 12;
     }
 
+    /*
+     * Pre-bound versions, the register pair is resolved from the opcode only once.
+     */
+
+    public static Inst bindAddHL_rr(Instruction opcode) {
+        CharGetter from = Registers.getterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), true);
+        return (inst, memory, registers) -> {
+            char hl = registers.getHL();
+            char regData = from.get(registers);
+            char result = (char) (hl + regData);
+            registers.setHL(result);
+            registers.clearFlagN();
+            if (carryOnAdd(result, hl, regData)) {
+                registers.setFlagC();
+            } else {
+                registers.clearFlagC();
+            }
+            if (halfCarryOnAdd(hl, regData)) {
+                registers.setFlagH();
+            } else {
+                registers.clearFlagH();
+            }
+            return 8;
+        };
+    }
+
+    public static Inst bindInc_rr(Instruction opcode) {
+        CharGetter from = Registers.getterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), true);
+        CharSetter to = Registers.setterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), true);
+        return (inst, memory, registers) -> {
+            to.set(registers, (char) (from.get(registers) + 0x01));
+            return 8;
+        };
+    }
+
+    public static Inst bindDec_rr(Instruction opcode) {
+        CharGetter from = Registers.getterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), true);
+        CharSetter to = Registers.setterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), true);
+        return (inst, memory, registers) -> {
+            to.set(registers, (char) (from.get(registers) - 0x01));
+            return 8;
+        };
+    }
+
     private static boolean carryOnAdd(char newValue, char a, char b) {
         //Check FULL CARRY, if result is less than one of the parameters
         return newValue < a || newValue < b;
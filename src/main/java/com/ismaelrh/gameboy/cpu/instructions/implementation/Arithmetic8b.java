@@ -1,8 +1,11 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.Registers.ByteGetter;
+import com.ismaelrh.gameboy.cpu.Registers.ByteSetter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -246,6 +249,75 @@ public class Arithmetic8b {
         return 4;
     }
 
+    /*
+     * Pre-bound versions, registers and operation variant (with carry, cp) are resolved from the opcode only once.
+     */
+
+    public static Inst bindAddA_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        boolean withCarry = opcode.getOpcodeFirstSingleRegister() == 0x1;
+        return (inst, memory, registers) -> {
+            addToA(registers, registers.getA(), from.get(registers), withCarry);
+            return 4;
+        };
+    }
+
+    public static Inst bindSub_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        boolean withCarry = opcode.getOpcodeFirstSingleRegister() == 0x3;
+        boolean isCp = opcode.getOpcodeFirstSingleRegister() == 0x7;
+        return (inst, memory, registers) -> {
+            subToA(registers, registers.getA(), from.get(registers), withCarry, isCp);
+            return 4;
+        };
+    }
+
+    public static Inst bindAnd_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            and(from.get(registers), registers);
+            return 4;
+        };
+    }
+
+    public static Inst bindOr_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            or(from.get(registers), registers);
+            return 4;
+        };
+    }
+
+    public static Inst bindXor_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            xor(from.get(registers), registers);
+            return 4;
+        };
+    }
+
+    public static Inst bindInc_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeFirstSingleRegister());
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeFirstSingleRegister());
+        return (inst, memory, registers) -> {
+            byte originalValue = from.get(registers);
+            registers.setF(getIncrementFlags(originalValue, registers));
+            to.set(registers, (byte) (originalValue + (byte) 0x01));
+            return 4;
+        };
+    }
+
+    public static Inst bindDec_r(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeFirstSingleRegister());
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeFirstSingleRegister());
+        return (inst, memory, registers) -> {
+            byte originalValue = from.get(registers);
+            registers.setF(getDecrementFlags(originalValue, registers));
+            to.set(registers, (byte) (originalValue - (byte) 0x01));
+            return 4;
+        };
+    }
+
     private static void addToA(Registers registers, byte oldValue, byte valueToAdd, boolean checkForCarry) {
 
         byte addedCarry = 0;
@@ -1,6 +1,7 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
 import org.apache.logging.log4j.LogManager;
@@ -100,6 +101,62 @@ public class JumpCommands {
         return 16;
     }
 
+    /*
+     * Pre-bound versions, the condition is resolved from the opcode only once.
+     */
+
+    public static Inst bindJp_f_nn(Instruction opcode) {
+        int condition = getCondition(opcode);
+        return (inst, memory, registers) -> {
+            if (checkCondition(condition, registers)) {
+                registers.setPC(inst.getImmediate16b());
+                return 16;
+            }
+            return 12;
+        };
+    }
+
+    public static Inst bindJr_f_PC_dd(Instruction opcode) {
+        int condition = getCondition(opcode);
+        return (inst, memory, registers) -> {
+            if (checkCondition(condition, registers)) {
+                registers.setPC((char) (registers.getPC() + inst.getImmediate8b()));
+                return 12;
+            }
+            return 8;
+        };
+    }
+
+    public static Inst bindCall_f_nn(Instruction opcode) {
+        int condition = getCondition(opcode);
+        return (inst, memory, registers) -> {
+            if (checkCondition(condition, registers)) {
+                doCall(inst.getImmediate16b(), memory, registers);
+                return 24;
+            }
+            return 12;
+        };
+    }
+
+    public static Inst bindRet_f(Instruction opcode) {
+        int condition = getCondition(opcode);
+        return (inst, memory, registers) -> {
+            if (checkCondition(condition, registers)) {
+                doRet(memory, registers);
+                return 20;
+            }
+            return 8;
+        };
+    }
+
+    public static Inst bindRst_n(Instruction opcode) {
+        char addressToCall = (char) (opcode.getOpcodeFirstSingleRegister() * 8);
+        return (inst, memory, registers) -> {
+            doCall(addressToCall, memory, registers);
+            return 16;
+        };
+    }
+
     public static void doCall(char nn, Memory memory, Registers registers) {
         char pc = registers.getPC();
 
@@ -125,11 +182,24 @@ public class JumpCommands {
 
 
     private static boolean checkCondition(Instruction inst,  Registers registers) {
-        byte condition = (byte) (((inst.getOpcode() & 0x18) >> 3) & 0xFF);
-        return (condition == 0 && !registers.checkFlagZ()) ||
-                (condition == 1 && registers.checkFlagZ()) ||
-                (condition == 2 && !registers.checkFlagC()) ||
-                (condition == 3 && registers.checkFlagC());
+        return checkCondition(getCondition(inst), registers);
+    }
+
+    private static int getCondition(Instruction inst) {
+        return ((inst.getOpcode() & 0x18) >> 3) & 0xFF;
+    }
+
+    private static boolean checkCondition(int condition, Registers registers) {
+        switch (condition) {
+            case 0:
+                return (registers.getF() & 0x80) == 0;  //NZ
+            case 1:
+                return (registers.getF() & 0x80) != 0;  //Z
+            case 2:
+                return (registers.getF() & 0x10) == 0;  //NC
+            default:
+                return (registers.getF() & 0x10) != 0;  //C
+        }
     }
 
 
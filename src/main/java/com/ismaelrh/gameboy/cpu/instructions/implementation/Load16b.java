@@ -1,8 +1,11 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.Registers.CharGetter;
+import com.ismaelrh.gameboy.cpu.Registers.CharSetter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -78,7 +81,40 @@ public class Load16b {
         return 12;
     }
 
+    /*
+     * Pre-bound versions, the register pair is resolved from the opcode only once.
+     */
+
+    public static Inst bindLoadRR_NN(Instruction opcode) {
+        CharSetter to = Registers.setterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), true);
+        return (inst, memory, registers) -> {
+            to.set(registers, inst.getImmediate16b());
+            return 12;
+        };
+    }
 
+    public static Inst bindPush_QQ(Instruction opcode) {
+        CharGetter from = Registers.getterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), false);
+        return (inst, memory, registers) -> {
+            char regContent = from.get(registers);
+            char curSP = registers.getSP();
+            memory.write((char) (curSP - 1), (byte) ((regContent >> 8) & 0xFF));
+            memory.write((char) (curSP - 2), (byte) (regContent & 0xFF));
+            registers.setSP((char) (curSP - 2));
+            return 16;
+        };
+    }
 
+    public static Inst bindPop_QQ(Instruction opcode) {
+        CharSetter to = Registers.setterByDoubleCode(opcode.getOpcodeFirstDoubleRegister(), false);
+        return (inst, memory, registers) -> {
+            char spPointer = registers.getSP();
+            byte lowContent = memory.read(spPointer);
+            byte highContent = memory.read((char) (spPointer + 1));
+            to.set(registers, (char) ((highContent << 8) | (lowContent & 0xFF)));
+            registers.setSP((char) (spPointer + 0x2));
+            return 12;
+        };
+    }
 
 }
@@ -1,8 +1,11 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.Registers.ByteGetter;
+import com.ismaelrh.gameboy.cpu.Registers.ByteSetter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -191,5 +194,41 @@ public class Load8b {
         return 8;
     }
 
+    /*
+     * Pre-bound versions, registers are resolved from the opcode only once.
+     */
+
+    public static Inst bindLoadRR(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeFirstSingleRegister());
+        return (inst, memory, registers) -> {
+            to.set(registers, from.get(registers));
+            return 4;
+        };
+    }
+
+    public static Inst bindLoadRImmediate(Instruction opcode) {
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeFirstSingleRegister());
+        return (inst, memory, registers) -> {
+            to.set(registers, inst.getImmediate8b());
+            return 8;
+        };
+    }
+
+    public static Inst bindLoadRHL(Instruction opcode) {
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeFirstSingleRegister());
+        return (inst, memory, registers) -> {
+            to.set(registers, memory.read(registers.getHL()));
+            return 8;
+        };
+    }
+
+    public static Inst bindLoadHLR(Instruction opcode) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            memory.write(registers.getHL(), from.get(registers));
+            return 8;
+        };
+    }
 
 }
@@ -1,8 +1,11 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.Registers.ByteGetter;
+import com.ismaelrh.gameboy.cpu.Registers.ByteSetter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -253,6 +256,57 @@ public class RotateShift {
         return 16;
     }
 
+    /*
+     * Pre-bound versions for the CB register operations, the register is resolved from the opcode only once.
+     */
+
+    public static Inst bindRlc_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, (data, registers) -> rotateLeft(data, false, true, registers));
+    }
+
+    public static Inst bindRl_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, (data, registers) -> rotateLeft(data, true, true, registers));
+    }
+
+    public static Inst bindRrc_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, (data, registers) -> rotateRight(data, false, true, registers));
+    }
+
+    public static Inst bindRr_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, (data, registers) -> rotateRight(data, true, true, registers));
+    }
+
+    public static Inst bindSwap_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, RotateShift::swap);
+    }
+
+    public static Inst bindSla_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, RotateShift::sla);
+    }
+
+    public static Inst bindSra_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, (data, registers) -> sr(data, true, registers));
+    }
+
+    public static Inst bindSrl_r(Instruction opcode) {
+        return bindRegisterOperation(opcode, (data, registers) -> sr(data, false, registers));
+    }
+
+    @FunctionalInterface
+    private interface RegisterOperation {
+        byte apply(byte data, Registers registers);
+    }
+
+    //All CB register operations read and write back the same register, and take 8 cycles
+    private static Inst bindRegisterOperation(Instruction opcode, RegisterOperation operation) {
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            to.set(registers, operation.apply(from.get(registers), registers));
+            return 8;
+        };
+    }
+
     private static byte sla(byte data, Registers registers) {
 
         //Higher bit is 1, set carry flag. This also clears other flags
@@ -1,8 +1,11 @@
 package com.ismaelrh.gameboy.cpu.instructions.implementation;
 
 import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.instructions.Inst;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.Registers.ByteGetter;
+import com.ismaelrh.gameboy.cpu.Registers.ByteSetter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -53,6 +56,39 @@ public class SingleBit {
         return 16;
     }
 
+    /*
+     * Pre-bound versions, bit number and register are resolved from the opcode only once.
+     */
+
+    public static Inst bindBit_n_r(Instruction opcode) {
+        int n = (opcode.getOpcodeFirstSingleRegister() & 0xFF);
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            bit_n(n, from.get(registers), registers);
+            return 8;
+        };
+    }
+
+    public static Inst bindSet_n_r(Instruction opcode) {
+        int n = (opcode.getOpcodeFirstSingleRegister() & 0xFF);
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            to.set(registers, set_n(n, from.get(registers)));
+            return 8;
+        };
+    }
+
+    public static Inst bindRes_n_r(Instruction opcode) {
+        int n = (opcode.getOpcodeFirstSingleRegister() & 0xFF);
+        ByteGetter from = Registers.getterByCode(opcode.getOpcodeSecondOperand());
+        ByteSetter to = Registers.setterByCode(opcode.getOpcodeSecondOperand());
+        return (inst, memory, registers) -> {
+            to.set(registers, reset_n(n, from.get(registers)));
+            return 8;
+        };
+    }
+
     private static void bit_n(int n, byte data, Registers registers) {
 
         //Clear first three flags, then set h to 1 (x01x)
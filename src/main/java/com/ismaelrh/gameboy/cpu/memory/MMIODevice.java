@@ -18,4 +18,11 @@ public abstract class MMIODevice {
     public abstract void onWrite(char address, byte data);
 
     public abstract byte onRead(char address);
+
+    /**
+     * Whether this device handles the register; all of them by default.
+     */
+    public boolean handles(char address) {
+        return true;
+    }
 }
@@ -2,15 +2,18 @@ package com.ismaelrh.gameboy.cpu.memory;
 
 
 import com.ismaelrh.gameboy.cpu.cartridge.Cartridge;
+import com.ismaelrh.gameboy.state.Snapshotable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class Memory {
+public class Memory implements Snapshotable {
 
     //For interruptions
     private final static char VBLANK_MASK = (char) 0x01; //0000-0001
@@ -42,8 +45,40 @@ public class Memory {
     private List<MemoryInterceptor> interceptors = new ArrayList<>();
     private List<MMIODevice> mmioDevices = new ArrayList<>();
 
+    //One slot per I/O register (0xFF00 - 0xFF7F), null when no device is mapped there
+    private final MMIODevice[] ioDevices = new MMIODevice[IO_RAM_SLOTS];
+
     private boolean bootromEnabled = false;
 
+    //Set by the GPU, depending on the mode it is in
+    private boolean videoRAMAccessible = true;
+    private boolean oamAccessible = true;
+    //Set by the OAM DMA while it owns OAM
+    private boolean oamLockedByDma = false;
+
+    /*
+     * Page table: one entry per 256-byte page (address >>> 8).
+     * When a page is backed by a plain array, reads and writes go straight to it (at pageOffsets[page] + low byte).
+     * A null entry means the page needs special handling (cartridge, OAM, I/O, locked VRAM or interceptors),
+     * that is done in readMapped/writeMapped.
+     */
+    private final static int PAGES = 256;
+    private final byte[][] readPages = new byte[PAGES][];
+    private final byte[][] writePages = new byte[PAGES][];
+    private final int[] pageOffsets = new int[PAGES];
+    private final boolean[] interceptedPages = new boolean[PAGES];
+
+    //Pages holding code decoded by the control unit. Writing to them increments their version,
+    //so cached blocks become stale. Echo RAM pages count as their internal RAM page.
+    //ROM never changes, bank switches are followed with romMappingVersion instead.
+    //High RAM shares its page with the I/O registers and usually holds variables next to code (the OAM DMA
+    //routine), so only writes to the very bytes decoded as code make its page stale.
+    private final boolean[] codePages = new boolean[PAGES];
+    private final boolean[] highRAMCode = new boolean[HIGH_RAM_SIZE_BYTES];
+    private final int[] codeVersions = new int[PAGES];
+    private int romMappingVersion = 0;
+    private int codeEpoch = 0;  //Changes when all the code is invalidated at once
+
     //TO-DO: redirect external memory and I/O where it corresponds
     private static final Logger log = LogManager.getLogger(Memory.class);
 
@@ -65,6 +100,9 @@ public class Memory {
     private final static char VIDEO_RAM_START = 0x8000;
     private final static int VIDEO_RAM_SIZE_BYTES = 8192;
     private byte[] videoRAM;
+    //Tiles: 0x8000 to 0x97FF, writes are reported to the video memory listener
+    private final static int TILE_DATA_SIZE_BYTES = 6144;
+    private VideoMemoryListener videoMemoryListener;
 
     //External Cartridge RAM: 0xA000 - 0xBFFF (8KB)
     private final static char EXTERNAL_RAM_START = 0xA000;
@@ -91,6 +129,7 @@ public class Memory {
 
     //I/O ports mapped RAM: 0xFF00 - 0xFF7F (128 Bytes)
     private final static char IO_RAM_START = 0xFF00;
+    private final static int IO_RAM_SLOTS = 128;
     private final static int IO_RAM_SIZE_BYTES = 0xFF00;
     private byte[] ioRAM;
 
@@ -106,6 +145,10 @@ public class Memory {
 
     private final static char DISABLE_BOOTROM_ADDRESS = 0xFF50;
 
+    //Registers that can change with no write nor event: DIV to TAC (computed from the clock)
+    private final static char TIMER_FIRST_ADDRESS = 0xFF04;
+    private final static char TIMER_LAST_ADDRESS = 0xFF07;
+
     //Interrupt Flags Register: 0xFF0F (1 Byte)
     private final static char INTERRUPT_FLAGS_ADDRESS = 0xFF0f;
     public byte interruptFlags;
@@ -123,19 +166,45 @@ public class Memory {
         spriteRAM = new byte[SPRITE_RAM_SIZE_BYTES];
         ioRAM = new byte[IO_RAM_SIZE_BYTES];
         highRAM = new byte[HIGH_RAM_SIZE_BYTES];
+        if (videoMemoryListener != null) {
+            videoMemoryListener.onVideoMemoryReset();
+        }
+        oamLockedByDma = false;
         interruptEnable = 0x0;
         interruptFlags = 0x0;
+        invalidateCode();
+        updatePageTable();
         log.debug("Memory cleared");
     }
 
     public void addInterceptor(MemoryInterceptor interceptor) {
         this.interceptors.add(interceptor);
         interceptor.addMemory(this);
+        //Intercepted pages stop being direct, the rest are not affected
+        for (int page = interceptor.startAddress >>> 8; page <= interceptor.endAddress >>> 8; page++) {
+            interceptedPages[page] = true;
+            updatePage(page);
+        }
     }
 
-    public void addMMIODevice(MMIODevice interceptor) {
-        this.mmioDevices.add(interceptor);
-        interceptor.addMemory(this);
+    public void addMMIODevice(MMIODevice device) {
+        if (device.startAddress < IO_RAM_START || device.endAddress >= IO_RAM_START + IO_RAM_SLOTS
+                || device.startAddress > device.endAddress) {
+            throw new IllegalArgumentException(String.format("MMIO device range %04X-%04X is outside I/O registers",
+                    (int) device.startAddress, (int) device.endAddress));
+        }
+        this.mmioDevices.add(device);
+        device.addMemory(this);
+        for (int address = device.startAddress; address <= device.endAddress; address++) {
+            if (!device.handles((char) address)) {
+                continue;
+            }
+            int slot = address - IO_RAM_START;
+            if (ioDevices[slot] != null) {
+                log.warn(String.format("MMIO device overrides previous one at @%04X", address));
+            }
+            ioDevices[slot] = device;
+        }
     }
 
 
@@ -144,9 +213,38 @@ public class Memory {
     }
 
     public byte read(char address, boolean privileged) {
+        int page = address >>> 8;
+        byte[] data = readPages[page];
+        if (data != null) {
+            return data[pageOffsets[page] + (address & 0xFF)];
+        }
+        return readMapped(address, privileged);
+    }
+
+    public void write(char address, byte data) {
+        int page = address >>> 8;
+        byte[] target = writePages[page];
+        if (target != null) {
+            target[pageOffsets[page] + (address & 0xFF)] = data;
+            return;
+        }
+        writeMapped(address, data);
+    }
+
+    //Pages that could not be resolved directly with the page table
+    private byte readMapped(char address, boolean privileged) {
 
         byte result = (byte) 0xFF; //Default bus value
-        if (address == INTERRUPT_ENABLE_ADDRESS) {
+        if (address < VIDEO_RAM_START) {
+            if (bootromEnabled && address < BOOTROM_SIZE_BYTES) {   //Read bootrom
+                result = bootrom[address];
+            } else if (cartridge != null) {  //Cartridge mapped memory
+                result = cartridge.read(address);
+            } else {
+                log.error("Attempted to read from cartridge, but not inserted. Returned 0x00");
+                result = 0x00;
+            }
+        } else if (address == INTERRUPT_ENABLE_ADDRESS) {
             result = interruptEnable;
         } else if (address == INTERRUPT_FLAGS_ADDRESS) {
             result = interruptFlags;
@@ -154,14 +252,10 @@ public class Memory {
             result = highRAM[address - HIGH_RAM_START];
         } else if (address >= IO_RAM_START) {
             //Call IO if any
-            boolean mmioFound = false;
-            for (MMIODevice device : mmioDevices) {
-                if (address >= device.startAddress && address <= device.endAddress) {
-                    result = device.onRead(address);
-                    mmioFound = true;
-                }
-            }
-            if (!mmioFound) {
+            MMIODevice device = ioDevices[address - IO_RAM_START];
+            if (device != null) {
+                result = device.onRead(address);
+            } else {
                 result = ioRAM[address - IO_RAM_START]; //Remove when all mapped
             }
         } else if (address >= UNUSABLE_RAM_START) {
@@ -170,7 +264,7 @@ public class Memory {
             }
             result = (byte) 0xFF; //reads return $FF (which is the "default value" in the main Game Boy data bus).
         } else if (address >= SPRITE_RAM_START) {
-            if (canUseOAM() || privileged) {
+            if ((oamAccessible && !oamLockedByDma) || privileged) {
                 result = spriteRAM[address - SPRITE_RAM_START];
             }
         } else if (address >= ECHO_RAM_START) {
@@ -178,19 +272,14 @@ public class Memory {
         } else if (address >= INTERNAL_RAM_START) {
             result = internalRAM[address - INTERNAL_RAM_START];
         } else if (address >= EXTERNAL_RAM_START) {
-            result = externalRAM[address - EXTERNAL_RAM_START];
-        } else if (address >= VIDEO_RAM_START) {
-            if (canUseVRAM() || privileged) {
-                result = videoRAM[address - VIDEO_RAM_START];
-            }
-        } else if (bootromEnabled && address <= BOOTROM_SIZE_BYTES) {   //Read bootrom
-            result = bootrom[address];
-        } else {  //Cartridge mapped memory
-            if (cartridge != null) {
-                result = cartridge.read(address);
+            if (cartridge != null && cartridge.hasRam()) {
+                result = cartridge.readRam(address);
             } else {
-                log.error("Attempted to read from cartridge, but not inserted. Returned 0x00");
-                result = 0x00;
+                result = externalRAM[address - EXTERNAL_RAM_START];
+            }
+        } else {
+            if (videoRAMAccessible || privileged) {
+                result = videoRAM[address - VIDEO_RAM_START];
             }
         }
 
@@ -198,23 +287,51 @@ public class Memory {
             log.debug("Read [@" + String.format("%04x", (int) address) + "]=" + String.format("%02x", result));
         }
 
-        //Apply read interceptors
-        for (MemoryInterceptor i : interceptors) {
-            result = i.onRead(address, result);
+        //Apply read interceptors, only the ones registered for this address
+        if (interceptedPages[address >>> 8]) {
+            for (MemoryInterceptor i : interceptors) {
+                if (address >= i.startAddress && address <= i.endAddress) {
+                    result = i.onRead(address, result);
+                }
+            }
         }
         return result;
     }
 
-    public void write(char address, byte data) {
+    private void writeMapped(char address, byte data) {
+
+        //Apply write interceptors, only the ones registered for this address
+        if (interceptedPages[address >>> 8]) {
+            for (MemoryInterceptor i : interceptors) {
+                if (address >= i.startAddress && address <= i.endAddress) {
+                    data = i.onWrite(address, data);
+                }
+            }
+        }
 
-        //Apply write interceptors
-        for (MemoryInterceptor i : interceptors) {
-            data = i.onWrite(address, data);
+        if (address >= HIGH_RAM_START) {
+            if (address < INTERRUPT_ENABLE_ADDRESS && highRAMCode[address - HIGH_RAM_START]) {
+                unwatchHighRAMCode();
+            }
+        } else if (address < IO_RAM_START) {
+            int codePage = getCodePage(address >>> 8);
+            if (codePages[codePage]) {
+                unwatchCode(codePage);
+            }
         }
 
-        //Disable bootrom, and 0x00->0xFF starts mapping to cartridge again
-        if (address == DISABLE_BOOTROM_ADDRESS && data == 1 && bootromEnabled) {
+        if (address < VIDEO_RAM_START) { //Cartridge mapped memory
+            romMappingVersion++;    //Banks may have changed
+            if (cartridge != null) {
+                cartridge.write(address, data);
+            } else {
+                log.error("Attempted to write to cartridge, but it is not inserted");
+            }
+        } else if (address == DISABLE_BOOTROM_ADDRESS && data == 1 && bootromEnabled) {
+            //Disable bootrom, and 0x00->0xFF starts mapping to cartridge again
             bootromEnabled = false;
+            romMappingVersion++;
+            updatePage(0);
         } else if (address == INTERRUPT_ENABLE_ADDRESS) {
             interruptEnable = data;
         } else if (address == INTERRUPT_FLAGS_ADDRESS) {
@@ -222,14 +339,10 @@ public class Memory {
         } else if (address >= HIGH_RAM_START) {
             highRAM[address - HIGH_RAM_START] = data;
         } else if (address >= IO_RAM_START) {
-            boolean mmioFound = false;
-            for (MMIODevice device : mmioDevices) {
-                if (address >= device.startAddress && address <= device.endAddress) {
-                    device.onWrite(address, data);
-                    mmioFound = true;
-                }
-            }
-            if (!mmioFound) {
+            MMIODevice device = ioDevices[address - IO_RAM_START];
+            if (device != null) {
+                device.onWrite(address, data);
+            } else {
                 ioRAM[address - IO_RAM_START] = data;
             }
         } else if (address >= UNUSABLE_RAM_START) {
@@ -238,24 +351,29 @@ public class Memory {
             }
             return;
         } else if (address >= SPRITE_RAM_START) {
-            if (canUseOAM()) {
+            if (oamAccessible && !oamLockedByDma) {
                 spriteRAM[address - SPRITE_RAM_START] = data;
+                if (videoMemoryListener != null) {
+                    videoMemoryListener.onOAMWrite();
+                }
             }
         } else if (address >= ECHO_RAM_START) {
             internalRAM[address - ECHO_RAM_START] = data;
         } else if (address >= INTERNAL_RAM_START) {
             internalRAM[address - INTERNAL_RAM_START] = data;
         } else if (address >= EXTERNAL_RAM_START) {
-            externalRAM[address - EXTERNAL_RAM_START] = data;
-        } else if (address >= VIDEO_RAM_START) {
-            if (canUseVRAM()) {
-                videoRAM[address - VIDEO_RAM_START] = data;
-            }
-        } else { //Cartridge mapped memory
-            if (cartridge != null) {
-                cartridge.write(address, data);
+            if (cartridge != null && cartridge.hasRam()) {
+                cartridge.writeRam(address, data);
             } else {
-                log.error("Attempted to write to cartridge, but it is not inserted");
+                externalRAM[address - EXTERNAL_RAM_START] = data;
+            }
+        } else {
+            if (videoRAMAccessible) {
+                int offset = address - VIDEO_RAM_START;
+                videoRAM[offset] = data;
+                if (offset < TILE_DATA_SIZE_BYTES && videoMemoryListener != null) {
+                    videoMemoryListener.onTileDataWrite(offset);
+                }
             }
         }
         if (log.isDebugEnabled()) {
@@ -263,6 +381,56 @@ public class Memory {
         }
     }
 
+    private void updatePageTable() {
+        for (int page = 0; page < PAGES; page++) {
+            updatePage(page);
+        }
+    }
+
+    private void updatePage(int page) {
+        char address = (char) (page << 8);
+        byte[] backing = null;
+        int offset = 0;
+        boolean writable = true;
+
+        if (address < VIDEO_RAM_START) {
+            if (page == 0 && bootromEnabled) {  //Bootrom is exactly one page, cartridge is always mapped
+                backing = bootrom;
+                writable = false;
+            }
+        } else if (address < EXTERNAL_RAM_START) {
+            if (videoRAMAccessible) {
+                backing = videoRAM;
+                offset = address - VIDEO_RAM_START;
+                //Writes to tile data have to be reported to the listener
+                writable = videoMemoryListener == null || offset >= TILE_DATA_SIZE_BYTES;
+            }
+        } else if (address < INTERNAL_RAM_START) {
+            //Banked cartridge RAM goes through the cartridge
+            if (cartridge == null || !cartridge.hasRam()) {
+                backing = externalRAM;
+                offset = address - EXTERNAL_RAM_START;
+            }
+        } else if (address < ECHO_RAM_START) {
+            backing = internalRAM;
+            offset = address - INTERNAL_RAM_START;
+        } else if (address < SPRITE_RAM_START) {
+            backing = internalRAM;
+            offset = address - ECHO_RAM_START;
+        }
+        //OAM, unusable zone and I/O pages are always mapped
+
+        if (interceptedPages[page]) {
+            backing = null;
+        }
+        if (codePages[getCodePage(page)]) {
+            writable = false;
+        }
+        readPages[page] = backing;
+        writePages[page] = writable ? backing : null;
+        pageOffsets[page] = offset;
+    }
+
     public void fireTimerInterruption() {
         this.interruptFlags |= TIMER_MASK;
     }
@@ -275,17 +443,191 @@ public class Memory {
         this.interruptFlags |= LCD_MASK;
     }
 
+    public void fireSerialInterruption() {
+        this.interruptFlags |= SERIAL_MASK;
+    }
+
+    public void fireJoypadInterruption() {
+        this.interruptFlags |= JOYPAD_MASK;
+    }
+
 
     public void insertCartridge(Cartridge cartridge) {
         this.cartridge = cartridge;
+        invalidateCode();
+        updatePageTable();
     }
 
     public void removeCartridge() {
         this.cartridge = null;
+        invalidateCode();
+        updatePageTable();
+    }
+
+    /**
+     * Whether code at this address can be decoded once and reused until its page is written:
+     * cartridge ROM, internal RAM and high RAM, when not intercepted.
+     */
+    public boolean isCodeCacheable(char address) {
+        if (interceptedPages[address >>> 8]) {
+            return false;
+        }
+        return address < VIDEO_RAM_START
+                || (address >= INTERNAL_RAM_START && address < ECHO_RAM_START)
+                || (address >= HIGH_RAM_START && address < INTERRUPT_ENABLE_ADDRESS);
+    }
+
+    /**
+     * Whether reading the address gives the same value until something writes it or a peripheral event runs.
+     * Not true for the timer registers (computed from the clock on read) and intercepted pages.
+     * The joypad only applies input at its events.
+     */
+    public boolean isStableUntilEvent(char address) {
+        if (interceptedPages[address >>> 8]) {
+            return false;
+        }
+        return address < TIMER_FIRST_ADDRESS || address > TIMER_LAST_ADDRESS;
+    }
+
+    /**
+     * ROM bank mapped at the address, -1 for the bootrom.
+     */
+    public int getRomBank(char address) {
+        if (bootromEnabled && address < BOOTROM_SIZE_BYTES) {
+            return -1;
+        }
+        return cartridge != null ? cartridge.getRomBank(address) : 0;
+    }
+
+    /**
+     * Changes on every write to the cartridge area, as it may select other banks.
+     */
+    public int getRomMappingVersion() {
+        return romMappingVersion;
+    }
+
+    public int getCodeVersion(int page) {
+        return codeVersions[page];
+    }
+
+    /**
+     * Changes when memory is cleared, a cartridge is inserted or a state is loaded.
+     */
+    public int getCodeEpoch() {
+        return codeEpoch;
+    }
+
+    /**
+     * The next write to the code decoded from [start, start + length) increments the version of its page.
+     * RAM pages stop being direct for writes until then. Nothing to do for ROM, it cannot be written.
+     */
+    public void watchCode(char start, int length) {
+        if (start < VIDEO_RAM_START) {
+            return;
+        }
+        if (start >= HIGH_RAM_START) {
+            int first = start - HIGH_RAM_START;
+            Arrays.fill(highRAMCode, first, Math.min(HIGH_RAM_SIZE_BYTES, first + length), true);
+            return;
+        }
+        int page = getCodePage(start >>> 8);
+        if (!codePages[page]) {
+            codePages[page] = true;
+            updateCodePage(page);
+        }
+    }
+
+    private void unwatchCode(int page) {
+        codePages[page] = false;
+        codeVersions[page]++;
+        updateCodePage(page);
+    }
+
+    private void unwatchHighRAMCode() {
+        Arrays.fill(highRAMCode, false);
+        codeVersions[HIGH_RAM_START >>> 8]++;
+    }
+
+    private void invalidateCode() {
+        for (int page = 0; page < PAGES; page++) {
+            codePages[page] = false;
+            codeVersions[page]++;
+        }
+        Arrays.fill(highRAMCode, false);
+        romMappingVersion++;
+        codeEpoch++;
+    }
+
+    private void updateCodePage(int page) {
+        updatePage(page);
+        if (page >= INTERNAL_RAM_START >>> 8 && page < (INTERNAL_RAM_START + ECHO_RAM_SIZE_BYTES) >>> 8) {
+            updatePage(page + ((ECHO_RAM_START - INTERNAL_RAM_START) >>> 8));
+        }
+    }
+
+    //Echo RAM pages are the same memory as their internal RAM page
+    private static int getCodePage(int page) {
+        if (page >= ECHO_RAM_START >>> 8 && page < SPRITE_RAM_START >>> 8) {
+            return page - ((ECHO_RAM_START - INTERNAL_RAM_START) >>> 8);
+        }
+        return page;
+    }
+
+    /**
+     * All regions owned by memory. Cartridge state and MMIO device registers are saved by their owners.
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) (bootromEnabled ? 1 : 0));
+        out.put(bootrom);
+        out.put(videoRAM);
+        out.put(externalRAM);
+        out.put(internalRAM);
+        out.put(spriteRAM);
+        out.put(ioRAM, 0, IO_RAM_SLOTS);
+        out.put(highRAM);
+        out.put(interruptEnable);
+        out.put(interruptFlags);
+        out.put((byte) (videoRAMAccessible ? 1 : 0));
+        out.put((byte) (oamAccessible ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        bootromEnabled = in.get() != 0;
+        in.get(bootrom);
+        in.get(videoRAM);
+        in.get(externalRAM);
+        in.get(internalRAM);
+        in.get(spriteRAM);
+        in.get(ioRAM, 0, IO_RAM_SLOTS);
+        in.get(highRAM);
+        interruptEnable = in.get();
+        interruptFlags = in.get();
+        videoRAMAccessible = in.get() != 0;
+        oamAccessible = in.get() != 0;
+        if (videoMemoryListener != null) {
+            videoMemoryListener.onVideoMemoryReset();
+        }
+        invalidateCode();
+        updatePageTable();
     }
 
 
-    protected byte[] getVideoRAM() {
+    /**
+     * Only one listener, setting another one replaces it. Null to stop reporting writes.
+     */
+    public void setVideoMemoryListener(VideoMemoryListener listener) {
+        this.videoMemoryListener = listener;
+        for (int page = VIDEO_RAM_START >>> 8; page < EXTERNAL_RAM_START >>> 8; page++) {
+            updatePage(page);
+        }
+    }
+
+    /**
+     * Direct access to video RAM (0x8000 - 0x9FFF), for the GPU to render without going through read().
+     */
+    public byte[] getVideoRAM() {
         return videoRAM;
     }
 
@@ -297,7 +639,10 @@ public class Memory {
         return internalRAM;
     }
 
-    protected byte[] getSpriteRAM() {
+    /**
+     * Direct access to OAM (0xFE00 - 0xFE9F), for the GPU to render sprites without going through read().
+     */
+    public byte[] getSpriteRAM() {
         return spriteRAM;
     }
 
@@ -313,27 +658,46 @@ public class Memory {
         return interruptEnable;
     }
 
-    private boolean canUseOAM() {
-        return !isLcdEnabled() || (!isGPUOamMode() && !isGPUVramMode());
-    }
-
-    private boolean canUseVRAM() {
-        return !isLcdEnabled() || !isGPUVramMode();
+    //Called by the GPU when it enters or leaves a mode where the CPU cannot access VRAM
+    public void setVideoRAMAccessible(boolean accessible) {
+        if (videoRAMAccessible != accessible) {
+            videoRAMAccessible = accessible;
+            for (int page = VIDEO_RAM_START >>> 8; page < EXTERNAL_RAM_START >>> 8; page++) {
+                updatePage(page);
+            }
+        }
     }
 
-    private boolean isGPUOamMode() {
-        int mode = read((char) (0xFF41)) & 0x03;
-        return mode == 2;
+    //Called by the GPU when it enters or leaves a mode where the CPU cannot access OAM
+    public void setOAMAccessible(boolean accessible) {
+        this.oamAccessible = accessible;
     }
 
-    private boolean isGPUVramMode() {
-        int mode = read((char) (0xFF41)) & 0x03;
-        return mode == 3;
+    //Called by the OAM DMA when a transfer starts and ends, the CPU cannot access OAM meanwhile
+    public void setOAMLockedByDma(boolean locked) {
+        this.oamLockedByDma = locked;
     }
 
-    private boolean isLcdEnabled() {
-        int mode = read((char) (0xFF40)) & 0x80;
-        return mode != 0;
+    /**
+     * Copies the 160 bytes starting at sourcePage * 0x100 into OAM, as the OAM DMA does.
+     * Pages backed by an array are copied at once, cartridge and intercepted ones byte by byte.
+     * Sources from 0xE000 up read internal RAM, as the DMA only sees the external bus.
+     */
+    public void copyToOAM(int sourcePage) {
+        char source = (char) (sourcePage << 8);
+        byte[] data = readPages[sourcePage];
+        if (source >= ECHO_RAM_START) {
+            System.arraycopy(internalRAM, source & (INTERNAL_RAM_SIZE_BYTES - 1), spriteRAM, 0, SPRITE_RAM_SIZE_BYTES);
+        } else if (data != null) {
+            System.arraycopy(data, pageOffsets[sourcePage], spriteRAM, 0, SPRITE_RAM_SIZE_BYTES);
+        } else {
+            for (int i = 0; i < SPRITE_RAM_SIZE_BYTES; i++) {
+                spriteRAM[i] = readMapped((char) (source + i), true);
+            }
+        }
+        if (videoMemoryListener != null) {
+            videoMemoryListener.onOAMWrite();
+        }
     }
 
     public void setBootrom(String filePath) throws Exception {
@@ -349,5 +713,7 @@ public class Memory {
             bootrom[i] = content[i];
         }
         bootromEnabled = true;
+        invalidateCode();
+        updatePage(0);
     }
 }
@@ -4,6 +4,18 @@ public abstract class MemoryInterceptor {
 
     protected Memory memory;
 
+    //Range of addresses this interceptor is called for, memory pages outside of it are not slowed down
+    protected char startAddress = 0x0000;
+    protected char endAddress = 0xFFFF;
+
+    public MemoryInterceptor() {
+    }
+
+    public MemoryInterceptor(char startAddress, char endAddress) {
+        this.startAddress = startAddress;
+        this.endAddress = endAddress;
+    }
+
     public void addMemory(Memory memory) {
         this.memory = memory;
     }
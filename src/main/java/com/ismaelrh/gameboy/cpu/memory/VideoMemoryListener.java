@@ -0,0 +1,23 @@
+package com.ismaelrh.gameboy.cpu.memory;
+
+/**
+ * Told about writes to video memory, so whoever renders it can keep what it derives from it up to date.
+ * While a listener is set, writes to tile data (0x8000 - 0x97FF) and OAM always go through Memory.
+ */
+public interface VideoMemoryListener {
+
+    /**
+     * @param videoRAMOffset offset of the written byte from 0x8000, inside the tile data area
+     */
+    void onTileDataWrite(int videoRAMOffset);
+
+    /**
+     * Any OAM byte was written, by the CPU or the OAM DMA.
+     */
+    void onOAMWrite();
+
+    /**
+     * All of video RAM and OAM may have changed, memory was cleared or a state loaded.
+     */
+    void onVideoMemoryReset();
+}
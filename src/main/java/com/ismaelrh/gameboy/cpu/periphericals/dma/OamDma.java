@@ -0,0 +1,74 @@
+package com.ismaelrh.gameboy.cpu.periphericals.dma;
+
+import com.ismaelrh.gameboy.cpu.memory.MMIODevice;
+import com.ismaelrh.gameboy.cpu.scheduler.ScheduledDevice;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OAM DMA, 0xFF46: writing XX copies XX00 - XX9F into OAM (0xFE00 - 0xFE9F).
+ * The real transfer moves a byte per machine cycle during 160 of them, and the CPU cannot access OAM meanwhile.
+ * Here all bytes are copied at once when the transfer starts, and OAM stays locked until the scheduler
+ * reaches its end. As nothing can read OAM in between, the result is the same.
+ * Games wait for it in high RAM, the rest of the bus is not locked.
+ */
+public class OamDma extends MMIODevice implements ScheduledDevice, Snapshotable {
+
+    private final static char DMA_ADDRESS = (char) 0xFF46;
+    public final static int TRANSFER_CYCLES = 160 * 4;
+
+    private final Scheduler scheduler;
+
+    private byte source = (byte) 0xFF;
+    private long transferEndCycle = Long.MAX_VALUE;
+
+    public OamDma(Scheduler scheduler) {
+        super(DMA_ADDRESS, DMA_ADDRESS);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void onWrite(char address, byte data) {
+        source = data;
+        memory.copyToOAM(data & 0xFF);
+        memory.setOAMLockedByDma(true);
+        //A transfer started before the previous one ends restarts the lock
+        transferEndCycle = scheduler.getCycles() + TRANSFER_CYCLES;
+        scheduler.reschedule();
+    }
+
+    @Override
+    public byte onRead(char address) {
+        return source;
+    }
+
+    public boolean isTransferring() {
+        return transferEndCycle != Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getNextEventCycle() {
+        return transferEndCycle;
+    }
+
+    @Override
+    public void onEvent() {
+        transferEndCycle = Long.MAX_VALUE;
+        memory.setOAMLockedByDma(false);
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put(source);
+        out.putLong(transferEndCycle);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        source = in.get();
+        transferEndCycle = in.getLong();
+        memory.setOAMLockedByDma(isTransferring());
+    }
+}
@@ -0,0 +1,13 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+/**
+ * Joypad buttons, in the order of their bits in the button masks used by {@link Joypad}:
+ * directions in the low nibble, actions in the high one, both as they appear in P1 bits 0-3.
+ */
+public enum Button {
+    RIGHT, LEFT, UP, DOWN, A, B, SELECT, START;
+
+    public int getMask() {
+        return 1 << ordinal();
+    }
+}
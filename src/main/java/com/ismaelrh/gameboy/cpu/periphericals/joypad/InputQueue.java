@@ -0,0 +1,67 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue of button events with one producer and one consumer thread, without locks.
+ * Each side only writes its own index, with an ordered store, and reads the other one only when
+ * its cached copy says the queue is full or empty.
+ */
+class InputQueue {
+
+    final static int EMPTY = -1;
+
+    private final int[] events;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();   //Next event to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong();   //Next event to write, written by the producer
+    private long producerHead = 0;
+    private long consumerTail = 0;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.events = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Producer side.
+     *
+     * @param event any non negative value
+     * @return false if the queue is full, the event is dropped
+     */
+    boolean offer(int event) {
+        long position = tail.get();
+        if (position - producerHead == events.length) {
+            producerHead = head.get();
+            if (position - producerHead == events.length) {
+                return false;
+            }
+        }
+        events[(int) position & mask] = event;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side.
+     *
+     * @return next event, or EMPTY
+     */
+    int poll() {
+        long position = head.get();
+        if (position == consumerTail) {
+            consumerTail = tail.get();
+            if (position == consumerTail) {
+                return EMPTY;
+            }
+        }
+        int event = events[(int) position & mask];
+        head.lazySet(position + 1);
+        return event;
+    }
+}
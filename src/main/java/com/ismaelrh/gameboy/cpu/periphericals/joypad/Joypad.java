@@ -0,0 +1,161 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.memory.MMIODevice;
+import com.ismaelrh.gameboy.cpu.scheduler.ScheduledDevice;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Joypad, 0xFF00 P1: writing bit 4 low selects the directions, bit 5 low the action buttons,
+ * and bits 0-3 read low for the pressed buttons of the selected groups.
+ * Buttons can be pressed and released from any thread (one at a time), the events are queued and applied
+ * on the emulation thread at the start of every frame (every 70224 cycles since power on), so the register only
+ * changes at scheduler events and the same events at the same frames always give the same execution.
+ * A button pressed and released within the same frame is held for that frame and released on the next one,
+ * so short taps are never lost. Pressing a button of a selected group fires the joypad interruption.
+ */
+public class Joypad extends MMIODevice implements ScheduledDevice, Snapshotable {
+
+    private final static char P1_ADDRESS = (char) 0xFF00;
+    private final static int QUEUE_CAPACITY = 256;
+
+    private final Scheduler scheduler;
+    private final InputQueue queue = new InputQueue(QUEUE_CAPACITY);
+    private JoypadInput input;
+
+    private byte select = 0x30;     //Bits 4 and 5, nothing selected
+    private int buttons = 0;
+    private int releaseNextFrame = 0;   //Buttons tapped during the last frame
+    private long frame = 0;
+    private long nextFrameCycle;
+
+    public Joypad(Scheduler scheduler) {
+        super(P1_ADDRESS, P1_ADDRESS);
+        this.scheduler = scheduler;
+        this.nextFrameCycle = scheduler.getCycles() + Const.LCD_CYCLES_PER_FRAME;
+    }
+
+    /**
+     * Can be called from any thread, but only one at a time.
+     *
+     * @return false if too many events are pending and it was dropped
+     */
+    public boolean press(Button button) {
+        return queue.offer(button.ordinal() << 1 | 1);
+    }
+
+    /**
+     * Same as {@link #press(Button)}.
+     */
+    public boolean release(Button button) {
+        return queue.offer(button.ordinal() << 1);
+    }
+
+    /**
+     * Source asked for the buttons of every frame, after applying queued events. Null to only use the queue.
+     */
+    public void setInput(JoypadInput input) {
+        this.input = input;
+    }
+
+    public JoypadInput getInput() {
+        return input;
+    }
+
+    /**
+     * Button mask (see {@link Button#getMask()}) held during the current frame.
+     */
+    public int getButtons() {
+        return buttons;
+    }
+
+    /**
+     * Frames started since power on.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    @Override
+    public void onWrite(char address, byte data) {
+        select = (byte) (data & 0x30);
+    }
+
+    @Override
+    public byte onRead(char address) {
+        //Unused bits read as 1, pressed buttons as 0. With both groups selected, a line is low if either is pressed
+        int selected = buttons & getSelectedMask();
+        int lines = (selected | selected >> 4) & 0x0F;
+        return (byte) ((0xCF | select) & ~lines);
+    }
+
+    @Override
+    public long getNextEventCycle() {
+        return nextFrameCycle;
+    }
+
+    @Override
+    public void onEvent() {
+        frame++;
+        nextFrameCycle += Const.LCD_CYCLES_PER_FRAME;
+        int newButtons = buttons & ~releaseNextFrame;
+        releaseNextFrame = 0;
+        int pressedNow = 0;
+        int event;
+        while ((event = queue.poll()) != InputQueue.EMPTY) {
+            int mask = 1 << (event >> 1);
+            if ((event & 1) != 0) {
+                pressedNow |= mask & ~newButtons;
+                newButtons |= mask;
+                releaseNextFrame &= ~mask;
+            } else if ((pressedNow & mask) != 0) {
+                releaseNextFrame |= mask;
+            } else {
+                newButtons &= ~mask;
+            }
+        }
+        if (input != null) {
+            newButtons = input.getButtons(frame, newButtons);
+        }
+        setButtons(newButtons);
+    }
+
+    private void setButtons(int newButtons) {
+        int pressed = newButtons & ~buttons;
+        buttons = newButtons;
+        //P1 bits 0-3 going from high to low
+        if ((pressed & getSelectedMask()) != 0) {
+            memory.fireJoypadInterruption();
+        }
+    }
+
+    //Buttons that show in P1 with the current selection
+    private int getSelectedMask() {
+        return ((select & 0x10) == 0 ? 0x0F : 0) | ((select & 0x20) == 0 ? 0xF0 : 0);
+    }
+
+    /**
+     * Queued events are not saved, they belong to whoever is pressing the buttons. Taps held during the
+     * current frame are, so they are still released on the next frame after a load.
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put(select);
+        out.put((byte) buttons);
+        out.put((byte) releaseNextFrame);
+        out.putLong(frame);
+        out.putLong(nextFrameCycle);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        select = in.get();
+        buttons = in.get() & 0xFF;
+        releaseNextFrame = in.get() & 0xFF;
+        frame = in.getLong();
+        nextFrameCycle = in.getLong();
+    }
+}
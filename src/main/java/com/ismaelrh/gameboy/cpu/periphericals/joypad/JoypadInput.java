@@ -0,0 +1,15 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+/**
+ * Source of the buttons held on each frame, asked by the joypad at the start of every frame.
+ * Runs on the emulation thread, so it does not need to be thread safe.
+ */
+public interface JoypadInput {
+
+    /**
+     * @param frame    frames since power on
+     * @param previous buttons held until now, after applying queued events
+     * @return button mask (see {@link Button#getMask()}) held during the frame
+     */
+    int getButtons(long frame, int previous);
+}
@@ -0,0 +1,94 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Buttons held on each frame, read from a script for headless runs. Each line is a frame number followed by the
+ * buttons held from that frame on, until the next line. Lines starting with # are comments:
+ * <pre>
+ * # Press START for 5 frames, then hold A and RIGHT
+ * 120 START
+ * 125
+ * 300 A RIGHT
+ * </pre>
+ * Frames before the first line have no buttons held. Live input is ignored while a script is in use.
+ */
+public class ScriptedInput implements JoypadInput {
+
+    private final long[] frames;
+    private final int[] buttons;
+    private int current = -1;    //Last line reached
+
+    public ScriptedInput(long[] frames, int[] buttons) {
+        if (frames.length != buttons.length) {
+            throw new IllegalArgumentException("Frames and buttons have different lengths");
+        }
+        for (int i = 1; i < frames.length; i++) {
+            if (frames[i] <= frames[i - 1]) {
+                throw new IllegalArgumentException("Frames must be increasing, " + frames[i] + " after " + frames[i - 1]);
+            }
+        }
+        this.frames = frames.clone();
+        this.buttons = buttons.clone();
+    }
+
+    public static ScriptedInput load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    public static ScriptedInput parse(Reader script) throws IOException {
+        BufferedReader reader = new BufferedReader(script);
+        long[] frames = new long[16];
+        int[] buttons = new int[16];
+        int size = 0;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (size == frames.length) {
+                frames = Arrays.copyOf(frames, size * 2);
+                buttons = Arrays.copyOf(buttons, size * 2);
+            }
+            try {
+                frames[size] = Long.parseLong(fields[0]);
+                int mask = 0;
+                for (int i = 1; i < fields.length; i++) {
+                    mask |= Button.valueOf(fields[i].toUpperCase()).getMask();
+                }
+                buttons[size] = mask;
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid input script line " + lineNumber + ": " + line);
+            }
+            if (size > 0 && frames[size] <= frames[size - 1]) {
+                throw new IOException("Input script line " + lineNumber + " goes back to frame " + frames[size]);
+            }
+            size++;
+        }
+        return new ScriptedInput(Arrays.copyOf(frames, size), Arrays.copyOf(buttons, size));
+    }
+
+    @Override
+    public int getButtons(long frame, int previous) {
+        //Frames usually go one by one, start over when they jump back (a state was loaded)
+        if (current >= 0 && frames[current] > frame) {
+            current = -1;
+        }
+        while (current + 1 < frames.length && frames[current + 1] <= frame) {
+            current++;
+        }
+        return current >= 0 ? buttons[current] : 0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.ismaelrh.gameboy.cpu.periphericals.serial;
+
+import com.ismaelrh.gameboy.cpu.memory.MMIODevice;
+import com.ismaelrh.gameboy.cpu.scheduler.ScheduledDevice;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Serial port with nothing connected to the other end.
+ * 0xFF01 SB: byte to send, replaced by the received one (0xFF) when the transfer ends.
+ * 0xFF02 SC: bit 7 starts a transfer and stays set while in progress, bit 0 selects the internal clock.
+ * With the internal clock, a transfer takes 8 bits at 8192Hz and fires the serial interruption.
+ * Every byte sent is kept, so headless runs can read what test ROMs print.
+ */
+public class Serial extends MMIODevice implements ScheduledDevice, Snapshotable {
+
+    private final static char DATA_ADDRESS = (char) 0xFF01;
+    private final static char CONTROL_ADDRESS = (char) 0xFF02;
+    private final static int TRANSFER_CYCLES = 4096;
+
+    private final Scheduler scheduler;
+
+    private byte data = 0;
+    private byte control = 0;
+    private long transferEndCycle = Long.MAX_VALUE;
+
+    private byte[] output = new byte[256];
+    private int outputLength = 0;
+
+    public Serial(Scheduler scheduler) {
+        super(DATA_ADDRESS, CONTROL_ADDRESS);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void onWrite(char address, byte data) {
+        if (address == DATA_ADDRESS) {
+            this.data = data;
+        } else if (address == CONTROL_ADDRESS) {
+            this.control = data;
+            if ((data & 0x80) != 0) {
+                appendOutput(this.data);
+                //With external clock, the transfer waits forever for the other end
+                transferEndCycle = (data & 0x01) != 0 ? scheduler.getCycles() + TRANSFER_CYCLES : Long.MAX_VALUE;
+            } else {
+                transferEndCycle = Long.MAX_VALUE;
+            }
+            scheduler.reschedule();
+        }
+    }
+
+    @Override
+    public byte onRead(char address) {
+        if (address == DATA_ADDRESS) {
+            return data;
+        }
+        return (byte) (control | 0x7E);    //Unused bits read as 1
+    }
+
+    @Override
+    public long getNextEventCycle() {
+        return transferEndCycle;
+    }
+
+    @Override
+    public void onEvent() {
+        data = (byte) 0xFF;
+        control = (byte) (control & 0x7F);
+        transferEndCycle = Long.MAX_VALUE;
+        memory.fireSerialInterruption();
+    }
+
+    /**
+     * Bytes sent since start or the last clearOutput(), as characters.
+     */
+    public String getOutput() {
+        return new String(output, 0, outputLength, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Cheap enough to be checked after every instruction.
+     */
+    public boolean outputEndsWith(String text) {
+        int start = outputLength - text.length();
+        if (start < 0) {
+            return false;
+        }
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (output[start + i] != (byte) text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clearOutput() {
+        outputLength = 0;
+    }
+
+    /**
+     * Output is not part of the state, it belongs to whoever is listening.
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put(data);
+        out.put(control);
+        out.putLong(transferEndCycle);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        data = in.get();
+        control = in.get();
+        transferEndCycle = in.getLong();
+    }
+
+    private void appendOutput(byte value) {
+        if (outputLength == output.length) {
+            output = Arrays.copyOf(output, output.length * 2);
+        }
+        output[outputLength++] = value;
+    }
+}
@@ -1,48 +1,62 @@
 package com.ismaelrh.gameboy.cpu.periphericals.timer;
 
-import com.ismaelrh.gameboy.cpu.Const;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
 
-public class CounterTimer {
+import java.nio.ByteBuffer;
 
-    private final int[] FREQS = new int[]{4096, 262144, 65536, 16384};
+/**
+ * TIMA. Its value is computed from the scheduler clock when read, the only event is the overflow.
+ */
+public class CounterTimer implements Snapshotable {
 
-    private byte value = 0;
+    //4096Hz, 262144Hz, 65536Hz, 16384Hz -> 1024, 16, 64 and 256 cycles per increment
+    private final static int[] CYCLES_SHIFTS = new int[]{10, 4, 6, 8};
+
+    private final Memory memory;
+    private final Scheduler scheduler;
+
+    private int baseValue = 0;   //Value at baseCycle
+    private long baseCycle = 0;
     private byte modulo = 0; //Value to reset when overflow
     private byte control = 0;
 
     private boolean running = false;
-    private int freq = 4096; //Initial is 4096Hz
-
-    private int cyclesSinceReset = 0;
+    private int cyclesShift = CYCLES_SHIFTS[0]; //Initial is 4096Hz
 
-    private Memory memory;
+    private long overflowCycle = Long.MAX_VALUE;
 
-    public CounterTimer(Memory memory) {
+    public CounterTimer(Memory memory, Scheduler scheduler) {
         this.memory = memory;
-        this.cyclesSinceReset = getCycleRate(freq);
+        this.scheduler = scheduler;
     }
 
-    public void tick(int cycles) {
-        if (running) {
-            cyclesSinceReset += cycles;
-            if (cyclesSinceReset >= getCycleRate(freq)) {
-                inc();
-                cyclesSinceReset = cyclesSinceReset - getCycleRate(freq); //To adjust
-            }
+    public byte getValue() {
+        if (!running) {
+            return (byte) baseValue;
         }
+        return (byte) (baseValue + ((scheduler.getCycles() - baseCycle) >> cyclesShift));
     }
 
-    public byte getValue() {
-        return (byte) (value & 0xFF);
+    protected void setValue(byte value) {
+        sync();
+        baseValue = value & 0xFF;
+        scheduleOverflow();
     }
 
-    private void inc() {
-        value = (byte) ((value + 1) & 0xFF);
-        if (value == 0) {
-            value = modulo;
-            memory.fireTimerInterruption();
-        }
+    protected long getOverflowCycle() {
+        return overflowCycle;
+    }
+
+    /**
+     * Called when the clock reaches the overflow cycle: reload with modulo and fire the interruption.
+     */
+    protected void overflow() {
+        baseValue = modulo & 0xFF;
+        baseCycle = overflowCycle;
+        overflowCycle = baseCycle + ((long) (256 - baseValue) << cyclesShift);
+        memory.fireTimerInterruption();
     }
 
     protected void setModulo(byte modulo) {
@@ -58,38 +72,54 @@ public class CounterTimer {
     }
 
     protected void setControl(byte control) {
+        sync();
         this.control = control;
         //Now, update internal state
-        byte newFreq = (byte) (control & 0x03);
-        setFreq(FREQS[newFreq]);
-        byte newMode = (byte) (control & 0x04);
-        if (newMode != 0) {
-            start();
-        } else {
-            stop();
+        cyclesShift = CYCLES_SHIFTS[control & 0x03];
+        boolean start = (control & 0x04) != 0;
+        if (start && !running) {
+            baseCycle = scheduler.getCycles();
         }
+        running = start;
+        scheduleOverflow();
     }
 
-    private void setFreq(int hz) {
-        this.freq = hz;
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putInt(baseValue);
+        out.putLong(baseCycle);
+        out.put(modulo);
+        out.put(control);
+        out.putLong(overflowCycle);
     }
 
-    private void start() {
-        if (!running) {
-            cyclesSinceReset = freq;
-            running = true;
-        }
-
+    @Override
+    public void loadState(ByteBuffer in) {
+        baseValue = in.getInt();
+        baseCycle = in.getLong();
+        modulo = in.get();
+        control = in.get();
+        overflowCycle = in.getLong();
+        cyclesShift = CYCLES_SHIFTS[control & 0x03];
+        running = (control & 0x04) != 0;
     }
 
-    private void stop() {
-        running = false;
+    //Consolidate increments up to now into baseValue, keeping the cycles towards the next one
+    private void sync() {
+        if (running) {
+            long increments = (scheduler.getCycles() - baseCycle) >> cyclesShift;
+            baseValue += (int) increments;
+            baseCycle += increments << cyclesShift;
+        }
     }
 
-
-    private int getCycleRate(int freq) {
-        return Const.CPU_FREQ_CYCLES_PER_S / freq;
+    private void scheduleOverflow() {
+        if (running) {
+            overflowCycle = baseCycle + ((long) (256 - baseValue) << cyclesShift);
+        } else {
+            overflowCycle = Long.MAX_VALUE;
+        }
+        scheduler.reschedule();
     }
 
-
 }
@@ -1,36 +1,41 @@
 package com.ismaelrh.gameboy.cpu.periphericals.timer;
 
-import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
 
-public class DivTimer {
+import java.nio.ByteBuffer;
 
-    private final int FREQ = 16384; //16384hz
+/**
+ * Increments at 16384Hz, every 256 cycles. The value is computed from the scheduler clock when read.
+ */
+public class DivTimer implements Snapshotable {
 
-    private int cyclesSinceReset = getCycleRate();
-    private byte value = 0;
+    private final static int CYCLES_SHIFT = 8; //256 cycles
 
-    protected void tick(int cycles) {
-        cyclesSinceReset += cycles;
-        if (cyclesSinceReset >= getCycleRate()) {
-            inc();
-            cyclesSinceReset = cyclesSinceReset - getCycleRate(); //To adjust
-        }
+    private final Scheduler scheduler;
+    private long resetCycle;
+
+    public DivTimer(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.resetCycle = scheduler.getCycles();
     }
 
     protected byte getValue() {
-        return (byte) (value & 0xFF);
+        return (byte) ((scheduler.getCycles() - resetCycle) >> CYCLES_SHIFT);
     }
 
     protected void clear() {
-        this.value = 0;
+        this.resetCycle = scheduler.getCycles();
     }
 
-    private void inc() {
-        value = (byte) ((value + 1) & 0xFF);
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(resetCycle);
     }
 
-    private int getCycleRate() {
-        return Const.CPU_FREQ_CYCLES_PER_S / FREQ;
+    @Override
+    public void loadState(ByteBuffer in) {
+        resetCycle = in.getLong();
     }
 
 }
@@ -2,8 +2,13 @@ package com.ismaelrh.gameboy.cpu.periphericals.timer;
 
 import com.ismaelrh.gameboy.cpu.memory.MMIODevice;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.ScheduledDevice;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
 
-public class Timer extends MMIODevice {
+import java.nio.ByteBuffer;
+
+public class Timer extends MMIODevice implements ScheduledDevice, Snapshotable {
 
     private final char DIV_ADDRESS = (char) 0xFF04;
     private final char COUNTER_ADDRESS = (char) 0xFF05;
@@ -14,15 +19,20 @@ public class Timer extends MMIODevice {
     private final DivTimer divTimer;
     private final CounterTimer counterTimer;
 
-    public Timer(Memory memory) {
+    public Timer(Memory memory, Scheduler scheduler) {
         super((char) 0xFF04, (char) 0xFF07);
-        this.divTimer = new DivTimer();
-        this.counterTimer = new CounterTimer(memory);
+        this.divTimer = new DivTimer(scheduler);
+        this.counterTimer = new CounterTimer(memory, scheduler);
     }
 
-    public void tick(int cycles) {    //cycles = hertz
-        divTimer.tick(cycles);
-        counterTimer.tick(cycles);
+    @Override
+    public long getNextEventCycle() {
+        return counterTimer.getOverflowCycle();
+    }
+
+    @Override
+    public void onEvent() {
+        counterTimer.overflow();
     }
 
     @Override
@@ -31,6 +41,9 @@ public class Timer extends MMIODevice {
         if (address == DIV_ADDRESS) {
             divTimer.clear();
         }
+        if (address == COUNTER_ADDRESS) {
+            counterTimer.setValue(data);
+        }
         if (address == MODULO_ADDRESS) {
             counterTimer.setModulo(data);
         }
@@ -56,5 +69,17 @@ public class Timer extends MMIODevice {
         return 0;
     }
 
+    @Override
+    public void saveState(ByteBuffer out) {
+        divTimer.saveState(out);
+        counterTimer.saveState(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        divTimer.loadState(in);
+        counterTimer.loadState(in);
+    }
+
 
 }
@@ -0,0 +1,18 @@
+package com.ismaelrh.gameboy.cpu.scheduler;
+
+/**
+ * Peripheral whose state only changes at known cycles. Between events its registers are computed from
+ * the scheduler clock when read, so it does not need to be ticked after every instruction.
+ */
+public interface ScheduledDevice {
+
+    /**
+     * Absolute cycle of the next state change, or Long.MAX_VALUE if none is expected.
+     */
+    long getNextEventCycle();
+
+    /**
+     * Called once the scheduler clock has reached getNextEventCycle(). Must move the next event forward.
+     */
+    void onEvent();
+}
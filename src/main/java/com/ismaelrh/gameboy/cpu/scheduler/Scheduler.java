@@ -0,0 +1,94 @@
+package com.ismaelrh.gameboy.cpu.scheduler;
+
+import com.ismaelrh.gameboy.state.Snapshotable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Keeps the global cycle count and the earliest pending event of all devices.
+ * Advancing the clock is only an addition and a comparison, until a deadline is reached.
+ * Devices have to call reschedule() when a register write moves their next event.
+ */
+public class Scheduler implements Snapshotable {
+
+    private ScheduledDevice[] devices = new ScheduledDevice[0];
+
+    private long cycles = 0;
+    private long nextEventCycle = Long.MAX_VALUE;
+    private ScheduledDevice nextDevice = null;
+    private long lastEventCycle = 0;
+
+    public void addDevice(ScheduledDevice device) {
+        devices = Arrays.copyOf(devices, devices.length + 1);
+        devices[devices.length - 1] = device;
+        reschedule();
+    }
+
+    /**
+     * Cycles elapsed since start. During an instruction, it does not include that instruction yet.
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    public long getNextEventCycle() {
+        return nextEventCycle;
+    }
+
+    /**
+     * Clock value at the end of the last advance that ran events. Nothing a device exposes has changed since then,
+     * unless the CPU wrote to it.
+     */
+    public long getLastEventCycle() {
+        return lastEventCycle;
+    }
+
+    public void advance(int cycles) {
+        this.cycles += cycles;
+        if (this.cycles >= nextEventCycle) {
+            runEvents();
+        }
+    }
+
+    /**
+     * Recomputes the earliest event. On ties, devices added first go first.
+     */
+    public void reschedule() {
+        long earliest = Long.MAX_VALUE;
+        ScheduledDevice earliestDevice = null;
+        for (ScheduledDevice device : devices) {
+            long eventCycle = device.getNextEventCycle();
+            if (eventCycle < earliest) {
+                earliest = eventCycle;
+                earliestDevice = device;
+            }
+        }
+        nextEventCycle = earliest;
+        nextDevice = earliestDevice;
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(cycles);
+    }
+
+    /**
+     * Devices keep their own next event, so they have to be loaded before the scheduler.
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        cycles = in.getLong();
+        lastEventCycle = cycles;    //Anything may have changed
+        reschedule();
+    }
+
+    private void runEvents() {
+        lastEventCycle = cycles;
+        //Run them in order, even if the clock went past several of them at once
+        while (nextEventCycle <= cycles) {
+            nextDevice.onEvent();
+            reschedule();
+        }
+    }
+}
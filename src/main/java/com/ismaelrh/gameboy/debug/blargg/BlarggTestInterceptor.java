@@ -4,6 +4,9 @@ import com.ismaelrh.gameboy.cpu.memory.MemoryInterceptor;
 
 public class BlarggTestInterceptor extends MemoryInterceptor {
 
+    public BlarggTestInterceptor() {
+        super((char) 0xFF02, (char) 0xFF02);    //Serial transfer control
+    }
 
     @Override
     public byte onWrite(char address, byte data) {
@@ -0,0 +1,123 @@
+package com.ismaelrh.gameboy.debug.blargg;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import com.ismaelrh.gameboy.cpu.periphericals.serial.Serial;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs test ROMs in parallel, each one on its own emulator, until they report a result or run out of cycles.
+ * Emulators share nothing but the read-only ROM images.
+ * Usage: RomFarm dir [maxFrames] [threads]
+ */
+public class RomFarm {
+
+    private static final Logger log = LogManager.getLogger(RomFarm.class);
+
+    private static final int DEFAULT_MAX_FRAMES = 60 * 60;
+
+    private final int parallelism;
+    private final long maxCycles;
+
+    public RomFarm(long maxCycles) {
+        this(Runtime.getRuntime().availableProcessors(), maxCycles);
+    }
+
+    public RomFarm(int parallelism, long maxCycles) {
+        this.parallelism = parallelism;
+        this.maxCycles = maxCycles;
+    }
+
+    /**
+     * Results are in the same order as the given ROMs. A ROM failing with an exception does not stop the rest.
+     */
+    public List<RomResult> run(List<String> roms) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<RomResult>> tasks = new ArrayList<>();
+            for (String rom : roms) {
+                tasks.add(pool.submit(() -> runRom(rom)));
+            }
+            List<RomResult> results = new ArrayList<>();
+            for (ForkJoinTask<RomResult> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public RomResult runRom(String rom) {
+        Emulator emulator = new Emulator();
+        Serial serial = emulator.getSerial();
+        long startNanos = System.nanoTime();
+        String error = null;
+        try {
+            //No save file, ROMs are run concurrently and must not share anything writable
+            emulator.insertCartridge(CartridgeFactory.load(rom, null));
+            emulator.runUntil(e -> hasResult(serial), maxCycles);
+        } catch (Exception e) {
+            error = e.getMessage();
+        } finally {
+            emulator.close();
+        }
+        return new RomResult(rom, serial.getOutput(), emulator.getCycles(), System.nanoTime() - startNanos, error);
+    }
+
+    //Blargg tests end by reporting their result
+    private static boolean hasResult(Serial serial) {
+        return serial.outputEndsWith("Passed") || serial.outputEndsWith("Failed");
+    }
+
+    /**
+     * All .gb files under the directory, sorted by path.
+     */
+    public static List<String> findRoms(String directory) throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get(directory))) {
+            return files.filter(path -> path.toString().endsWith(".gb"))
+                    .map(Path::toString)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 1) {
+            System.err.println("Usage: RomFarm <dir> [maxFrames] [threads]");
+            System.exit(1);
+        }
+
+        long maxFrames = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MAX_FRAMES;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        List<String> roms = findRoms(args[0]);
+
+        long startNanos = System.nanoTime();
+        List<RomResult> results = new RomFarm(threads, maxFrames * Const.LCD_CYCLES_PER_FRAME).run(roms);
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+        long failed = 0;
+        for (RomResult result : results) {
+            log.info(result);
+            if (!result.isPassed()) {
+                failed++;
+            }
+        }
+        log.info(String.format("%d ROMs, %d failed, in %.3f s on %d threads", results.size(), failed, seconds, threads));
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
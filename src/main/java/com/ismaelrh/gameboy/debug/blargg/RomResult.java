@@ -0,0 +1,57 @@
+package com.ismaelrh.gameboy.debug.blargg;
+
+import com.ismaelrh.gameboy.cpu.Const;
+
+/**
+ * Outcome of running a single ROM in the farm.
+ */
+public class RomResult {
+
+    private final String rom;
+    private final String output;
+    private final long cycles;
+    private final long nanos;
+    private final String error;    //null if the ROM ran without exceptions
+
+    public RomResult(String rom, String output, long cycles, long nanos, String error) {
+        this.rom = rom;
+        this.output = output;
+        this.cycles = cycles;
+        this.nanos = nanos;
+        this.error = error;
+    }
+
+    public String getRom() {
+        return rom;
+    }
+
+    /**
+     * Everything sent through the serial port.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isPassed() {
+        return error == null && output.contains("Passed");
+    }
+
+    @Override
+    public String toString() {
+        double seconds = nanos / 1_000_000_000.0;
+        return String.format("%s %s cycles=%d ms=%d (%.1fx real time)%s", rom, isPassed() ? "PASSED" : "FAILED", cycles,
+                nanos / 1_000_000, (cycles * Const.SECONDS_PER_CYCLE) / seconds, error != null ? " error=" + error : "");
+    }
+}
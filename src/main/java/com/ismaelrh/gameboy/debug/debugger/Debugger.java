@@ -4,15 +4,22 @@ import com.ismaelrh.gameboy.cpu.instruction.Instruction;
 import com.ismaelrh.gameboy.cpu.ControlUnit;
 import com.ismaelrh.gameboy.cpu.ExecutionInfo;
 import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.debug.logCheck.LogStatus;
 import com.ismaelrh.gameboy.debug.logCheck.LogStatusProvider;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Only called by the control unit while a controller or a log status provider is attached,
+ * otherwise instructions run with no hook at all.
+ */
 public class Debugger {
 
     private static final Logger log = LogManager.getLogger(ControlUnit.class);
@@ -23,10 +30,15 @@ public class Debugger {
     private ExecutionInfo executionInfo;
     private LogStatusProvider logStatusProvider;
 
-    //Debugger status
-    private final Set<Character> breakpoints = new HashSet<>();
+    //Debugger status. Breakpoints are checked on every instruction, so PC and opcode ones are bits
+    private final BitSet breakpoints = new BitSet(0x10000);
     private final Set<Integer> cycleBreakpoints = new HashSet<>();
+
+    //As typed (hex bytes, like "CB 37" or "3E 05"), to rebuild the masks when one is removed
     private final Set<String> instructionBreakpoints = new HashSet<>();
+    //Dispatch indexes (0x000-0x1FF) with some instruction breakpoint, and the ones that stop whatever the operands are
+    private final long[] opcodeMask = new long[8];
+    private final long[] anyOperandMask = new long[8];
 
 
     private boolean breakpointsEnabled = false;
@@ -39,9 +51,18 @@ public class Debugger {
         this.executionInfo = info;
     }
 
+    /**
+     * Null detaches the current one.
+     */
     public void setController(DebuggerController controller) {
         this.controller = controller;
-        controller.init(memory, registers, this, executionInfo);
+        if (controller != null) {
+            controller.init(memory, registers, this, executionInfo);
+        }
+    }
+
+    public boolean isAttached() {
+        return controller != null || logStatusProvider != null;
     }
 
     public void setLogStatusProvider(LogStatusProvider logStatusProvider) {
@@ -69,24 +90,38 @@ public class Debugger {
             pauseSystem();
         }
 
-        if (breakpointsEnabled && breakpoints.contains(registers.getPC())) {
+        if (!breakpointsEnabled) {
+            return;
+        }
+
+        if (breakpoints.get(registers.getPC())) {
             log.info("Stop at breakpoint " + String.format("%04X", (int) registers.getPC()));
             pauseSystem();
         }
 
-        if (breakpointsEnabled && cycleBreakpoints.contains(executionInfo.getCycles())) {
+        if (!cycleBreakpoints.isEmpty() && cycleBreakpoints.contains(executionInfo.getCycles())) {
             log.info("Stop at breakpoint " + executionInfo.getCycles() + " cycles");
             pauseSystem();
         }
 
-        if (breakpointsEnabled && meetsInstructionCheckpoint(executionInfo.getCurrentInstruction())) {
+        if (meetsInstructionBreakpoint(executionInfo.getCurrentInstruction())) {
             log.info("Stop at instruction " + executionInfo.getCurrentInstruction().getInstrBytes());
             pauseSystem();
         }
 
     }
 
-    private boolean meetsInstructionCheckpoint(Instruction inst) {
+    private boolean meetsInstructionBreakpoint(Instruction inst) {
+        int index = (inst.getDescription().isCb() ? InstDispatchTable.CB_OFFSET : 0) + (inst.getOpcode() & 0xFF);
+        long bit = 1L << index;
+        if ((opcodeMask[index >>> 6] & bit) == 0) {
+            return false;
+        }
+        return (anyOperandMask[index >>> 6] & bit) != 0 || meetsOperandsBreakpoint(inst);
+    }
+
+    //Only for opcodes with a breakpoint on given operands, so building strings here is fine
+    private boolean meetsOperandsBreakpoint(Instruction inst) {
 
         String pattern = "";
         String[] pairs = inst.getInstrBytes().split(" ");
@@ -102,7 +137,7 @@ public class Debugger {
     }
 
     public void addBreakpoint(char address) {
-        this.breakpoints.add(address);
+        this.breakpoints.set(address);
         log.info("Breakpoint added at " + String.format("%04X", (int) address));
     }
 
@@ -111,18 +146,50 @@ public class Debugger {
         log.info("Breakpoint added at " + cycles + " cycles");
     }
 
+    /**
+     * Instruction bytes in hex separated by spaces, matched from the start: "CB" stops on any CB instruction,
+     * "3E" on any ld A,n and "3E 05" only on ld A,05.
+     */
     public void addInstructionBreakpoint(String instruction) {
+        addToOpcodeMasks(instruction);
         this.instructionBreakpoints.add(instruction);
         log.info("Breakpoint added for instruction " + instruction);
     }
 
     public void removeInstructionBreakpoint(String instruction) {
         this.instructionBreakpoints.remove(instruction);
+        Arrays.fill(opcodeMask, 0);
+        Arrays.fill(anyOperandMask, 0);
+        for (String remaining : instructionBreakpoints) {
+            addToOpcodeMasks(remaining);
+        }
         log.info("Breakpoint removed for instruction " + instruction);
     }
 
+    private void addToOpcodeMasks(String instruction) {
+        String[] bytes = instruction.trim().split("\\s+");
+        int first = Integer.parseInt(bytes[0], 16) & 0xFF;
+        if (first == 0xCB && bytes.length == 1) {
+            for (int index = InstDispatchTable.CB_OFFSET; index < 2 * InstDispatchTable.CB_OFFSET; index++) {
+                setBit(opcodeMask, index);
+                setBit(anyOperandMask, index);
+            }
+            return;
+        }
+        int opcodeBytes = first == 0xCB ? 2 : 1;
+        int index = first == 0xCB ? InstDispatchTable.CB_OFFSET + (Integer.parseInt(bytes[1], 16) & 0xFF) : first;
+        setBit(opcodeMask, index);
+        if (bytes.length == opcodeBytes) {
+            setBit(anyOperandMask, index);
+        }
+    }
+
+    private static void setBit(long[] mask, int index) {
+        mask[index >>> 6] |= 1L << index;
+    }
+
     public void removeBreakpoint(char address) {
-        this.breakpoints.remove(address);
+        this.breakpoints.clear(address);
         log.info("Breakpoint removed at " + String.format("%04X", (int) address));
     }
 
@@ -162,8 +229,8 @@ public class Debugger {
     }
 
     private synchronized void pauseSystem() throws InterruptedException {
+        this.isPaused = true;   //Before onStop(), it may resume right away
         controller.onStop();
-        this.isPaused = true;
         while (isPaused) {
             wait();
         }
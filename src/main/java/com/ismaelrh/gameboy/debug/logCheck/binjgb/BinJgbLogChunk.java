@@ -0,0 +1,31 @@
+package com.ismaelrh.gameboy.debug.logCheck.binjgb;
+
+/**
+ * Consecutive instruction lines of a binjgb log, parsed into one array per field.
+ * Offsets are where each line starts in the file, to show the original text when reporting.
+ */
+class BinJgbLogChunk {
+
+    final int size;
+    final char[] af;
+    final char[] bc;
+    final char[] de;
+    final char[] hl;
+    final char[] sp;
+    final char[] pc;
+    final long[] cycles;
+    final long[] offsets;
+
+    BinJgbLogChunk(int size, char[] af, char[] bc, char[] de, char[] hl, char[] sp, char[] pc,
+                   long[] cycles, long[] offsets) {
+        this.size = size;
+        this.af = af;
+        this.bc = bc;
+        this.de = de;
+        this.hl = hl;
+        this.sp = sp;
+        this.pc = pc;
+        this.cycles = cycles;
+        this.offsets = offsets;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ismaelrh.gameboy.debug.logCheck.binjgb;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a binjgb log in chunks, in order, while the next ones are parsed on background threads.
+ * The file is memory mapped and split at line starts, each chunk is parsed on its own without regular
+ * expressions nor objects per line. Lines not starting with "A:" (like the header) are ignored.
+ * Fields have fixed positions in binjgb logs:
+ * A:D8 F:---C BC:0110 DE:c0a5 HL:40a6 SP:fffe PC:0207 (cy: 5360) ppu:+0 |[00]0x0207: 12        ld [de],a
+ */
+public class BinJgbLogParser implements AutoCloseable {
+
+    private final static int CHUNK_SIZE = 8 * 1024 * 1024;
+    private final static int MAX_LINE_LENGTH = 4096;
+    private final static int MIN_LINE_LENGTH = 59;   //Up to the first cycles digit and ')'
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ExecutorService pool;
+    private final int window;
+    private final Deque<Future<BinJgbLogChunk>> pending = new ArrayDeque<>();
+    private long nextChunkStart = 0;
+
+    /**
+     * @param parallelism threads parsing ahead of the reader
+     */
+    public BinJgbLogParser(Path log, int parallelism) throws IOException {
+        this.channel = FileChannel.open(log, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.window = parallelism * 2;
+        this.pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "binjgb-log-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Next chunk in file order, null at the end of the log.
+     */
+    BinJgbLogChunk next() throws IOException {
+        while (pending.size() < window && nextChunkStart < fileSize) {
+            long start = nextChunkStart;
+            long end = Math.min(fileSize, start + CHUNK_SIZE);
+            pending.add(pool.submit(() -> parseChunk(start, end)));
+            nextChunkStart = end;
+        }
+        Future<BinJgbLogChunk> chunk = pending.poll();
+        if (chunk == null) {
+            return null;
+        }
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing log", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Raw text of the line starting at the offset, without line break.
+     */
+    String readLine(long offset) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                Math.min(MAX_LINE_LENGTH, fileSize - offset));
+        StringBuilder line = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            char c = (char) (buffer.get() & 0xFF);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            line.append(c);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        pool.shutdownNow();
+        channel.close();
+    }
+
+    //Lines starting in [start, end), the last one may go past end
+    private BinJgbLogChunk parseChunk(long start, long end) throws IOException {
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(fileSize, end + MAX_LINE_LENGTH);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = buffer.limit();
+        int chunkEnd = (int) (end - mapStart);
+
+        //A line that started in the previous chunk belongs to it
+        int position = (int) (start - mapStart);
+        if (start > 0 && buffer.get(position - 1) != '\n') {
+            position = nextLine(buffer, position, limit);
+        }
+
+        int capacity = CHUNK_SIZE / 64;
+        int size = 0;
+        char[] af = new char[capacity];
+        char[] bc = new char[capacity];
+        char[] de = new char[capacity];
+        char[] hl = new char[capacity];
+        char[] sp = new char[capacity];
+        char[] pc = new char[capacity];
+        long[] cycles = new long[capacity];
+        long[] offsets = new long[capacity];
+
+        while (position < chunkEnd) {
+            int lineStart = position;
+            position = nextLine(buffer, position, limit);
+            if (position - lineStart < MIN_LINE_LENGTH || buffer.get(lineStart) != 'A' || buffer.get(lineStart + 1) != ':') {
+                continue;
+            }
+            if (size == capacity) {
+                capacity *= 2;
+                af = Arrays.copyOf(af, capacity);
+                bc = Arrays.copyOf(bc, capacity);
+                de = Arrays.copyOf(de, capacity);
+                hl = Arrays.copyOf(hl, capacity);
+                sp = Arrays.copyOf(sp, capacity);
+                pc = Arrays.copyOf(pc, capacity);
+                cycles = Arrays.copyOf(cycles, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+            }
+            long offset = mapStart + lineStart;
+            expect(buffer, lineStart + 5, 'F', offset);
+            expect(buffer, lineStart + 12, 'B', offset);
+            expect(buffer, lineStart + 20, 'D', offset);
+            expect(buffer, lineStart + 28, 'H', offset);
+            expect(buffer, lineStart + 36, 'S', offset);
+            expect(buffer, lineStart + 44, 'P', offset);
+            expect(buffer, lineStart + 52, '(', offset);
+
+            af[size] = (char) (hex(buffer, lineStart + 2, 2, offset) << 8 | flags(buffer, lineStart + 7));
+            bc[size] = (char) hex(buffer, lineStart + 15, 4, offset);
+            de[size] = (char) hex(buffer, lineStart + 23, 4, offset);
+            hl[size] = (char) hex(buffer, lineStart + 31, 4, offset);
+            sp[size] = (char) hex(buffer, lineStart + 39, 4, offset);
+            pc[size] = (char) hex(buffer, lineStart + 47, 4, offset);
+            long cycle = 0;
+            for (int i = lineStart + 57; i < position && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+                cycle = cycle * 10 + (buffer.get(i) - '0');
+            }
+            cycles[size] = cycle;
+            offsets[size] = offset;
+            size++;
+        }
+        return new BinJgbLogChunk(size, af, bc, de, hl, sp, pc, cycles, offsets);
+    }
+
+    //Position after the next line break, or the limit
+    private static int nextLine(MappedByteBuffer buffer, int position, int limit) {
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(limit, position + 1);
+    }
+
+    private static void expect(MappedByteBuffer buffer, int position, char expected, long lineOffset) throws IOException {
+        if (buffer.get(position) != expected) {
+            throw new IOException("Not a binjgb log line at byte " + lineOffset);
+        }
+    }
+
+    private static int hex(MappedByteBuffer buffer, int position, int digits, long lineOffset) throws IOException {
+        int value = 0;
+        for (int i = position; i < position + digits; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                throw new IOException("Not a binjgb log line at byte " + lineOffset);
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static int flags(MappedByteBuffer buffer, int position) {
+        int flags = 0;
+        for (int i = position; i < position + 4; i++) {
+            switch (buffer.get(i)) {
+                case 'Z':
+                    flags |= 0x80;
+                    break;
+                case 'N':
+                    flags |= 0x40;
+                    break;
+                case 'H':
+                    flags |= 0x20;
+                    break;
+                case 'C':
+                    flags |= 0x10;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return flags;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ismaelrh.gameboy.debug.logCheck.binjgb;
+
+import com.ismaelrh.gameboy.cpu.instructions.InstDecoder;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
+import com.ismaelrh.gameboy.cpu.instructions.InstHandler;
+import com.ismaelrh.gameboy.debug.trace.TraceReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Writes a binary trace as binjgb log lines, so it can be diffed against a binjgb run:
+ * A:D8 F:---C BC:0110 DE:c0a5 HL:40a6 SP:fffe PC:0207 (cy: 5360) ppu:+0 |[00]0x0207: 12        ld (DE),A
+ * PPU state and ROM bank are not traced, they are always +0 and 00. Mnemonics are ours.
+ * Usage: BinJgbTraceConverter trace output
+ */
+public class BinJgbTraceConverter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final InstDispatchTable dispatchTable = new InstDispatchTable(new InstDecoder());
+    private final StringBuilder line = new StringBuilder(96);
+
+    public void convert(TraceReader trace, Writer out) throws IOException {
+        for (int i = 0; i < trace.size(); i++) {
+            out.write(toLine(trace, i));
+            out.write('\n');
+        }
+    }
+
+    public String toLine(TraceReader trace, int index) {
+        char af = trace.getAF(index);
+        char pc = trace.getPC(index);
+        line.setLength(0);
+        line.append("A:");
+        appendHex(line, af >>> 8, 2, true);
+        line.append(" F:")
+                .append((af & 0x80) != 0 ? 'Z' : '-')
+                .append((af & 0x40) != 0 ? 'N' : '-')
+                .append((af & 0x20) != 0 ? 'H' : '-')
+                .append((af & 0x10) != 0 ? 'C' : '-');
+        line.append(" BC:");
+        appendHex(line, trace.getBC(index), 4, false);
+        line.append(" DE:");
+        appendHex(line, trace.getDE(index), 4, false);
+        line.append(" HL:");
+        appendHex(line, trace.getHL(index), 4, false);
+        line.append(" SP:");
+        appendHex(line, trace.getSP(index), 4, false);
+        line.append(" PC:");
+        appendHex(line, pc, 4, false);
+        line.append(" (cy: ").append(trace.getCycles(index)).append(") ppu:+0 |[00]0x");
+        appendHex(line, pc, 4, false);
+        line.append(": ");
+
+        int bytesStart = line.length();
+        int length = trace.getLength(index);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            appendHex(line, trace.getByte(index, i) & 0xFF, 2, false);
+        }
+        while (line.length() < bytesStart + 10) {
+            line.append(' ');
+        }
+        line.append(getMnemonic(trace, index));
+        return line.toString();
+    }
+
+    private String getMnemonic(TraceReader trace, int index) {
+        int first = trace.getByte(index, 0) & 0xFF;
+        InstHandler handler = first == 0xCB
+                ? dispatchTable.getCbInst(trace.getByte(index, 1))
+                : dispatchTable.getInst(first);
+        return handler != null ? handler.getDescription().getMnemonic() : "???";
+    }
+
+    private static void appendHex(StringBuilder builder, int value, int digits, boolean upperCase) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            char digit = HEX[(value >>> shift) & 0xF];
+            builder.append(upperCase ? Character.toUpperCase(digit) : digit);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 2) {
+            System.err.println("Usage: BinJgbTraceConverter <trace> <output>");
+            System.exit(1);
+        }
+
+        TraceReader trace = TraceReader.open(Paths.get(args[0]));
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.US_ASCII)) {
+            new BinJgbTraceConverter().convert(trace, out);
+        }
+    }
+}
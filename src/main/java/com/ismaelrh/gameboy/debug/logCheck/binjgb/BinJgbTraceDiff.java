@@ -0,0 +1,183 @@
+package com.ismaelrh.gameboy.debug.logCheck.binjgb;
+
+import com.ismaelrh.gameboy.debug.trace.TraceReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compares a dumped trace against a binjgb log of the same program, instruction by instruction, reporting the first
+ * one whose registers (AF, BC, DE, HL, SP, PC) differ, with the ones before it. The log starts at power on and the
+ * trace at its first index (see {@link TraceReader#getFirstIndex()}), earlier log lines are skipped.
+ * Instructions are numbered from power on.
+ * Cycles are not compared, each emulator counts them from a different start.
+ * The log is parsed in the background while the previous chunk is compared, see {@link BinJgbLogParser}.
+ * Usage: BinJgbTraceDiff trace log [contextLines]
+ */
+public class BinJgbTraceDiff {
+
+    private static final Logger log = LogManager.getLogger(BinJgbTraceDiff.class);
+
+    public final static int DEFAULT_CONTEXT_LINES = 5;
+
+    private final int contextLines;
+    private final int parallelism;
+
+    public BinJgbTraceDiff() {
+        this(DEFAULT_CONTEXT_LINES, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BinJgbTraceDiff(int contextLines, int parallelism) {
+        this.contextLines = contextLines;
+        this.parallelism = parallelism;
+    }
+
+    public Result compare(TraceReader trace, Path referenceLog) throws IOException {
+        //The ring may have wrapped, the log starts at power on: skip the lines before the oldest record
+        long firstIndex = trace.getFirstIndex();
+        try (BinJgbLogParser parser = new BinJgbLogParser(referenceLog, parallelism)) {
+            BinJgbLogChunk previous = null;
+            BinJgbLogChunk chunk;
+            long logIndex = 0;  //Of the first line of the chunk
+            int index = 0;
+            while ((chunk = parser.next()) != null) {
+                int start = (int) Math.max(0, Math.min(chunk.size, firstIndex - logIndex));
+                logIndex += chunk.size;
+                int batch = Math.min(chunk.size - start, trace.size() - index);
+                for (int i = 0; i < batch; i++) {
+                    int t = index + i;
+                    int position = start + i;
+                    if (chunk.pc[position] != trace.getPC(t) || chunk.af[position] != flagBits(trace.getAF(t))
+                            || chunk.bc[position] != trace.getBC(t) || chunk.de[position] != trace.getDE(t)
+                            || chunk.hl[position] != trace.getHL(t) || chunk.sp[position] != trace.getSP(t)) {
+                        return new Result(t, firstIndex + t, report(parser, trace, previous, chunk, position, t));
+                    }
+                }
+                index += batch;
+                if (start + batch < chunk.size) {
+                    return new Result(index, -1, "Trace ended at instruction " + (firstIndex + index)
+                            + ", the log goes on");
+                }
+                previous = chunk;
+            }
+            if (logIndex < firstIndex && trace.size() > 0) {
+                return new Result(0, -1, "Log ended after " + logIndex + " instructions, before the first one "
+                        + firstIndex + " of the trace");
+            }
+            String end = index < trace.size() ? "Log ended at instruction " + (firstIndex + index)
+                    + ", the trace goes on" : "Same " + index + " instructions from " + firstIndex;
+            return new Result(index, -1, end);
+        }
+    }
+
+    private String report(BinJgbLogParser parser, TraceReader trace, BinJgbLogChunk previous, BinJgbLogChunk chunk,
+                          int position, int index) throws IOException {
+        BinJgbTraceConverter converter = new BinJgbTraceConverter();
+        long firstIndex = trace.getFirstIndex();
+        StringBuilder report = new StringBuilder();
+        report.append("First divergence at instruction ").append(firstIndex + index)
+                .append(" (").append(differences(trace, chunk, position, index)).append(")\n");
+        for (int back = Math.min(contextLines, index); back >= 0; back--) {
+            int referencePosition = position - back;
+            long offset = -1;
+            if (referencePosition >= 0) {
+                offset = chunk.offsets[referencePosition];
+            } else if (previous != null && previous.size + referencePosition >= 0) {
+                offset = previous.offsets[previous.size + referencePosition];
+            }
+            if (offset < 0) {
+                continue;   //Context longer than the previous chunk, not worth it
+            }
+            String marker = back == 0 ? ">>> " : "    ";
+            long instruction = firstIndex + index - back;
+            report.append(marker).append(instruction).append(" expected ").append(parser.readLine(offset)).append('\n');
+            report.append(marker).append(instruction).append(" got      ")
+                    .append(converter.toLine(trace, index - back)).append('\n');
+        }
+        return report.toString();
+    }
+
+    private static String differences(TraceReader trace, BinJgbLogChunk chunk, int position, int index) {
+        StringBuilder names = new StringBuilder();
+        appendIfDifferent(names, "PC", chunk.pc[position], trace.getPC(index));
+        appendIfDifferent(names, "AF", chunk.af[position], flagBits(trace.getAF(index)));
+        appendIfDifferent(names, "BC", chunk.bc[position], trace.getBC(index));
+        appendIfDifferent(names, "DE", chunk.de[position], trace.getDE(index));
+        appendIfDifferent(names, "HL", chunk.hl[position], trace.getHL(index));
+        appendIfDifferent(names, "SP", chunk.sp[position], trace.getSP(index));
+        return names.toString();
+    }
+
+    //Logs only have the four flags
+    private static char flagBits(char af) {
+        return (char) (af & 0xFFF0);
+    }
+
+    private static void appendIfDifferent(StringBuilder names, String name, char expected, char got) {
+        if (expected != got) {
+            names.append(names.length() > 0 ? ", " : "").append(name);
+        }
+    }
+
+    public static class Result {
+
+        private final int compared;
+        private final long divergence;
+        private final String report;
+
+        Result(int compared, long divergence, String report) {
+            this.compared = compared;
+            this.divergence = divergence;
+            this.report = report;
+        }
+
+        /**
+         * Instructions found equal before the first divergence or the end of either side.
+         */
+        public int getCompared() {
+            return compared;
+        }
+
+        /**
+         * Instruction since power on of the first different one, -1 if none.
+         */
+        public long getDivergence() {
+            return divergence;
+        }
+
+        /**
+         * No divergence in the instructions both have, one of them may be longer.
+         */
+        public boolean isSame() {
+            return divergence < 0;
+        }
+
+        @Override
+        public String toString() {
+            return report;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 2) {
+            System.err.println("Usage: BinJgbTraceDiff <trace> <log> [contextLines]");
+            System.exit(1);
+        }
+
+        int contextLines = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CONTEXT_LINES;
+        TraceReader trace = TraceReader.open(Paths.get(args[0]));
+
+        long startNanos = System.nanoTime();
+        Result result = new BinJgbTraceDiff(contextLines, Runtime.getRuntime().availableProcessors())
+                .compare(trace, Paths.get(args[1]));
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+        log.info(result);
+        log.info(String.format("Compared %d instructions in %.3f s", result.getCompared(), seconds));
+        System.exit(result.isSame() ? 0 : 1);
+    }
+}
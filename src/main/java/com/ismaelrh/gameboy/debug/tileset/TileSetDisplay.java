@@ -3,7 +3,7 @@ package com.ismaelrh.gameboy.debug.tileset;
 
 import com.ismaelrh.gameboy.cpu.memory.Memory;
 import com.ismaelrh.gameboy.gpu.Gpu;
-import com.ismaelrh.gameboy.gpu.TileUtils;
+import com.ismaelrh.gameboy.gpu.TileCache;
 import com.ismaelrh.gameboy.gpu.lcd.swing.DisplayPanel;
 
 import javax.swing.*;
@@ -18,12 +18,11 @@ public class TileSetDisplay {
     private final Memory memory;
     private final Gpu gpu;
 
-    int[] currentScreen = new int[128*128];
+    private final int[] currentScreen = new int[LCD_WIDTH * LCD_HEIGHT];
 
     public TileSetDisplay(Memory memory, Gpu gpu, char startAddress) {
         this.panel = new DisplayPanel(LCD_WIDTH, LCD_HEIGHT, 1);
         this.panel.setPreferredSize(new Dimension(LCD_WIDTH * 1, LCD_HEIGHT * 1));
-        new Thread(this.panel).start();
         this.startAddress = startAddress;
         this.memory = memory;
         this.gpu = gpu;
@@ -34,19 +33,23 @@ public class TileSetDisplay {
     }
 
     public void display() {
+        TileCache tileCache = gpu.getTileCache();
+        byte[] tileIndexes = tileCache.getIndexes();
+        int[] pallete = gpu.getPallete();
+        int firstTile = (startAddress - 0x8000) >> 4;
+
         //Display everything
         for (int line = 0; line < 128; line++) {
             int tileY = line / 8;
             int tileRow = line - tileY * 8;
             for (int tileX = 0; tileX < 16; tileX++) {
-                int totalTileNumber = tileY * 16 + tileX;
-                int tileStartOffset = totalTileNumber * 16;
-                char tileAddress = (char) (startAddress + tileStartOffset);
-                int[] pixels = TileUtils.getRowOfTileColors(memory, gpu.getPallete(), tileAddress, tileRow);
-                for (int pixel : pixels) {
-                    panel.pushPixel(pixel);
+                int rowStart = tileCache.getTileOffset(firstTile + tileY * 16 + tileX) + tileRow * 8;
+                int screenStart = line * LCD_WIDTH + tileX * 8;
+                for (int pixel = 0; pixel < 8; pixel++) {
+                    currentScreen[screenStart + pixel] = pallete[tileIndexes[rowStart + pixel]];
                 }
             }
+            panel.putLine(line, currentScreen, line * LCD_WIDTH);
         }
 
         panel.requestRefresh();
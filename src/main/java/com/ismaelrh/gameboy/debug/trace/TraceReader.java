@@ -0,0 +1,97 @@
+package com.ismaelrh.gameboy.debug.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace dumped by {@link TraceRecorder}, mapping the file instead of loading it.
+ * Records are accessed by index, 0 being the oldest one kept, which is {@link #getFirstIndex()} since start.
+ */
+public class TraceReader {
+
+    private final ByteBuffer records;
+    private final int size;
+    private final long firstIndex;
+
+    public TraceReader(ByteBuffer dump) throws IOException {
+        ByteBuffer in = dump.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < TraceRecorder.HEADER_SIZE || in.getInt() != TraceRecorder.MAGIC) {
+            throw new IOException("Not a trace");
+        }
+        int version = in.getInt();
+        int recordSize = in.getInt();
+        if (version != TraceRecorder.VERSION || recordSize != TraceRecorder.RECORD_SIZE) {
+            throw new IOException("Unsupported trace version " + version + ", expected " + TraceRecorder.VERSION);
+        }
+        this.size = in.getInt();
+        this.firstIndex = in.getLong();
+        if (in.remaining() < (long) size * TraceRecorder.RECORD_SIZE) {
+            throw new IOException("Trace is truncated, expected " + size + " records");
+        }
+        this.records = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static TraceReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TraceReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Instructions executed since start before the oldest record, not 0 when the ring had wrapped.
+     */
+    public long getFirstIndex() {
+        return firstIndex;
+    }
+
+    public long getCycles(int index) {
+        return records.getLong(offset(index));
+    }
+
+    public char getPC(int index) {
+        return records.getChar(offset(index) + 8);
+    }
+
+    public char getAF(int index) {
+        return records.getChar(offset(index) + 10);
+    }
+
+    public char getBC(int index) {
+        return records.getChar(offset(index) + 12);
+    }
+
+    public char getDE(int index) {
+        return records.getChar(offset(index) + 14);
+    }
+
+    public char getHL(int index) {
+        return records.getChar(offset(index) + 16);
+    }
+
+    public char getSP(int index) {
+        return records.getChar(offset(index) + 18);
+    }
+
+    /**
+     * Bytes of the instruction, from 1 to 3.
+     */
+    public int getLength(int index) {
+        return records.get(offset(index) + 23);
+    }
+
+    public byte getByte(int index, int position) {
+        return records.get(offset(index) + 20 + position);
+    }
+
+    private static int offset(int index) {
+        return index * TraceRecorder.RECORD_SIZE;
+    }
+}
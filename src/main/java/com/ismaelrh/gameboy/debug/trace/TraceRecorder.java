@@ -0,0 +1,147 @@
+package com.ismaelrh.gameboy.debug.trace;
+
+import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps the last executed instructions, one fixed size record each, in a ring buffer.
+ * Recording is three array writes and nothing is allocated, so it can be left on all the time
+ * and dumped when something goes wrong. Records are taken before the instruction runs.
+ * <p>
+ * Dump header ({@link #HEADER_SIZE} bytes, little endian): magic, version, record size, records kept (4 each)
+ * and index of the oldest kept record since start (8), so a dump of a ring that wrapped can still be lined up
+ * with logs that start at power on.
+ * <p>
+ * Record ({@link #RECORD_SIZE} bytes, little endian): cycles (8), PC, AF, BC, DE, HL, SP (2 each),
+ * instruction bytes (3, unused ones are 0) and instruction length (1).
+ * In memory that is three longs. A long[] is used instead of a direct buffer: writing to it is several times cheaper,
+ * and the garbage collector never scans primitive arrays anyway.
+ */
+public class TraceRecorder {
+
+    public final static int RECORD_SIZE = 24;
+    public final static int MAX_CAPACITY = 1 << 26;   //1.5GB
+    final static int MAGIC = 0x52544247;     //"GBTR"
+    final static int VERSION = 2;
+    final static int HEADER_SIZE = 24;
+
+    private final Scheduler scheduler;
+    private final static int RECORD_LONGS = RECORD_SIZE / 8;
+    private final static int DUMP_CHUNK_RECORDS = 4096;
+
+    private final long[] records;
+    private final long mask;
+    private long count = 0;
+
+    /**
+     * @param capacity records kept, rounded up to a power of two
+     */
+    public TraceRecorder(Scheduler scheduler, int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Trace capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.scheduler = scheduler;
+        this.mask = size - 1;
+        this.records = new long[size * RECORD_LONGS];
+    }
+
+    /**
+     * Called by the control unit with PC still pointing to the instruction.
+     */
+    public void record(Registers registers, Instruction instruction) {
+        int offset = (int) (count & mask) * RECORD_LONGS;
+        count++;
+        long instBytes;
+        if (instruction.getPrefix() != null) {
+            instBytes = 0xCB | (instruction.getOpcode() & 0xFF) << 8;
+        } else {
+            int length = instruction.getInstBytes();
+            instBytes = (instruction.getOpcode() & 0xFF)
+                    | (length > 1 ? (instruction.getNn1() & 0xFF) << 8 : 0)
+                    | (length > 2 ? (instruction.getNn2() & 0xFF) << 16 : 0);
+        }
+        records[offset] = scheduler.getCycles();
+        records[offset + 1] = registers.getPC()
+                | (long) registers.getAF() << 16
+                | (long) registers.getBC() << 32
+                | (long) registers.getDE() << 48;
+        records[offset + 2] = registers.getHL()
+                | (long) registers.getSP() << 16
+                | instBytes << 32
+                | (long) instruction.getInstBytes() << 56;
+    }
+
+    /**
+     * Instructions recorded since start or the last clear(), including the ones already overwritten.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Records currently kept.
+     */
+    public int size() {
+        return (int) Math.min(count, mask + 1);
+    }
+
+    /**
+     * Index since start or the last clear() of the oldest record kept.
+     */
+    public long getFirstIndex() {
+        return count - size();
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Writes a header and the kept records, oldest first, at the current position of the channel.
+     */
+    public void dump(FileChannel channel) throws IOException {
+        int size = size();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(size).putLong(count - size).flip();
+        writeFully(channel, header);
+
+        ByteBuffer chunk = ByteBuffer.allocateDirect(DUMP_CHUNK_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (long i = count - size; i < count; i++) {
+            int offset = (int) (i & mask) * RECORD_LONGS;
+            chunk.putLong(records[offset]).putLong(records[offset + 1]).putLong(records[offset + 2]);
+            if (!chunk.hasRemaining()) {
+                chunk.flip();
+                writeFully(channel, chunk);
+                chunk.clear();
+            }
+        }
+        chunk.flip();
+        writeFully(channel, chunk);
+    }
+
+    public void dump(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            dump(channel);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
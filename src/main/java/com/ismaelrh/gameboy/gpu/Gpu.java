@@ -3,27 +3,59 @@ package com.ismaelrh.gameboy.gpu;
 import com.ismaelrh.gameboy.gpu.lcd.Lcd;
 import com.ismaelrh.gameboy.cpu.memory.MMIODevice;
 import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.memory.VideoMemoryListener;
+import com.ismaelrh.gameboy.cpu.scheduler.ScheduledDevice;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.state.Snapshotable;
 
-public class Gpu extends MMIODevice {
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class Gpu extends MMIODevice implements ScheduledDevice, Snapshotable, VideoMemoryListener {
 
     private final Memory memory;
     private final Lcd lcd;
+    private final Scheduler scheduler;
+    private final TileCache tileCache;
+    private final SpriteCache spriteCache;
 
-    public Gpu(Memory memory, Lcd lcd) {
+    public Gpu(Memory memory, Lcd lcd, Scheduler scheduler) {
         super((char) 0xFF40, (char) 0xFF79);
         this.memory = memory;
         this.lcd = lcd;
+        this.scheduler = scheduler;
+        this.tileCache = new TileCache(memory);
+        this.spriteCache = new SpriteCache(memory);
+        memory.setVideoMemoryListener(this);
+        this.modeStartCycle = scheduler.getCycles();
+        scheduleNextMode();
     }
 
     private int mode = 2;
-    private int currentClock = 0;
+    private long modeStartCycle;
+    private long nextEventCycle;
     private int line = 0;
 
     private boolean lcdEnabled = true;
     private int tileMap = 0;    //0 or 1
     private int tileSet = 0;    //0 or 1
+    private int windowTileMap = 0;  //0 or 1
+    //Window rows are only counted on lines where it is drawn, so it is not moved down by the lines it skipped
+    private int windowLine = 0;
 
     private final int[] pallete = new int[4];
+    private final int[] objectPallete0 = new int[4];
+    private final int[] objectPallete1 = new int[4];
+
+    public static final int SCREEN_WIDTH = 160;
+    public static final int SCREEN_HEIGHT = 144;
+    private final int[] frameBuffer = new int[SCREEN_WIDTH * SCREEN_HEIGHT];
+
+    //Color indexes of the background in the line being drawn, sprites behind it only show over color 0
+    private final byte[] backgroundIndexes = new byte[SCREEN_WIDTH];
+    //Sprites of the line being drawn, in drawing priority order, and the pixels already taken by one of them
+    private final int[] spriteOrder = new int[SpriteCache.MAX_SPRITES_PER_LINE];
+    private final boolean[] spritePixels = new boolean[SCREEN_WIDTH];
 
     private int gpuIRQ = 0;
 
@@ -31,6 +63,7 @@ public class Gpu extends MMIODevice {
     private final int VRAM_MODE = 3;
     private final int HBLANK_MODE = 0;
     private final int VBLANK_MODE = 1;
+    private final char VIDEO_RAM_START = 0x8000;
     private final char[] TILEMAP_START_ADDRESSES = new char[]{0x9800, 0x9C00};
     private final char[] TILESET_START_ADDRESSES = new char[]{ 0x8800,0x8000};
 
@@ -58,9 +91,29 @@ public class Gpu extends MMIODevice {
     private final char LCD_LYC_ADDRESS = (char) 0xFF45;
     private byte lcd_lyc = (byte) 0x00;
 
+    private final char LCD_WINDOW_Y_ADDRESS = (char) 0xFF4A;
+    private byte windowY = (byte) 0x00;
+
+    private final char LCD_WINDOW_X_ADDRESS = (char) 0xFF4B;
+    private byte windowX = (byte) 0x00;
+
+    private final static char OAM_DMA_ADDRESS = (char) 0xFF46;
+
     private final char LCD_BG_PALLETE_ADDRESS = (char) 0xFF47;
     private byte pallete_reg = (byte) 0x00;
 
+    private final char LCD_OBJ_PALLETE_0_ADDRESS = (char) 0xFF48;
+    private byte objPallete0_reg = (byte) 0x00;
+
+    private final char LCD_OBJ_PALLETE_1_ADDRESS = (char) 0xFF49;
+    private byte objPallete1_reg = (byte) 0x00;
+
+    //OAM DMA register is in the middle of the LCD ones, but it belongs to the DMA
+    @Override
+    public boolean handles(char address) {
+        return address != OAM_DMA_ADDRESS;
+    }
+
     @Override
     public void onWrite(char address, byte data) {
         switch (address) {
@@ -79,10 +132,20 @@ public class Gpu extends MMIODevice {
                 checkLcdEnabled();
                 updateTileMap();
                 updateTileSet();
+                updateWindowTileMap();
+                updateMemoryAccess();
                 break;
             case LCD_BG_PALLETE_ADDRESS:
                 pallete_reg = data;
-                updatePallete();
+                updatePallete(pallete_reg, pallete);
+                break;
+            case LCD_OBJ_PALLETE_0_ADDRESS:
+                objPallete0_reg = data;
+                updatePallete(objPallete0_reg, objectPallete0);
+                break;
+            case LCD_OBJ_PALLETE_1_ADDRESS:
+                objPallete1_reg = data;
+                updatePallete(objPallete1_reg, objectPallete1);
                 break;
             case LCD_SCROLL_Y_ADDRESS:
                 scrollY = data;
@@ -90,15 +153,22 @@ public class Gpu extends MMIODevice {
             case LCD_SCROLL_X_ADDRESS:
                 scrollX = data;
                 break;
+            case LCD_WINDOW_Y_ADDRESS:
+                windowY = data;
+                break;
+            case LCD_WINDOW_X_ADDRESS:
+                windowX = data;
+                break;
             default:
                 //Any other is not written
         }
     }
 
-    private void updatePallete() {
+    //Color 0 of object palletes is transparent, it is never drawn
+    private static void updatePallete(byte register, int[] colors) {
         for (int i = 0; i < 4; i++) {
-            int value = ((pallete_reg & (3 << 2 * i)) >> 2 * i) & 0xFF;
-            pallete[i] = Lcd.RGB_COLORS[value];
+            int value = ((register & (3 << 2 * i)) >> 2 * i) & 0xFF;
+            colors[i] = Lcd.RGB_COLORS[value];
         }
     }
 
@@ -116,10 +186,18 @@ public class Gpu extends MMIODevice {
                 return lcd_control;
             case LCD_BG_PALLETE_ADDRESS:
                 return pallete_reg;
+            case LCD_OBJ_PALLETE_0_ADDRESS:
+                return objPallete0_reg;
+            case LCD_OBJ_PALLETE_1_ADDRESS:
+                return objPallete1_reg;
             case LCD_SCROLL_Y_ADDRESS:
                 return scrollY;
             case LCD_SCROLL_X_ADDRESS:
                 return scrollX;
+            case LCD_WINDOW_Y_ADDRESS:
+                return windowY;
+            case LCD_WINDOW_X_ADDRESS:
+                return windowX;
             default:
                 return (byte) 0xFF;
         }
@@ -130,72 +208,72 @@ public class Gpu extends MMIODevice {
      * Mode 3: 172 cycles, VRAM access
      * Mode 0: 204 cycles, HBlank
      * Mode 1: Vblank mode,  When 143 lines, enter into vblank mode for 10 lines
+     * Each mode boundary is an event for the scheduler, nothing happens between them.
      */
-    public void tick(int cycles) {
-        if (!lcdEnabled) {  //On LCD enabled, this does nothing
-            return;
-        }
-        currentClock += cycles;
+    @Override
+    public long getNextEventCycle() {
+        return nextEventCycle;
+    }
+
+    @Override
+    public void onEvent() {
+        modeStartCycle = nextEventCycle;
         switch (mode) {
             case OAM_MODE:
-                oamMode();
+                setPpuMode(VRAM_MODE);
                 break;
             case VRAM_MODE:
-                vramMode();
+                setPpuMode(HBLANK_MODE);
+                //End of scanline, write it to framebuffer
+                doScanline();
                 break;
             case HBLANK_MODE:
-                hblankMode();
+                hblankEnd();
                 break;
             case VBLANK_MODE:
-                vblankMode();
+                vblankLineEnd();
                 break;
         }
+        scheduleNextMode();
     }
 
-    private void oamMode() {
-        if (currentClock >= OAM_CYCLES) {
-            setPpuMode(VRAM_MODE);
-            currentClock -= OAM_CYCLES;
-        }
-    }
+    private void hblankEnd() {
+        setLine(line + 1);
 
-    private void vramMode() {
-        if (currentClock >= VRAM_CYCLES) {
-            setPpuMode(HBLANK_MODE);
-            currentClock -= VRAM_CYCLES;
-            doScanline();
-            //End of scanline, write it to framebuffer
+        if (line == 144) {  //enter vblank if 143 lines
+            setPpuMode(VBLANK_MODE);
+        } else { //If not 143 lines, return to OAM mode
+            setPpuMode(OAM_MODE);
         }
     }
 
-
-    private void hblankMode() {
-
-        if (currentClock >= HBLANK_CYCLES) {
-            currentClock -= HBLANK_CYCLES;
-
-            setLine(line + 1);
-
-            if (line == 144) {  //enter vblank if 143 lines
-                setPpuMode(VBLANK_MODE);
-                //TODO: Display when entering this mode
-            } else { //If not 143 lines, return to OAM mode
-                setPpuMode(OAM_MODE);
-            }
+    private void vblankLineEnd() {
+        //One vblank line
+        setLine(line + 1);
+        if (line == 153) {    //10 lines
+            setLine(0);
+            windowLine = 0;
+            setPpuMode(OAM_MODE);
         }
-
     }
 
-    private void vblankMode() {
-        //Fire Blank interruption, a new frame was drawn
-
-        if (currentClock >= VBLANK_CYCLES) { //One vblank line
-            currentClock -= VBLANK_CYCLES;
-            setLine(line + 1);
-            if (line == 153) {    //10 lines
-                setLine(0);
-                setPpuMode(OAM_MODE);
-            }
+    private void scheduleNextMode() {
+        if (!lcdEnabled) {
+            nextEventCycle = Long.MAX_VALUE;
+            return;
+        }
+        switch (mode) {
+            case OAM_MODE:
+                nextEventCycle = modeStartCycle + OAM_CYCLES;
+                break;
+            case VRAM_MODE:
+                nextEventCycle = modeStartCycle + VRAM_CYCLES;
+                break;
+            case HBLANK_MODE:
+                nextEventCycle = modeStartCycle + HBLANK_CYCLES;
+                break;
+            default:
+                nextEventCycle = modeStartCycle + VBLANK_CYCLES;
         }
     }
 
@@ -222,6 +300,7 @@ public class Gpu extends MMIODevice {
         lcd_stat = (byte) ((lcd_stat & 0xFC) | byteMode);
 
         checkForStatIRQ();
+        updateMemoryAccess();
 
         if(mode==VBLANK_MODE){
             lcd.flush();
@@ -256,6 +335,17 @@ public class Gpu extends MMIODevice {
     }
 
 
+    /**
+     * CPU cannot access OAM during modes 2 and 3, nor VRAM during mode 3, unless LCD is off.
+     * Memory is told so it can map VRAM pages directly only while they are accessible.
+     */
+    private void updateMemoryAccess() {
+        boolean lcdOn = (lcd_control & 0x80) != 0;
+        int statMode = lcd_stat & 0x03;
+        memory.setOAMAccessible(!lcdOn || (statMode != OAM_MODE && statMode != VRAM_MODE));
+        memory.setVideoRAMAccessible(!lcdOn || statMode != VRAM_MODE);
+    }
+
     private void checkLcdEnabled() {
         if ((lcd_control & 0x80) != 0) {
             enableLcd();
@@ -273,6 +363,15 @@ public class Gpu extends MMIODevice {
         }
     }
 
+    //bit 6
+    private void updateWindowTileMap() {
+        if ((lcd_control & 0x40) != 0) {
+            windowTileMap = 1;
+        } else {
+            windowTileMap = 0;
+        }
+    }
+
     //bit 4
     private void updateTileSet() {
         if ((lcd_control & 0x10) != 0) {
@@ -287,8 +386,10 @@ public class Gpu extends MMIODevice {
             lcd.disableLcd();
             lcdEnabled = false;
             setPpuMode(0);
-            currentClock = 0;
             line = 0;
+            windowLine = 0;
+            scheduleNextMode();
+            scheduler.reschedule();
         }
 
     }
@@ -297,75 +398,245 @@ public class Gpu extends MMIODevice {
         if (!lcdEnabled) {
             lcd.enableLcd();
             lcdEnabled = true;
+            modeStartCycle = scheduler.getCycles();
+            scheduleNextMode();
+            scheduler.reschedule();
         }
 
     }
 
-    private void doScanline() {
+    /**
+     * The frame buffer is not saved: it is output only, and it is complete again after the next frame.
+     * It is cleared on load, so runs from the same snapshot always see the same one.
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) mode);
+        out.putLong(modeStartCycle);
+        out.putLong(nextEventCycle);
+        out.put((byte) line);
+        out.put((byte) (lcdEnabled ? 1 : 0));
+        out.put((byte) gpuIRQ);
+        out.put(lcd_control);
+        out.put(lcd_stat);
+        out.put(scrollY);
+        out.put(scrollX);
+        out.put(lcd_ly);
+        out.put(lcd_lyc);
+        out.put(pallete_reg);
+        out.put(objPallete0_reg);
+        out.put(objPallete1_reg);
+        out.put(windowY);
+        out.put(windowX);
+        out.put((byte) windowLine);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        mode = in.get();
+        modeStartCycle = in.getLong();
+        nextEventCycle = in.getLong();
+        line = in.get() & 0xFF;
+        boolean enabled = in.get() != 0;
+        gpuIRQ = in.get();
+        lcd_control = in.get();
+        lcd_stat = in.get();
+        scrollY = in.get();
+        scrollX = in.get();
+        lcd_ly = in.get();
+        lcd_lyc = in.get();
+        pallete_reg = in.get();
+        objPallete0_reg = in.get();
+        objPallete1_reg = in.get();
+        windowY = in.get();
+        windowX = in.get();
+        windowLine = in.get() & 0xFF;
+
+        if (enabled != lcdEnabled) {
+            if (enabled) {
+                lcd.enableLcd();
+            } else {
+                lcd.disableLcd();
+            }
+            lcdEnabled = enabled;
+        }
+        updateTileMap();
+        updateTileSet();
+        updateWindowTileMap();
+        Arrays.fill(frameBuffer, 0);
+        updatePallete(pallete_reg, pallete);
+        updatePallete(objPallete0_reg, objectPallete0);
+        updatePallete(objPallete1_reg, objectPallete1);
+        updateMemoryAccess();
+    }
+
+    protected void doScanline() {
         //Get the line I'm drawing
         int drawingLine = line;
+        byte[] videoRAM = memory.getVideoRAM();
+        byte[] tileIndexes = tileCache.getIndexes();
 
         //Need to get the tile row and the pixel row we are going to draw,
-        //according to scrollY and drawingLine
-        int fullMapY = drawingLine + (scrollY & 0xFF);
-        int verticalTilePos = fullMapY / 8;
-        int tileRow = fullMapY - verticalTilePos * 8;
+        //according to scrollY and drawingLine. Map is 256x256 and wraps.
+        int mapY = (drawingLine + (scrollY & 0xFF)) & 0xFF;
+        int tileRow = mapY & 0x7;
+        int mapRowStart = TILEMAP_START_ADDRESSES[tileMap] - VIDEO_RAM_START + (mapY >> 3) * 32;
+        int firstTile = (TILESET_START_ADDRESSES[tileSet] - VIDEO_RAM_START) >> 4;
+
+        //Bit 5: window enabled, it covers the background from (WX - 7, WY) to the bottom right corner
+        int windowStart = SCREEN_WIDTH;
+        int windowLeft = (windowX & 0xFF) - 7;
+        if ((lcd_control & 0x20) != 0 && drawingLine >= (windowY & 0xFF) && windowLeft < SCREEN_WIDTH) {
+            windowStart = Math.max(0, windowLeft);
+        }
 
-        if (verticalTilePos >= 32) {
-            verticalTilePos -= 32; //Wrap
+        int mapX = scrollX & 0xFF;
+        int lineStart = drawingLine * SCREEN_WIDTH;
+        int x = 0;
+        while (x < windowStart) {
+            int rowStart = getTileRowStart(videoRAM[mapRowStart + (mapX >> 3)], firstTile, tileRow);
+
+            //At the beginning, start in the middle of the tile
+            int pixel = mapX & 0x7;
+            int pixels = Math.min(8 - pixel, windowStart - x);
+            System.arraycopy(tileIndexes, rowStart + pixel, backgroundIndexes, x, pixels);
+            x += pixels;
+            mapX = ((mapX & 0xF8) + 8) & 0xFF;
         }
 
-        //Need to read the line
-        int[] lineIndexes = readLine(verticalTilePos, tileRow, scrollX);
+        if (windowStart < SCREEN_WIDTH) {
+            //Window map does not scroll, and starts in the middle of its first tile if WX < 7
+            int windowRowStart = TILEMAP_START_ADDRESSES[windowTileMap] - VIDEO_RAM_START + (windowLine >> 3) * 32;
+            int windowTileRow = windowLine & 0x7;
+            int windowColumn = windowStart - windowLeft;
+            while (x < SCREEN_WIDTH) {
+                int rowStart = getTileRowStart(videoRAM[windowRowStart + (windowColumn >> 3)], firstTile,
+                        windowTileRow);
+                int pixel = windowColumn & 0x7;
+                int pixels = Math.min(8 - pixel, SCREEN_WIDTH - x);
+                System.arraycopy(tileIndexes, rowStart + pixel, backgroundIndexes, x, pixels);
+                x += pixels;
+                windowColumn += pixels;
+            }
+            windowLine++;
+        }
 
-        //Transform indexes to emulator colors
-        int[] lineColors = TileUtils.applyPalleteToIndexes(lineIndexes, pallete);
+        for (x = 0; x < SCREEN_WIDTH; x++) {
+            frameBuffer[lineStart + x] = pallete[backgroundIndexes[x]];
+        }
 
-        //Push data to screen!
-        for (int lineColor : lineColors) {
-            lcd.putPixel(lineColor);
+        //Bit 1: sprites enabled, bit 2: 8x16 sprites
+        if ((lcd_control & 0x02) != 0) {
+            int spriteHeight = (lcd_control & 0x04) != 0 ? 16 : 8;
+            int count = spriteCache.getCount(drawingLine, spriteHeight);
+            if (count > 0) {
+                drawSprites(drawingLine, count, spriteHeight);
+            }
         }
 
+        //Push data to screen!
+        lcd.putScanline(drawingLine, frameBuffer, lineStart);
     }
 
-    private int[] readLine(int verticalTilePos, int tileRow, int scrollX) {
-        //Need to read 160 pixels (5 tiles, but can be in the middle)
-        int[] line = new int[160];
+    //Position in the tile cache of the row of the tile in a map entry, with the tile set of LCDC bit 4
+    private int getTileRowStart(byte mapEntry, int firstTile, int tileRow) {
+        int tileIndex = tileSet == 1 ? mapEntry & 0xFF : (mapEntry + 128) & 0xFF;
+        return tileCache.getTileOffset(firstTile + tileIndex) + tileRow * 8;
+    }
 
-        int horizontalTilePos = (scrollX&0xFF) / 8;
-        int pixelsOffset = (scrollX&0xFF) - horizontalTilePos * 8;
-        int readPixels = 0;
+    /**
+     * Draws the sprites of the line over the background already in the frame buffer.
+     * When they overlap, the one with the lowest X is on top, or the first in OAM if same X. The pixel on top
+     * is taken even if it is hidden by the background, so sprites below it never show there.
+     */
+    private void drawSprites(int drawingLine, int count, int spriteHeight) {
+        byte[] oam = memory.getSpriteRAM();
+        byte[] lineSprites = spriteCache.getSprites();
+        byte[] tileIndexes = tileCache.getIndexes();
+        int lineStart = drawingLine * SCREEN_WIDTH;
+
+        //Insertion sort by X, they come in OAM order and it is stable
+        int first = drawingLine * SpriteCache.MAX_SPRITES_PER_LINE;
+        for (int i = 0; i < count; i++) {
+            int sprite = lineSprites[first + i];
+            int x = oam[(sprite << 2) + 1] & 0xFF;
+            int j = i;
+            while (j > 0 && (oam[(spriteOrder[j - 1] << 2) + 1] & 0xFF) > x) {
+                spriteOrder[j] = spriteOrder[j - 1];
+                j--;
+            }
+            spriteOrder[j] = sprite;
+        }
 
-        while (readPixels < 160) {
-            char tileAddress = getTileAddress(verticalTilePos, horizontalTilePos);
-            int[] data = TileUtils.getRowOfTileIndexes(memory, tileAddress, tileRow);
-            int startIdx = readPixels == 0 ? pixelsOffset : 0;  //At the beginning, include the offset
-            int length = readPixels + 8 > 160 ? 160 - readPixels : 8;   //For the end, limit
-            System.arraycopy(data, startIdx, line, readPixels, length);
-            readPixels += length;
-            horizontalTilePos += 1;
+        Arrays.fill(spritePixels, false);
+        for (int i = 0; i < count; i++) {
+            int entry = spriteOrder[i] << 2;
+            int row = drawingLine - ((oam[entry] & 0xFF) - 16);
+            int left = (oam[entry + 1] & 0xFF) - 8;
+            int tile = oam[entry + 2] & 0xFF;
+            //Bit 7: behind background colors 1-3, bit 6: Y flip, bit 5: X flip, bit 4: OBP1
+            int attributes = oam[entry + 3];
+            if ((attributes & 0x40) != 0) {
+                row = spriteHeight - 1 - row;
+            }
+            if (spriteHeight == 16) {
+                tile = (tile & 0xFE) | (row >> 3);
+            }
+            //Sprites always use the tiles at 0x8000, unsigned
+            int rowStart = tileCache.getTileOffset(tile) + (row & 0x7) * 8;
+            int[] colors = (attributes & 0x10) != 0 ? objectPallete1 : objectPallete0;
+            boolean behindBackground = (attributes & 0x80) != 0;
+            boolean flipX = (attributes & 0x20) != 0;
+
+            for (int pixel = Math.max(0, -left); pixel < 8 && left + pixel < SCREEN_WIDTH; pixel++) {
+                int x = left + pixel;
+                int index = tileIndexes[rowStart + (flipX ? 7 - pixel : pixel)];
+                if (index == 0 || spritePixels[x]) {
+                    continue;
+                }
+                spritePixels[x] = true;
+                if (!behindBackground || backgroundIndexes[x] == 0) {
+                    frameBuffer[lineStart + x] = colors[index];
+                }
+            }
         }
-        return line;
     }
 
-    private char getTileAddress(int verticalTilePos, int horizontalTilePos) {
-        //Normalized, from 0 to 255
-        int tileIndex = getRelativeTileIndex(verticalTilePos, horizontalTilePos);
+    /**
+     * Last rendered frame, 160x144 RGB colors in row order. Reused between frames.
+     */
+    /**
+     * Decoded tiles of video RAM, kept up to date on every write.
+     */
+    public TileCache getTileCache() {
+        return tileCache;
+    }
 
-        //Each tile is 16bytes long, so retrieve the corresponding tile
-        return (char) (TILESET_START_ADDRESSES[tileSet] + tileIndex * 16);
+    /**
+     * Sprites of each line, kept up to date on every OAM write.
+     */
+    public SpriteCache getSpriteCache() {
+        return spriteCache;
     }
 
-    //Normalized, from 0 to 255
-    private int getRelativeTileIndex(int verticalTilePos, int horizontalTilePos) {
-        char mapAddress = TILEMAP_START_ADDRESSES[tileMap];
-        int tileIndexAddress = 32 * verticalTilePos + horizontalTilePos;
-        byte relativeIndex = memory.read((char) (mapAddress + tileIndexAddress));
-        if (tileSet == 1) {
-            return relativeIndex & 0xFF;
-        } else {
-            return (relativeIndex + 128) & 0xFF;
-        }
+    @Override
+    public void onTileDataWrite(int videoRAMOffset) {
+        tileCache.invalidate(videoRAMOffset);
+    }
+
+    @Override
+    public void onOAMWrite() {
+        spriteCache.invalidate();
+    }
+
+    @Override
+    public void onVideoMemoryReset() {
+        tileCache.invalidateAll();
+        spriteCache.invalidate();
+    }
+
+    public int[] getFrameBuffer() {
+        return frameBuffer;
     }
 
     public int[] getPallete() {
@@ -0,0 +1,65 @@
+package com.ismaelrh.gameboy.gpu;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+
+import java.util.Arrays;
+
+/**
+ * Sprites shown on each visible line, as the OAM scan picks them: at most 10, in OAM order, whatever their X.
+ * The GPU invalidates it when Memory reports an OAM write, and all lines are selected again the next time one is asked for,
+ * so a line without sprites costs a single lookup.
+ */
+public class SpriteCache {
+
+    public final static int SPRITES = 40;
+    public final static int MAX_SPRITES_PER_LINE = 10;
+
+    private final Memory memory;
+    private final byte[] sprites = new byte[Gpu.SCREEN_HEIGHT * MAX_SPRITES_PER_LINE];
+    private final int[] counts = new int[Gpu.SCREEN_HEIGHT];
+    private boolean dirty = true;
+    private int height = 8;
+
+    public SpriteCache(Memory memory) {
+        this.memory = memory;
+    }
+
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Number of sprites on the given line (0 to 143), selecting them again if OAM or their height changed.
+     * Their numbers (0 to 39) are in getSprites(), from line * MAX_SPRITES_PER_LINE.
+     *
+     * @param spriteHeight 8 or 16
+     */
+    public int getCount(int line, int spriteHeight) {
+        if (dirty || spriteHeight != height) {
+            select(spriteHeight);
+        }
+        return counts[line];
+    }
+
+    public byte[] getSprites() {
+        return sprites;
+    }
+
+    private void select(int spriteHeight) {
+        byte[] oam = memory.getSpriteRAM();
+        Arrays.fill(counts, 0);
+        for (int sprite = 0; sprite < SPRITES; sprite++) {
+            //Y is the position plus 16, so sprites can be partially or fully above the screen
+            int top = (oam[sprite << 2] & 0xFF) - 16;
+            int end = Math.min(Gpu.SCREEN_HEIGHT, top + spriteHeight);
+            for (int line = Math.max(0, top); line < end; line++) {
+                if (counts[line] < MAX_SPRITES_PER_LINE) {
+                    sprites[line * MAX_SPRITES_PER_LINE + counts[line]] = (byte) sprite;
+                    counts[line]++;
+                }
+            }
+        }
+        height = spriteHeight;
+        dirty = false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ismaelrh.gameboy.gpu;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+
+import java.util.Arrays;
+
+/**
+ * The 384 tiles of the tile data area (0x8000 - 0x97FF), decoded to color indexes (0,1,2,3).
+ * Each tile takes 64 consecutive bytes, row by row. The GPU invalidates a tile when Memory reports a write to
+ * any of its 16 bytes, and it is decoded again the next time it is used.
+ */
+public class TileCache {
+
+    public final static int TILES = 384;
+    public final static int TILE_DATA_SIZE_BYTES = TILES * 16;
+
+    private final Memory memory;
+    private final byte[] indexes = new byte[TILES * 64];
+    private final boolean[] dirty = new boolean[TILES];
+
+    public TileCache(Memory memory) {
+        this.memory = memory;
+        invalidateAll();
+    }
+
+    /**
+     * @param videoRAMOffset offset of the written byte from 0x8000, must be inside tile data area
+     */
+    public void invalidate(int videoRAMOffset) {
+        dirty[videoRAMOffset >> 4] = true;
+    }
+
+    public void invalidateAll() {
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Returns the position in getIndexes() of the first pixel of the given tile (0 to 383),
+     * decoding it before if it changed.
+     */
+    public int getTileOffset(int tile) {
+        if (dirty[tile]) {
+            decode(tile);
+        }
+        return tile << 6;
+    }
+
+    public byte[] getIndexes() {
+        return indexes;
+    }
+
+    private void decode(int tile) {
+        byte[] videoRAM = memory.getVideoRAM();
+        int address = tile << 4;
+        int offset = tile << 6;
+        for (int row = 0; row < 8; row++) {
+            int packedRow = TileUtils.decodeRow(videoRAM[address], videoRAM[address + 1]);
+            for (int pixel = 0; pixel < 8; pixel++) {
+                indexes[offset++] = (byte) TileUtils.getPackedIndex(packedRow, pixel);
+            }
+            address += 2;
+        }
+        dirty[tile] = false;
+    }
+}
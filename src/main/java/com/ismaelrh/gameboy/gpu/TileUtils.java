@@ -4,6 +4,33 @@ import com.ismaelrh.gameboy.cpu.memory.Memory;
 
 public class TileUtils {
 
+    //Spreads the 8 bits of a byte into the even bits of a char: b7..b0 -> 0b7 0b6 ... 0b0
+    private static final char[] INTERLEAVE = new char[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            int spread = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((b & (1 << bit)) != 0) {
+                    spread |= 1 << (bit * 2);
+                }
+            }
+            INTERLEAVE[b] = (char) spread;
+        }
+    }
+
+    /**
+     * Decodes a 2BPP tile row into 8 packed color indexes (2 bits each), leftmost pixel in bits 15-14.
+     * Get pixel i (0 to 7) with getPackedIndex.
+     */
+    public static int decodeRow(byte lowByte, byte highByte) {
+        return INTERLEAVE[lowByte & 0xFF] | (INTERLEAVE[highByte & 0xFF] << 1);
+    }
+
+    public static int getPackedIndex(int packedRow, int pixel) {
+        return (packedRow >> (14 - (pixel << 1))) & 0x3;
+    }
+
     /**
      * A row of a tile is 2 bytes, in 2BPP format.
      * Returns an array of rgb colors to display, already transformed by the pallete.
@@ -21,13 +48,10 @@ public class TileUtils {
         byte lowByte = memory.read(startAddress,true);
         byte highByte = memory.read((char) (startAddress + 1),true);
 
+        int packedRow = decodeRow(lowByte, highByte);
         int[] colorIndexes = new int[8];
-        for (int i = 0; i < 8; i++) { //Compute each color
-            byte mask = (byte) (1 << (7 - i)); //from left to right
-            int c = 0;
-            if ((lowByte & mask) != 0) c += 1;
-            if ((highByte & mask) != 0) c += 2;
-            colorIndexes[i] = c;
+        for (int i = 0; i < 8; i++) { //Compute each color, from left to right
+            colorIndexes[i] = getPackedIndex(packedRow, i);
         }
         return colorIndexes;
     }
@@ -10,10 +10,14 @@ public abstract class Lcd {
             rgbToInt(0, 0, 0)
     };
 
-    public abstract void putPixel(int color); //0,1,2,3
+    /**
+     * Receives a full line of 160 RGB colors, starting at pixels[offset].
+     * The array is reused by the caller, so it must be copied before returning.
+     */
+    public abstract void putScanline(int line, int[] pixels, int offset);
 
 
-    //Flush to actual screen
+    //Flush to actual screen, swapping the buffer being filled with the one being displayed
     public abstract void flush();
 
     public abstract void disableLcd();
@@ -0,0 +1,23 @@
+package com.ismaelrh.gameboy.gpu.lcd;
+
+/**
+ * Lcd that discards everything, used to run the emulator without a display.
+ */
+public class NullLcd extends Lcd {
+
+    @Override
+    public void putScanline(int line, int[] pixels, int offset) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void disableLcd() {
+    }
+
+    @Override
+    public void enableLcd() {
+    }
+}
@@ -5,41 +5,50 @@ import com.ismaelrh.gameboy.gpu.lcd.Lcd;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class DisplayPanel extends JPanel implements Runnable {
+/**
+ * Triple buffered panel. The emulator thread draws into the back image while Swing paints the front one,
+ * and the last completed frame waits in the middle one. Buffers are exchanged with an atomic swap,
+ * so neither thread ever blocks on the other.
+ */
+public class DisplayPanel extends JPanel {
+
+    private final static int FRESH_FRAME = 0x4;    //Set on ready index when it has not been painted yet
+    private final static int INDEX_MASK = 0x3;
 
     private final int LCD_WIDTH;
     private final int LCD_HEIGHT;
     private final int SCALE;
 
-    private final BufferedImage img;
-    private final int[] rgb;
-    private int[] frozenRgb;
-    private int pixel = 0;
-    private boolean enabled = true;
-    private boolean doRefresh = false;
+    private final BufferedImage[] images = new BufferedImage[3];
+    private final int[][] pixels = new int[3][];
+
+    private int backIndex = 0;   //Only used by the emulator thread
+    private int frontIndex = 1;  //Only used by the paint thread
+    private final AtomicInteger readyIndex = new AtomicInteger(2);
+    private volatile boolean enabled = true;
 
     public DisplayPanel(int width, int height, int scale) {
         super();
         this.LCD_WIDTH = width;
         this.LCD_HEIGHT = height;
         this.SCALE = scale;
-        rgb = new int[LCD_WIDTH * LCD_HEIGHT];
-        frozenRgb = new int[LCD_WIDTH * LCD_HEIGHT];
-        img = new BufferedImage(LCD_WIDTH, LCD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
-
-        //Initialize to white
-        Arrays.fill(rgb, Lcd.RGB_COLORS[0]);
-    }
-
-    public void pushPixel(int color) {
-        synchronized(this){
-            rgb[pixel] = color;
-            pixel++;
-            pixel = pixel % rgb.length;
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new BufferedImage(LCD_WIDTH, LCD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+            pixels[i] = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+            //Initialize to white
+            Arrays.fill(pixels[i], Lcd.RGB_COLORS[0]);
         }
+    }
 
+    /**
+     * Copies a full line into the back image. Only the emulator thread writes it.
+     */
+    public void putLine(int line, int[] linePixels, int offset) {
+        System.arraycopy(linePixels, offset, pixels[backIndex], line * LCD_WIDTH, LCD_WIDTH);
     }
 
     protected void enableLcd() {
@@ -50,14 +59,22 @@ public class DisplayPanel extends JPanel implements Runnable {
         enabled = false;
     }
 
+    /**
+     * Publishes the back image as the last completed frame and asks Swing to paint it.
+     */
     public void requestRefresh() {
-        synchronized (this) {
-            doRefresh = true;
-            pixel = 0;
-            frozenRgb = Arrays.copyOf(rgb, rgb.length);
-            notifyAll();
-        }
+        backIndex = readyIndex.getAndSet(backIndex | FRESH_FRAME) & INDEX_MASK;
+        repaint();
+    }
 
+    /**
+     * Image to paint: the last completed frame if there is a new one, otherwise the one painted before.
+     */
+    protected BufferedImage acquireFrontImage() {
+        if ((readyIndex.get() & FRESH_FRAME) != 0) {
+            frontIndex = readyIndex.getAndSet(frontIndex) & INDEX_MASK;
+        }
+        return images[frontIndex];
     }
 
     @Override
@@ -66,40 +83,11 @@ public class DisplayPanel extends JPanel implements Runnable {
 
         Graphics2D g2d = (Graphics2D) g.create();
         if (enabled) {
-            g2d.drawImage(img, 0, 0, LCD_WIDTH * SCALE, LCD_HEIGHT * SCALE, null);
+            g2d.drawImage(acquireFrontImage(), 0, 0, LCD_WIDTH * SCALE, LCD_HEIGHT * SCALE, null);
         } else {
             g2d.setColor(new Color(Lcd.RGB_COLORS[0]));   //Put to white
             g2d.fillRect(0, 0, LCD_WIDTH * SCALE, LCD_HEIGHT * SCALE);
         }
         g2d.dispose();
     }
-
-    private void flushFrame() {
-        img.setRGB(0, 0, LCD_WIDTH, LCD_HEIGHT, frozenRgb, 0, LCD_WIDTH);
-        validate();
-        repaint();
-    }
-
-    @Override
-    public void run() {
-        while (true) {
-            //Wait until refresh, or any action, is asked for
-            synchronized (this) {
-                try {
-                    wait();
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-
-            //If refresh, then flush the frame
-            if (doRefresh) {
-                flushFrame();
-                synchronized (this) {
-                    doRefresh = false;
-                }
-            }
-
-        }
-    }
-}
\ No newline at end of file
+}
@@ -17,12 +17,11 @@ public class SwingLcd extends Lcd {
     public SwingLcd(int scale) {
         this.panel = new DisplayPanel(LCD_WIDTH, LCD_HEIGHT, scale);
         this.panel.setPreferredSize(new Dimension(LCD_WIDTH * scale, LCD_HEIGHT * scale));
-        new Thread(this.panel).start();
     }
 
     @Override
-    public void putPixel(int rgbColor) {
-        this.panel.pushPixel(rgbColor);
+    public void putScanline(int line, int[] pixels, int offset) {
+        this.panel.putLine(line, pixels, offset);
     }
 
     @Override
@@ -0,0 +1,207 @@
+package com.ismaelrh.gameboy.movie;
+
+import com.ismaelrh.gameboy.cpu.cartridge.RomImage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Joypad input of a run, to replay it exactly: the ROM it was recorded with (SHA-1), the snapshot it starts from,
+ * the buttons held on each joypad frame as runs of equal frames, and the hash of the frame buffer after each
+ * emulated frame, to check the replay gives the same picture.
+ * File format, big endian:
+ * magic, version, ROM SHA-1 (20 bytes), first joypad frame (long), snapshot length and bytes,
+ * run count and runs (buttons byte, frames as unsigned LEB128), frame count and frame hashes (long).
+ */
+public class Movie {
+
+    private final static int MAGIC = 0x47424D56;    //"GBMV"
+    private final static int VERSION = 1;
+    public final static int ROM_HASH_SIZE = 20;
+
+    private final byte[] romHash;
+    private final long firstFrame;
+    private final byte[] startState;
+    private final byte[] runButtons;
+    private final int[] runFrames;
+    private final long[] frameHashes;
+
+    /**
+     * @param firstFrame joypad frame (see Joypad.getFrame()) of the first input
+     * @param runButtons button mask of each run
+     * @param runFrames  frames of each run
+     */
+    public Movie(byte[] romHash, long firstFrame, byte[] startState, byte[] runButtons, int[] runFrames,
+                 long[] frameHashes) {
+        if (romHash.length != ROM_HASH_SIZE || runButtons.length != runFrames.length) {
+            throw new IllegalArgumentException("Invalid movie, hash of " + romHash.length + " bytes, "
+                    + runButtons.length + " buttons for " + runFrames.length + " runs");
+        }
+        this.romHash = romHash.clone();
+        this.firstFrame = firstFrame;
+        this.startState = startState.clone();
+        this.runButtons = runButtons.clone();
+        this.runFrames = runFrames.clone();
+        this.frameHashes = frameHashes.clone();
+    }
+
+    public byte[] getRomHash() {
+        return romHash.clone();
+    }
+
+    public long getFirstFrame() {
+        return firstFrame;
+    }
+
+    /**
+     * Emulator snapshot to load before replaying.
+     */
+    public ByteBuffer getStartState() {
+        return ByteBuffer.wrap(startState).asReadOnlyBuffer();
+    }
+
+    public int getRuns() {
+        return runFrames.length;
+    }
+
+    public int getRunButtons(int run) {
+        return runButtons[run] & 0xFF;
+    }
+
+    public int getRunFrames(int run) {
+        return runFrames[run];
+    }
+
+    /**
+     * Emulated frames recorded, each with its frame buffer hash.
+     */
+    public int getFrames() {
+        return frameHashes.length;
+    }
+
+    public long getFrameHash(int frame) {
+        return frameHashes[frame];
+    }
+
+    /**
+     * 64 bits FNV-1a over the pixels, cheap enough to be computed every frame.
+     */
+    public static long hashFrame(int[] frameBuffer) {
+        long hash = 0xCBF29CE484222325L;
+        for (int pixel : frameBuffer) {
+            hash = (hash ^ pixel) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    public static byte[] hashRom(String romPath) throws Exception {
+        ByteBuffer rom = RomImage.map(romPath);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(rom.duplicate());    //The mapped ROM is shared, its position must not move
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    public boolean isForRom(byte[] hash) {
+        return Arrays.equals(romHash, hash);
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(romHash);
+            out.writeLong(firstFrame);
+            out.writeInt(startState.length);
+            out.write(startState);
+            out.writeInt(runFrames.length);
+            for (int run = 0; run < runFrames.length; run++) {
+                out.writeByte(runButtons[run]);
+                writeUnsigned(out, runFrames[run]);
+            }
+            out.writeInt(frameHashes.length);
+            for (long hash : frameHashes) {
+                out.writeLong(hash);
+            }
+        }
+    }
+
+    /**
+     * Lengths are checked against what is left of the file, a truncated or corrupt movie fails with an
+     * IOException instead of allocating whatever its lengths say.
+     */
+    public static Movie read(Path file) throws IOException {
+        //Small enough to be read at once, and then available() is exactly what is left
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (in.available() < 8 || in.readInt() != MAGIC) {
+                throw new IOException("Not a movie");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported movie version " + version + ", expected " + VERSION);
+            }
+            byte[] romHash = new byte[ROM_HASH_SIZE];
+            in.readFully(romHash);
+            long firstFrame = in.readLong();
+            byte[] startState = new byte[readLength(in, 1, "snapshot")];
+            in.readFully(startState);
+            int runs = readLength(in, 2, "run count");
+            byte[] runButtons = new byte[runs];
+            int[] runFrames = new int[runs];
+            for (int run = 0; run < runs; run++) {
+                runButtons[run] = in.readByte();
+                runFrames[run] = readUnsigned(in);
+            }
+            long[] frameHashes = new long[readLength(in, 8, "frame count")];
+            for (int frame = 0; frame < frameHashes.length; frame++) {
+                frameHashes[frame] = in.readLong();
+            }
+            return new Movie(romHash, firstFrame, startState, runButtons, runFrames, frameHashes);
+        } catch (EOFException e) {
+            throw new IOException("Invalid movie, file is truncated", e);
+        }
+    }
+
+    //Count of elements of at least the given size that have to fit in the rest of the file
+    private static int readLength(DataInputStream in, int elementSize, String name) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || (long) length * elementSize > in.available()) {
+            throw new IOException("Invalid movie, " + name + " " + length + " does not fit in the file");
+        }
+        return length;
+    }
+
+    //7 bits per byte, lowest first, high bit set when more follow
+    private static void writeUnsigned(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readUnsigned(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid run length in movie");
+    }
+}
@@ -0,0 +1,135 @@
+package com.ismaelrh.gameboy.movie;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.JoypadInput;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Paths;
+
+/**
+ * Replays a movie as fast as possible, checking the frame buffer hash after every frame.
+ * Any difference means the emulator does not behave as when it was recorded.
+ * Usage: MoviePlayer rom movie
+ */
+public class MoviePlayer implements JoypadInput {
+
+    private static final Logger log = LogManager.getLogger(MoviePlayer.class);
+
+    private final Movie movie;
+    private int run = 0;
+    private long runStart;      //Joypad frame where the current run starts
+
+    public MoviePlayer(Movie movie) {
+        this.movie = movie;
+        this.runStart = movie.getFirstFrame();
+    }
+
+    /**
+     * Emulator with the ROM inserted and the start snapshot loaded. Battery RAM is only kept in memory,
+     * the save file next to the ROM is neither read nor written.
+     */
+    public static Emulator createEmulator(String romPath, Movie movie) throws Exception {
+        if (!movie.isForRom(Movie.hashRom(romPath))) {
+            throw new Exception("Movie was not recorded with ROM " + romPath);
+        }
+        Emulator emulator = new Emulator();
+        emulator.insertCartridge(CartridgeFactory.load(romPath, null));
+        emulator.loadState(movie.getStartState());
+        return emulator;
+    }
+
+    /**
+     * Runs all the frames of the movie from the current state, stopping at the first different one.
+     */
+    public Result replay(Emulator emulator) throws Exception {
+        JoypadInput previousInput = emulator.getJoypad().getInput();
+        emulator.getJoypad().setInput(this);
+        try {
+            for (int frame = 0; frame < movie.getFrames(); frame++) {
+                emulator.runFrames(1);
+                if (Movie.hashFrame(emulator.getGpu().getFrameBuffer()) != movie.getFrameHash(frame)) {
+                    return new Result(frame + 1, frame);
+                }
+            }
+            return new Result(movie.getFrames(), -1);
+        } finally {
+            emulator.getJoypad().setInput(previousInput);
+        }
+    }
+
+    /**
+     * Frames go one by one, so runs are followed with a cursor. No buttons after the last run.
+     */
+    @Override
+    public int getButtons(long frame, int previous) {
+        if (frame < runStart) {
+            run = 0;
+            runStart = movie.getFirstFrame();
+        }
+        while (run < movie.getRuns() && frame >= runStart + movie.getRunFrames(run)) {
+            runStart += movie.getRunFrames(run);
+            run++;
+        }
+        return run < movie.getRuns() && frame >= runStart ? movie.getRunButtons(run) : 0;
+    }
+
+    public static class Result {
+
+        private final int frames;
+        private final int divergence;
+
+        Result(int frames, int divergence) {
+            this.frames = frames;
+            this.divergence = divergence;
+        }
+
+        /**
+         * Frames replayed, including the different one if any.
+         */
+        public int getFrames() {
+            return frames;
+        }
+
+        /**
+         * First frame with a different picture, -1 if none.
+         */
+        public int getDivergence() {
+            return divergence;
+        }
+
+        public boolean isSame() {
+            return divergence < 0;
+        }
+
+        @Override
+        public String toString() {
+            return isSame() ? "Same " + frames + " frames" : "Frame " + divergence + " is different";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 2) {
+            System.err.println("Usage: MoviePlayer <rom> <movie>");
+            System.exit(1);
+        }
+
+        Movie movie = Movie.read(Paths.get(args[1]));
+        Emulator emulator = createEmulator(args[0], movie);
+        Result result;
+        try {
+            long startNanos = System.nanoTime();
+            result = new MoviePlayer(movie).replay(emulator);
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+            log.info(result);
+            log.info(String.format("Replayed %d frames in %.3f s, %.1f frames/s",
+                    result.getFrames(), seconds, result.getFrames() / seconds));
+        } finally {
+            emulator.close();
+        }
+        System.exit(result.isSame() ? 0 : 1);
+    }
+}
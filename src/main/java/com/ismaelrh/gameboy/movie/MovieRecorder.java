@@ -0,0 +1,85 @@
+package com.ismaelrh.gameboy.movie;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.Joypad;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.JoypadInput;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Records the buttons held on every joypad frame, whatever they come from (queued events or another input),
+ * and the frame buffer hash after every emulated frame. Usage:
+ * start(), then runFrames(1) and onFrame() for every frame, then finish() for the movie.
+ * The emulator reloads its own snapshot on start, so it starts from exactly the same machine as the replay.
+ */
+public class MovieRecorder implements JoypadInput {
+
+    private final Emulator emulator;
+    private final byte[] romHash;
+    private JoypadInput source;
+
+    private byte[] startState;
+    private long firstFrame;
+    private byte[] runButtons = new byte[64];
+    private int[] runFrames = new int[64];
+    private int runs = 0;
+    private long[] frameHashes = new long[1024];
+    private int frames = 0;
+
+    public MovieRecorder(Emulator emulator, byte[] romHash) {
+        this.emulator = emulator;
+        this.romHash = romHash.clone();
+    }
+
+    /**
+     * Takes the start snapshot and becomes the joypad input, asking the previous one if any.
+     */
+    public void start() throws Exception {
+        ByteBuffer state = emulator.saveState();
+        startState = new byte[state.remaining()];
+        state.get(startState);
+        emulator.loadState(ByteBuffer.wrap(startState));
+
+        Joypad joypad = emulator.getJoypad();
+        firstFrame = joypad.getFrame() + 1;
+        source = joypad.getInput();
+        joypad.setInput(this);
+    }
+
+    @Override
+    public int getButtons(long frame, int previous) {
+        int buttons = source != null ? source.getButtons(frame, previous) : previous;
+        if (runs > 0 && runButtons[runs - 1] == (byte) buttons) {
+            runFrames[runs - 1]++;
+        } else {
+            if (runs == runFrames.length) {
+                runButtons = Arrays.copyOf(runButtons, runs * 2);
+                runFrames = Arrays.copyOf(runFrames, runs * 2);
+            }
+            runButtons[runs] = (byte) buttons;
+            runFrames[runs] = 1;
+            runs++;
+        }
+        return buttons;
+    }
+
+    /**
+     * To be called after every emulated frame.
+     */
+    public void onFrame() {
+        if (frames == frameHashes.length) {
+            frameHashes = Arrays.copyOf(frameHashes, frames * 2);
+        }
+        frameHashes[frames++] = Movie.hashFrame(emulator.getGpu().getFrameBuffer());
+    }
+
+    /**
+     * Stops recording, giving the joypad back to the previous input.
+     */
+    public Movie finish() {
+        emulator.getJoypad().setInput(source);
+        return new Movie(romHash, firstFrame, startState, Arrays.copyOf(runButtons, runs),
+                Arrays.copyOf(runFrames, runs), Arrays.copyOf(frameHashes, frames));
+    }
+}
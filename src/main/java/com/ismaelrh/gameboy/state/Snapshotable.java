@@ -0,0 +1,18 @@
+package com.ismaelrh.gameboy.state;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Component whose state is part of a save state.
+ * Only the state is written, never the wiring between components: a snapshot is loaded
+ * into an already built machine. Cycles are absolute, as given by the scheduler.
+ */
+public interface Snapshotable {
+
+    void saveState(ByteBuffer out);
+
+    /**
+     * Reads exactly what saveState wrote, in the same order.
+     */
+    void loadState(ByteBuffer in);
+}
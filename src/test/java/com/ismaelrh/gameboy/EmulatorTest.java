@@ -0,0 +1,238 @@
+package com.ismaelrh.gameboy;
+
+import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.Button;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EmulatorTest {
+
+    private Emulator emulator;
+    private FakeCartridge cartridge;
+
+    @Before
+    public void setUp() {
+        emulator = new Emulator();
+        cartridge = new FakeCartridge();   //All NOPs
+        emulator.insertCartridge(cartridge);
+    }
+
+    @Test
+    public void runCycles() throws Exception {
+        long cycles = emulator.runCycles(1000);
+        assertEquals(1000, cycles);
+        assertEquals(1000, emulator.getCycles());
+        assertEquals((char) (0x100 + 250), emulator.getRegisters().getPC());
+    }
+
+    @Test
+    public void runCyclesCanOverrunLastInstruction() throws Exception {
+        cartridge.write((char) 0x100, (byte) 0x18);  //JR -2, 12 cycles
+        cartridge.write((char) 0x101, (byte) 0xFE);
+        long cycles = emulator.runCycles(100);
+        assertEquals(108, cycles);
+        assertEquals((char) 0x100, emulator.getRegisters().getPC());
+    }
+
+    @Test
+    public void runFrames() throws Exception {
+        cartridge.write((char) 0x100, (byte) 0x18);  //JR -2
+        cartridge.write((char) 0x101, (byte) 0xFE);
+        long cycles = emulator.runFrames(2);
+        assertTrue(cycles >= 2 * Const.LCD_CYCLES_PER_FRAME);
+        assertTrue(cycles < 2 * Const.LCD_CYCLES_PER_FRAME + 12);
+    }
+
+    @Test
+    public void runUntil() throws Exception {
+        long cycles = emulator.runUntil(e -> e.getRegisters().getPC() == 0x0105);
+        assertEquals(20, cycles);
+        assertEquals((char) 0x0105, emulator.getRegisters().getPC());
+    }
+
+    @Test
+    public void runUntilStopsAtMaxCycles() throws Exception {
+        cartridge.write((char) 0x100, (byte) 0x18);  //JR -2
+        cartridge.write((char) 0x101, (byte) 0xFE);
+        long cycles = emulator.runUntil(e -> false, 120);
+        assertEquals(120, cycles);
+    }
+
+    @Test
+    public void loadStateContinuesAtTheSameCycle() throws Exception {
+        //Real ROM, so timer, GPU and MBC are in use
+        String rom = "src/test/resources/blargg/cpu/02.gb";
+        Emulator original = new Emulator();
+        original.insertCartridge(CartridgeFactory.load(rom, null));
+        original.runFrames(30);
+        ByteBuffer state = original.saveState();
+        long savedCycles = original.getCycles();
+
+        original.runFrames(20);
+
+        Emulator restored = new Emulator();
+        restored.insertCartridge(CartridgeFactory.load(rom, null));
+        restored.loadState(state);
+        assertEquals(savedCycles, restored.getCycles());
+
+        restored.runFrames(20);
+        assertEquals(original.getCycles(), restored.getCycles());
+        assertEquals(original.getRegisters(), restored.getRegisters());
+        assertArrayEquals(original.getGpu().getFrameBuffer(), restored.getGpu().getFrameBuffer());
+        for (char address = 0xC000; address < 0xE000; address++) {
+            assertEquals(original.getMemory().read(address), restored.getMemory().read(address));
+        }
+    }
+
+    @Test
+    public void loadStateKeepsTapsHeldForTheFrame() throws Exception {
+        emulator.getJoypad().press(Button.A);
+        emulator.getJoypad().release(Button.A);
+        emulator.runFrames(1);
+        assertEquals(Button.A.getMask(), emulator.getJoypad().getButtons());
+        ByteBuffer state = emulator.saveState();
+
+        Emulator restored = new Emulator();
+        restored.insertCartridge(cartridge);
+        restored.loadState(state);
+        assertEquals(Button.A.getMask(), restored.getJoypad().getButtons());
+        restored.runFrames(1);
+        emulator.runFrames(1);
+        assertEquals(0, restored.getJoypad().getButtons());
+        assertEquals(emulator.saveState(), restored.saveState());
+    }
+
+    @Test
+    public void loadStateRejectsOtherVersion() throws Exception {
+        ByteBuffer state = emulator.saveState();
+        state.putInt(4, Emulator.STATE_VERSION + 1);
+        try {
+            emulator.loadState(state);
+            fail();
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+    @Test
+    public void truncatedStateLeavesTheMachineUnchanged() throws Exception {
+        String rom = "src/test/resources/blargg/cpu/02.gb";
+        Emulator other = new Emulator();
+        other.insertCartridge(CartridgeFactory.load(rom, null));
+        other.runFrames(10);
+        ByteBuffer truncated = other.saveState();
+        truncated.limit(truncated.limit() / 2);
+
+        Emulator target = new Emulator();
+        target.insertCartridge(CartridgeFactory.load(rom, null));
+        target.runFrames(3);
+        ByteBuffer before = target.saveState();
+        try {
+            target.loadState(truncated);
+            fail();
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("truncated"));
+        }
+        assertEquals(before, target.saveState());
+
+        //Still runs as if nothing happened
+        Emulator reference = new Emulator();
+        reference.insertCartridge(CartridgeFactory.load(rom, null));
+        reference.runFrames(3);
+        target.runFrames(5);
+        reference.runFrames(5);
+        assertEquals(reference.saveState(), target.saveState());
+    }
+
+    @Test(expected = Exception.class)
+    public void loadStateRejectsOtherCartridge() throws Exception {
+        ByteBuffer state = emulator.saveState();
+        Emulator other = new Emulator();
+        other.insertCartridge(CartridgeFactory.load("src/test/resources/blargg/cpu/02.gb", null));
+        other.loadState(state);
+    }
+
+    @Test
+    public void saveAndLoadStateTakeLessThanOneMillisecond() throws Exception {
+        emulator.runFrames(1);
+        ByteBuffer state = ByteBuffer.allocate(Emulator.MAX_STATE_SIZE);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 200; i++) {
+            long start = System.nanoTime();
+            state.clear();
+            emulator.saveState(state);
+            state.flip();
+            emulator.loadState(state);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertTrue("Took " + best + "ns", best < 1_000_000);
+    }
+
+    @Test
+    public void haltWakesUpAtTheSameCycleWhenSkipped() throws Exception {
+        //xor a; ldh (0F),a (nothing pending); ld a,1; ldh (FF),a (vblank enabled); halt; nop; jr -2
+        assertTrue(assertSameAsStepByStep(0x0109, 0xAF, 0xE0, 0x0F, 0x3E, 0x01, 0xE0, 0xFF, 0x76, 0x00, 0x18, 0xFE) > 1000);
+    }
+
+    @Test
+    public void haltIsSkippedWithRequestsThatAreNotEnabled() throws Exception {
+        //ld a,4; ldh (0F),a (timer pending); ld a,1; ldh (FF),a (only vblank enabled); halt; nop; jr -2
+        assertTrue(assertSameAsStepByStep(0x010A, 0x3E, 0x04, 0xE0, 0x0F, 0x3E, 0x01, 0xE0, 0xFF, 0x76, 0x00, 0x18, 0xFE) > 1000);
+    }
+
+    @Test
+    public void busyWaitOnLYEndsAtTheSameCycleWhenSkipped() throws Exception {
+        //ldh a,(44); cp 90; jr nz,-6; jr -2
+        assertTrue(assertSameAsStepByStep(0x0106, 0xF0, 0x44, 0xFE, 0x90, 0x20, 0xFA, 0x18, 0xFE) > 1000);
+    }
+
+    @Test
+    public void busyWaitOnDIVIsNotSkipped() throws Exception {
+        //ldh a,(04); cp 80; jr nz,-6; jr -2
+        assertEquals(0, assertSameAsStepByStep(0x0106, 0xF0, 0x04, 0xFE, 0x80, 0x20, 0xFA, 0x18, 0xFE));
+    }
+
+    @Test
+    public void skippingStopsAtTheCycleLimit() throws Exception {
+        cartridge.write((char) 0x100, (byte) 0x76);  //HALT, nothing enabled to wake it up
+        assertEquals(1000, emulator.runCycles(1000));
+        assertEquals(1000, emulator.runUntil(e -> false, 1000));
+    }
+
+    //Runs the program with skipping and one instruction at a time, both have to stop at the same cycle
+    //Returns how many steps were saved
+    private int assertSameAsStepByStep(int untilPC, int... program) throws Exception {
+        for (int i = 0; i < program.length; i++) {
+            cartridge.write((char) (0x100 + i), (byte) program[i]);
+        }
+        int steps = 0;
+        while (emulator.getRegisters().getPC() != untilPC && emulator.getCycles() < 2 * Const.LCD_CYCLES_PER_FRAME) {
+            emulator.step();
+            steps++;
+        }
+
+        Emulator reference = new Emulator();
+        reference.insertCartridge(cartridge);
+        int referenceSteps = 0;
+        while (reference.getRegisters().getPC() != untilPC && reference.getCycles() < 2 * Const.LCD_CYCLES_PER_FRAME) {
+            int instCycles = reference.getControlUnit().runInstruction();
+            reference.getControlUnit().checkInterruptions();
+            reference.getScheduler().advance(instCycles);
+            referenceSteps++;
+        }
+
+        assertEquals((char) untilPC, emulator.getRegisters().getPC());
+        assertEquals(reference.getCycles(), emulator.getCycles());
+        assertEquals(reference.getRegisters(), emulator.getRegisters());
+        return referenceSteps - steps;
+    }
+}
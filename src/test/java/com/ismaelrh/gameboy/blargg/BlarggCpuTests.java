@@ -1,6 +1,47 @@
 package com.ismaelrh.gameboy.blargg;
 
+import com.ismaelrh.gameboy.debug.blargg.RomFarm;
+import com.ismaelrh.gameboy.debug.blargg.RomResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every blargg cpu_instrs ROM unthrottled until it reports a result through the serial port.
+ * Cycles and wall time of each ROM are logged, so this is also a performance regression check.
+ */
+@RunWith(Parameterized.class)
 public class BlarggCpuTests {
 
+    private static final Logger log = LogManager.getLogger(BlarggCpuTests.class);
+
+    private static final String ROMS_DIR = "src/test/resources/blargg/cpu";
+    private static final long MAX_CYCLES = 150_000_000L;   //Slowest one takes around 74M
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> roms() throws IOException {
+        return RomFarm.findRoms(ROMS_DIR).stream()
+                .map(rom -> new Object[]{rom})
+                .collect(Collectors.toList());
+    }
+
+    @Parameterized.Parameter
+    public String rom;
 
+    @Test
+    public void passes() {
+        RomResult result = new RomFarm(MAX_CYCLES).runRom(rom);
+        log.info(result);
+        assertNull(result.getError());
+        assertTrue(result.getOutput(), result.isPassed());
+    }
 }
@@ -0,0 +1,145 @@
+package com.ismaelrh.gameboy.cpu;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.instructions.InstDecoder;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BlockCacheTest {
+
+    private Memory memory;
+    private FakeCartridge cartridge;
+    private BlockCache blockCache;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        cartridge = new FakeCartridge();
+        memory.insertCartridge(cartridge);
+        blockCache = new BlockCache(memory, new InstDispatchTable(new InstDecoder()));
+    }
+
+    @Test
+    public void blockEndsAfterJump() {
+        load(0x0100, 0x00, 0x3E, 0x05, 0xCB, 0x37, 0x18, 0xF9, 0x00);   //nop, ld a,5, swap a, jr -7, nop
+        BasicBlock block = blockCache.getBlock((char) 0x0100);
+        assertEquals(4, block.size());
+        assertEquals((char) 0x0103, block.getAddress(2));
+        assertEquals8(0x05, block.getInstruction(1).getImmediate8b());
+        assertEquals(2, block.getInstruction(2).getInstBytes());
+        assertEquals((char) 0x0105, block.getAddress(3));
+        assertSame(block, blockCache.getBlock((char) 0x0100));
+    }
+
+    @Test
+    public void blockEndsAtPageEnd() {
+        load(0x01FD, 0x00, 0x00, 0x3E, 0x05);   //ld a,5 is split between two pages
+        BasicBlock block = blockCache.getBlock((char) 0x01FD);
+        assertEquals(2, block.size());
+        assertNull(blockCache.getBlock((char) 0x01FF));
+    }
+
+    @Test
+    public void undefinedOpcodeIsLeftToInterpreter() {
+        load(0x0100, 0x00, 0xD3);
+        assertEquals(1, blockCache.getBlock((char) 0x0100).size());
+        assertNull(blockCache.getBlock((char) 0x0101));
+    }
+
+    @Test
+    public void videoRAMIsNotCached() {
+        assertNull(blockCache.getBlock((char) 0x8000));
+        assertNull(blockCache.getBlock((char) 0xE000));   //Echo RAM is cached as internal RAM only
+    }
+
+    @Test
+    public void writingToPageInvalidatesItsBlocks() {
+        memory.write((char) 0xC010, (byte) 0x00);
+        BasicBlock block = blockCache.getBlock((char) 0xC010);
+        BasicBlock otherPage = blockCache.getBlock((char) 0xC110);
+        assertTrue(block.isValid(memory));
+
+        memory.write((char) 0xC0FF, (byte) 0x00);
+        assertFalse(block.isValid(memory));
+        assertTrue(otherPage.isValid(memory));
+
+        //Through echo RAM too
+        block = blockCache.getBlock((char) 0xC010);
+        memory.write((char) 0xE000, (byte) 0x00);
+        assertFalse(block.isValid(memory));
+    }
+
+    @Test
+    public void selfModifyingCodeRunsTheNewInstruction() throws Exception {
+        Registers registers = new Registers();
+        ControlUnit controlUnit = new ControlUnit(registers, memory);
+        //ld a,5; ld (C006),a; ld b,0 (immediate becomes 5); jr -2
+        int[] program = {0x3E, 0x05, 0xEA, 0x06, 0xC0, 0x06, 0x00, 0x18, 0xFE};
+        for (int i = 0; i < program.length; i++) {
+            memory.write((char) (0xC000 + i), (byte) program[i]);
+        }
+        registers.setPC((char) 0xC000);
+        for (int i = 0; i < 4; i++) {
+            controlUnit.runInstruction();
+        }
+        assertEquals8(0x05, registers.getB());
+        assertEquals((char) 0xC007, registers.getPC());
+    }
+
+    @Test
+    public void bankSwitchesKeepRomBlocks() {
+        BasicBlock block = blockCache.getBlock((char) 0x2010);
+        memory.write((char) 0x2000, (byte) 0x01);   //MBC bank register, in the page of the block
+        assertTrue(block.isValid(memory));
+        assertSame(block, blockCache.getBlock((char) 0x2010));
+    }
+
+    @Test
+    public void onlyWritingHighRAMCodeInvalidatesIt() {
+        memory.write((char) 0xFF80, (byte) 0x00);
+        memory.write((char) 0xFF81, (byte) 0xC9);   //nop; ret
+        BasicBlock block = blockCache.getBlock((char) 0xFF80);
+        assertEquals(2, block.size());
+
+        memory.write((char) 0xFF40, (byte) 0x91);   //LCDC
+        memory.write((char) 0xFF0F, (byte) 0x01);   //IF
+        memory.write((char) 0xFFFF, (byte) 0x01);   //IE
+        memory.write((char) 0xFF90, (byte) 0x12);   //Variable next to the code
+        assertTrue(block.isValid(memory));
+
+        memory.write((char) 0xFF81, (byte) 0xC9);
+        assertFalse(block.isValid(memory));
+    }
+
+    @Test
+    public void stateLoadInvalidatesEverything() throws Exception {
+        Emulator emulator = new Emulator();
+        emulator.insertCartridge(cartridge);
+        BlockCache cache = new BlockCache(emulator.getMemory(), new InstDispatchTable(new InstDecoder()));
+        BasicBlock romBlock = cache.getBlock((char) 0x0100);
+        BasicBlock ramBlock = cache.getBlock((char) 0xC000);
+        ByteBuffer state = emulator.saveState();
+
+        emulator.loadState(state);
+        assertFalse(romBlock.isValid(emulator.getMemory()));
+        assertFalse(ramBlock.isValid(emulator.getMemory()));
+    }
+
+    private void load(int address, int... bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            cartridge.write((char) (address + i), (byte) bytes[i]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CartridgeFactoryTest {
+
+    @Test
+    public void createsCartridgeByType() throws Exception {
+        assertTrue(CartridgeFactory.load(RomFiles.create(0x00, 2, 0).getPath()) instanceof BasicCartridge);
+        assertTrue(CartridgeFactory.load(RomFiles.create(0x03, 4, 2).getPath()) instanceof Mbc1Cartridge);
+        assertTrue(CartridgeFactory.load(RomFiles.create(0x13, 4, 3).getPath()) instanceof Mbc3Cartridge);
+        assertTrue(CartridgeFactory.load(RomFiles.create(0x1B, 4, 4).getPath()) instanceof Mbc5Cartridge);
+    }
+
+    @Test(expected = Exception.class)
+    public void unsupportedTypeIsRejected() throws Exception {
+        CartridgeFactory.load(RomFiles.create(0xFC, 2, 0).getPath());
+    }
+
+    @Test
+    public void parsesHeader() throws Exception {
+        File file = RomFiles.create(0x03, 8, 3);
+        CartridgeHeader header = new CartridgeHeader(RomImage.map(file.getPath()));
+        assertEquals("TESTROM", header.getTitle());
+        assertEquals(0x03, header.getType());
+        assertEquals(8 * 0x4000, header.getRomSize());
+        assertEquals(32768, header.getRamSize());
+        assertEquals("TESTROM", CartridgeFactory.load(file.getPath()).getName());
+    }
+
+    @Test
+    public void romIsMappedOncePerFile() throws Exception {
+        File file = RomFiles.create(0x01, 4, 0);
+        assertSame(RomImage.map(file.getPath()), RomImage.map(file.getPath()));
+    }
+
+    @Test
+    public void unusedRomIsNotKeptMapped() throws Exception {
+        File file = RomFiles.create(0x01, 4, 0);
+        WeakReference<ByteBuffer> rom = new WeakReference<>(RomImage.map(file.getPath()));
+        for (int i = 0; i < 50 && rom.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(rom.get());
+        assertEquals(4 * 0x4000, RomImage.map(file.getPath()).capacity());
+    }
+
+    @Test
+    public void basicCartridgeIgnoresWrites() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x00, 2, 0).getPath());
+        cartridge.write((char) 0x2000, (byte) 0x01);
+        assertEquals(1, RomFiles.readBank(cartridge, 0x4000));
+        assertFalse(cartridge.hasRam());
+    }
+
+    @Test
+    public void romWithBatteryRamKeepsItsRam() throws Exception {
+        File rom = RomFiles.create(0x09, 2, 2);   //ROM + RAM + Battery, 8KB
+        Cartridge cartridge = CartridgeFactory.load(rom.getPath());
+        assertTrue(cartridge.hasRam());
+        cartridge.writeRam((char) 0xBFFF, (byte) 0x5A);
+        cartridge.flush();
+
+        Cartridge reloaded = CartridgeFactory.load(rom.getPath());
+        assertEquals(0x5A, reloaded.readRam((char) 0xBFFF) & 0xFF);
+    }
+}
@@ -0,0 +1,143 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalRamTest {
+
+    @Test
+    public void allocatedRamIsNotBatteryBacked() {
+        ExternalRam ram = ExternalRam.allocate(2048);
+        assertEquals(2048, ram.size());
+        assertFalse(ram.isBatteryBacked());
+        ram.write(2047, (byte) 0x12);
+        assertEquals8(0x12, ram.read(2047));
+        ram.flush();
+    }
+
+    @Test
+    public void stateRoundTrip() {
+        ExternalRam ram = ExternalRam.allocate(8192);
+        ram.write(0, (byte) 0x01);
+        ram.write(8191, (byte) 0x7F);
+        ByteBuffer state = ByteBuffer.allocate(8192 + 4);
+        ram.saveState(state);
+        state.flip();
+
+        ExternalRam restored = ExternalRam.allocate(8192);
+        restored.loadState(state);
+        assertFalse(state.hasRemaining());
+        assertEquals8(0x01, restored.read(0));
+        assertEquals8(0x7F, restored.read(8191));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stateOfOtherSizeIsRejected() {
+        ByteBuffer state = ByteBuffer.allocate(2048 + 4);
+        ExternalRam.allocate(2048).saveState(state);
+        state.flip();
+        ExternalRam.allocate(8192).loadState(state);
+    }
+
+    @Test
+    public void mappedRamIsWrittenToSaveFile() throws Exception {
+        File save = File.createTempFile("ram", ".sav");
+        save.deleteOnExit();
+
+        ExternalRam ram = ExternalRam.map(save.getPath(), 8192);
+        assertTrue(ram.isBatteryBacked());
+        assertEquals(8192, save.length());
+        ram.write(0x100, (byte) 0x42);
+        ram.flush();
+
+        byte[] content = Files.readAllBytes(save.toPath());
+        assertEquals8(0x42, content[0x100]);
+    }
+
+    @Test
+    public void mappedRamKeepsExistingContent() throws Exception {
+        File save = File.createTempFile("ram", ".sav");
+        save.deleteOnExit();
+        byte[] content = new byte[2048];
+        content[7] = 0x77;
+        Files.write(save.toPath(), content);
+
+        //Extended to the new size
+        ExternalRam ram = ExternalRam.map(save.getPath(), 32768);
+        assertEquals8(0x77, ram.read(7));
+        assertEquals(32768, save.length());
+    }
+
+    @Test
+    public void onlyChangedRamIsFlushed() throws Exception {
+        SaveFlusher flusher = new SaveFlusher();
+        ExternalRam first = ExternalRam.map(tempSave().getPath(), 8192, flusher);
+        ExternalRam second = ExternalRam.map(tempSave().getPath(), 8192, flusher);
+        first.write(0x10, (byte) 0x01);
+        second.write(0x10, (byte) 0x02);
+        assertEquals(2, flusher.flushAll());
+        assertEquals(0, flusher.flushAll());
+
+        second.write(0x11, (byte) 0x03);
+        assertEquals(1, flusher.flushAll());
+    }
+
+    @Test
+    public void closedRamIsFlushedAndNoLongerFlushedInBackground() throws Exception {
+        SaveFlusher flusher = new SaveFlusher();
+        File save = tempSave();
+        ExternalRam ram = ExternalRam.map(save.getPath(), 8192, flusher);
+        ram.write(0x100, (byte) 0x31);
+
+        ram.close();
+        assertEquals8(0x31, Files.readAllBytes(save.toPath())[0x100]);
+        ram.write(0x101, (byte) 0x32);
+        assertEquals(0, flusher.flushAll());
+    }
+
+    @Test
+    public void batteryRamSurvivesReload() throws Exception {
+        File rom = RomFiles.create(0x1B, 4, 3);   //MBC5 + RAM + Battery
+        Cartridge cartridge = CartridgeFactory.load(rom.getPath());
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        cartridge.write((char) 0x4000, (byte) 0x02);
+        cartridge.writeRam((char) 0xA010, (byte) 0x99);
+        cartridge.flush();
+
+        Cartridge reloaded = CartridgeFactory.load(rom.getPath());
+        reloaded.write((char) 0x0000, (byte) 0x0A);
+        reloaded.write((char) 0x4000, (byte) 0x02);
+        assertEquals8(0x99, reloaded.readRam((char) 0xA010));
+        assertTrue(new File(CartridgeFactory.getDefaultSavePath(rom.getPath())).isFile());
+    }
+
+    @Test
+    public void ramWithoutBatteryIsNotSaved() throws Exception {
+        File rom = RomFiles.create(0x1A, 4, 3);   //MBC5 + RAM
+        Cartridge cartridge = CartridgeFactory.load(rom.getPath());
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        cartridge.writeRam((char) 0xA010, (byte) 0x99);
+        cartridge.flush();
+        assertFalse(new File(CartridgeFactory.getDefaultSavePath(rom.getPath())).exists());
+    }
+
+    @Test
+    public void defaultSavePath() {
+        assertEquals("/roms/game.sav", CartridgeFactory.getDefaultSavePath("/roms/game.gb"));
+        assertEquals("/roms.d/game.sav", CartridgeFactory.getDefaultSavePath("/roms.d/game"));
+    }
+
+    private static File tempSave() throws Exception {
+        File save = File.createTempFile("ram", ".sav");
+        save.deleteOnExit();
+        return save;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class Mbc1CartridgeTest {
+
+    @Test
+    public void romBankSwitching() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x01, 128, 0).getPath());
+        assertEquals(0, RomFiles.readBank(cartridge, 0x0000));
+        assertEquals(1, RomFiles.readBank(cartridge, 0x4000));
+
+        cartridge.write((char) 0x2000, (byte) 0x05);
+        assertEquals(5, RomFiles.readBank(cartridge, 0x4000));
+
+        //Bank 0 selects 1
+        cartridge.write((char) 0x2000, (byte) 0x00);
+        assertEquals(1, RomFiles.readBank(cartridge, 0x4000));
+
+        //Upper bits
+        cartridge.write((char) 0x2000, (byte) 0x03);
+        cartridge.write((char) 0x4000, (byte) 0x02);
+        assertEquals(0x43, RomFiles.readBank(cartridge, 0x4000));
+        assertEquals(0, RomFiles.readBank(cartridge, 0x0000));
+
+        //Advanced mode also maps upper bits at 0x0000
+        cartridge.write((char) 0x6000, (byte) 0x01);
+        assertEquals(0x40, RomFiles.readBank(cartridge, 0x0000));
+    }
+
+    @Test
+    public void bankStateIsRestored() throws Exception {
+        File rom = RomFiles.create(0x03, 128, 0x03);
+        Cartridge cartridge = CartridgeFactory.load(rom.getPath());
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        cartridge.write((char) 0x2000, (byte) 0x03);
+        cartridge.write((char) 0x4000, (byte) 0x01);
+        cartridge.write((char) 0x6000, (byte) 0x01);
+        cartridge.writeRam((char) 0xA000, (byte) 0x55);
+
+        ByteBuffer state = ByteBuffer.allocate(64 * 1024);
+        cartridge.saveState(state);
+        state.flip();
+
+        Cartridge restored = CartridgeFactory.load(rom.getPath(), null);
+        restored.loadState(state);
+        assertFalse(state.hasRemaining());
+        assertEquals(0x23, RomFiles.readBank(restored, 0x4000));
+        assertEquals(0x20, RomFiles.readBank(restored, 0x0000));
+        assertEquals8(0x55, restored.readRam((char) 0xA000));
+
+        //Registers are restored too, not only the mapped banks
+        restored.write((char) 0x4000, (byte) 0x02);
+        assertEquals(0x43, RomFiles.readBank(restored, 0x4000));
+    }
+
+    @Test
+    public void bankWrapsAroundRomSize() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x01, 4, 0).getPath());
+        cartridge.write((char) 0x2000, (byte) 0x06);
+        assertEquals(2, RomFiles.readBank(cartridge, 0x4000));
+    }
+
+    @Test
+    public void ramEnableAndBanking() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x03, 4, 3).getPath());
+        assertEquals8(0xFF, cartridge.readRam((char) 0xA000));
+        cartridge.writeRam((char) 0xA000, (byte) 0x12);
+        assertEquals8(0xFF, cartridge.readRam((char) 0xA000));
+
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        cartridge.writeRam((char) 0xA000, (byte) 0x12);
+        assertEquals8(0x12, cartridge.readRam((char) 0xA000));
+
+        //RAM banks only switch on advanced mode
+        cartridge.write((char) 0x4000, (byte) 0x01);
+        assertEquals8(0x12, cartridge.readRam((char) 0xA000));
+        cartridge.write((char) 0x6000, (byte) 0x01);
+        assertEquals8(0x00, cartridge.readRam((char) 0xA000));
+        cartridge.writeRam((char) 0xA000, (byte) 0x34);
+        cartridge.write((char) 0x4000, (byte) 0x00);
+        assertEquals8(0x12, cartridge.readRam((char) 0xA000));
+
+        cartridge.write((char) 0x0000, (byte) 0x00);
+        assertEquals8(0xFF, cartridge.readRam((char) 0xA000));
+    }
+
+    @Test
+    public void noRamIsLeftToMemory() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x01, 2, 0).getPath());
+        assertFalse(cartridge.hasRam());
+    }
+}
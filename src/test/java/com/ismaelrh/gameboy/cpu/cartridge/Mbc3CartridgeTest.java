@@ -0,0 +1,51 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.junit.Test;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+
+public class Mbc3CartridgeTest {
+
+    @Test
+    public void romBankSwitching() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x11, 128, 0).getPath());
+        assertEquals(1, RomFiles.readBank(cartridge, 0x4000));
+        cartridge.write((char) 0x2000, (byte) 0x7F);
+        assertEquals(0x7F, RomFiles.readBank(cartridge, 0x4000));
+        cartridge.write((char) 0x2000, (byte) 0x00);
+        assertEquals(1, RomFiles.readBank(cartridge, 0x4000));
+        assertEquals(0, RomFiles.readBank(cartridge, 0x0000));
+    }
+
+    @Test
+    public void ramBanks() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x13, 4, 3).getPath());
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        for (int bank = 0; bank < 4; bank++) {
+            cartridge.write((char) 0x4000, (byte) bank);
+            cartridge.writeRam((char) 0xBFFF, (byte) (0x10 + bank));
+        }
+        for (int bank = 0; bank < 4; bank++) {
+            cartridge.write((char) 0x4000, (byte) bank);
+            assertEquals8(0x10 + bank, cartridge.readRam((char) 0xBFFF));
+        }
+    }
+
+    @Test
+    public void rtcRegistersAreLatched() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x10, 4, 3).getPath());
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        cartridge.write((char) 0x4000, (byte) 0x08);   //Seconds
+        cartridge.writeRam((char) 0xA000, (byte) 42);
+        assertEquals8(0, cartridge.readRam((char) 0xA000));
+
+        cartridge.write((char) 0x6000, (byte) 0x00);
+        cartridge.write((char) 0x6000, (byte) 0x01);
+        assertEquals8(42, cartridge.readRam((char) 0xA000));
+
+        //RAM is still there
+        cartridge.write((char) 0x4000, (byte) 0x00);
+        assertEquals8(0x00, cartridge.readRam((char) 0xA000));
+    }
+}
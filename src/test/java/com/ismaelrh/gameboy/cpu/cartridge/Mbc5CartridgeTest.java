@@ -0,0 +1,36 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import org.junit.Test;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+
+public class Mbc5CartridgeTest {
+
+    @Test
+    public void romBankSwitching() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x19, 512, 0).getPath());
+        assertEquals(1, RomFiles.readBank(cartridge, 0x4000));
+        cartridge.write((char) 0x2000, (byte) 0xFF);
+        assertEquals(0xFF, RomFiles.readBank(cartridge, 0x4000));
+        cartridge.write((char) 0x3000, (byte) 0x01);
+        assertEquals(0x1FF, RomFiles.readBank(cartridge, 0x4000));
+
+        //Bank 0 can be mapped at 0x4000
+        cartridge.write((char) 0x3000, (byte) 0x00);
+        cartridge.write((char) 0x2000, (byte) 0x00);
+        assertEquals(0, RomFiles.readBank(cartridge, 0x4000));
+    }
+
+    @Test
+    public void ramBanks() throws Exception {
+        Cartridge cartridge = CartridgeFactory.load(RomFiles.create(0x1A, 4, 4).getPath());
+        cartridge.write((char) 0x0000, (byte) 0x0A);
+        cartridge.write((char) 0x4000, (byte) 0x0F);
+        cartridge.writeRam((char) 0xA123, (byte) 0x77);
+        cartridge.write((char) 0x4000, (byte) 0x00);
+        assertEquals8(0x00, cartridge.readRam((char) 0xA123));
+        cartridge.write((char) 0x4000, (byte) 0x0F);
+        assertEquals8(0x77, cartridge.readRam((char) 0xA123));
+    }
+}
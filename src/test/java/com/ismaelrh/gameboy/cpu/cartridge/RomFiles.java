@@ -0,0 +1,32 @@
+package com.ismaelrh.gameboy.cpu.cartridge;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * Builds ROM files for tests. The first two bytes of each 16KB bank hold its bank number.
+ */
+public class RomFiles {
+
+    public static File create(int type, int romBanks, int ramSizeCode) throws Exception {
+        byte[] rom = new byte[romBanks * 0x4000];
+        for (int bank = 0; bank < romBanks; bank++) {
+            rom[bank * 0x4000] = (byte) bank;
+            rom[bank * 0x4000 + 1] = (byte) (bank >> 8);
+        }
+        byte[] title = "TESTROM".getBytes();
+        System.arraycopy(title, 0, rom, 0x134, title.length);
+        rom[0x147] = (byte) type;
+        rom[0x148] = (byte) (Integer.numberOfTrailingZeros(romBanks) - 1);
+        rom[0x149] = (byte) ramSizeCode;
+        File file = File.createTempFile("rom", ".gb");
+        file.deleteOnExit();
+        new File(CartridgeFactory.getDefaultSavePath(file.getPath())).deleteOnExit();
+        Files.write(file.toPath(), rom);
+        return file;
+    }
+
+    public static int readBank(Cartridge cartridge, int address) {
+        return (cartridge.read((char) address) & 0xFF) | ((cartridge.read((char) (address + 1)) & 0xFF) << 8);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ismaelrh.gameboy.cpu.instructions;
+
+import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class InstDispatchTableTest {
+
+    private final InstDecoder decoder = new InstDecoder();
+    private final InstDispatchTable table = new InstDispatchTable(decoder);
+
+    @Test
+    public void everyExistingOpcodeHasHandler() {
+        for (int opcode = 0; opcode <= 0xFF; opcode++) {
+            assertEquals(decoder.getInstIfExists(false, opcode) != null, table.getInst(opcode) != null);
+            assertEquals(decoder.getInstIfExists(true, opcode) != null, table.getCbInst(opcode) != null);
+        }
+        assertNull(table.getInst(0xCB));
+        assertNotNull(table.getCbInst(0xFF));
+    }
+
+    @Test
+    public void handlersKeepDescriptionAndOpcode() {
+        InstHandler ldBC = table.getInst(0x41);
+        assertEquals("ld r,r", ldBC.getDescription().getMnemonic());
+        assertEquals((byte) 0x41, ldBC.getOpcode());
+        assertFalse(ldBC.isCb());
+
+        InstHandler bit7H = table.getCbInst(0x7C);
+        assertEquals("bit n,r", bit7H.getDescription().getMnemonic());
+        assertTrue(bit7H.isCb());
+        assertEquals(0, bit7H.getExtraBytes());
+
+        assertEquals(2, table.getInst(0xC3).getExtraBytes()); //jp nn
+    }
+
+    @Test
+    public void boundHandlersBehaveAsGenericOnes() throws Exception {
+        Random random = new Random(1234);
+        for (int index = 0; index < 512; index++) {
+            InstHandler handler = table.get(index);
+            if (handler == null || handler.getDescription().getBinder() == null) {
+                continue;
+            }
+            for (int i = 0; i < 32; i++) {
+                long seed = random.nextLong();
+
+                Memory genericMemory = new Memory();
+                Registers genericRegisters = new Registers();
+                Instruction genericInst = initialize(seed, handler, genericMemory, genericRegisters);
+                int genericCycles = handler.getDescription().getInst().apply(genericInst, genericMemory, genericRegisters);
+
+                Memory boundMemory = new Memory();
+                Registers boundRegisters = new Registers();
+                Instruction boundInst = initialize(seed, handler, boundMemory, boundRegisters);
+                int boundCycles = handler.getInst().apply(boundInst, boundMemory, boundRegisters);
+
+                String message = String.format("%s 0x%02X", handler.getDescription().getMnemonic(), handler.getOpcode());
+                assertEquals(message, genericCycles, boundCycles);
+                assertEquals(message, genericRegisters, boundRegisters);
+                assertEquals(message, genericRegisters.getF(), boundRegisters.getF());
+                for (char address = 0xC000; address < 0xC200; address++) {
+                    assertEquals(message, genericMemory.read(address), boundMemory.read(address));
+                }
+            }
+        }
+    }
+
+    private Instruction initialize(long seed, InstHandler handler, Memory memory, Registers registers) {
+        Random random = new Random(seed);
+        memory.insertCartridge(new FakeCartridge());
+        for (char address = 0xC000; address < 0xC200; address++) {
+            memory.write(address, (byte) random.nextInt(256));
+        }
+        registers.initForTest();
+        registers.setAF((char) random.nextInt(0x10000));
+        registers.setBC((char) random.nextInt(0x10000));
+        registers.setDE((char) random.nextInt(0x10000));
+        registers.setHL((char) (0xC000 + random.nextInt(0x100)));
+        registers.setSP((char) (0xC100 + random.nextInt(0x100)));
+        registers.setPC((char) random.nextInt(0x8000));
+
+        Instruction inst = new Instruction(handler.getOpcode());
+        inst.setDescription(handler.getDescription());
+        inst.setNn1((byte) random.nextInt(256));
+        inst.setNn2((byte) random.nextInt(256));
+        return inst;
+    }
+}
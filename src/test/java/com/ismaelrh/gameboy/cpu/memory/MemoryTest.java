@@ -135,6 +135,150 @@ public class MemoryTest {
 
     }
 
+    @Test
+    public void videoRAMNotAccessibleWhenLocked() {
+        memory.write((char) 0x8010, (byte) 0x12);
+        memory.setVideoRAMAccessible(false);
+
+        assertEquals8(0xFF, memory.read((char) 0x8010));
+        assertEquals8(0x12, memory.read((char) 0x8010, true));  //Privileged, as the GPU does
+        memory.write((char) 0x8010, (byte) 0x34);   //Ignored
+
+        memory.setVideoRAMAccessible(true);
+        assertEquals8(0x12, memory.read((char) 0x8010));
+    }
+
+    @Test
+    public void oamNotAccessibleWhenLocked() {
+        memory.write((char) 0xFE10, (byte) 0x12);
+        memory.setOAMAccessible(false);
+
+        assertEquals8(0xFF, memory.read((char) 0xFE10));
+        assertEquals8(0x12, memory.read((char) 0xFE10, true));
+        memory.write((char) 0xFE10, (byte) 0x34);   //Ignored
+
+        memory.setOAMAccessible(true);
+        assertEquals8(0x12, memory.read((char) 0xFE10));
+    }
+
+    @Test
+    public void interceptorOnlyCalledInItsRange() {
+        final int[] calls = new int[1];
+        memory.addInterceptor(new MemoryInterceptor((char) 0xC100, (char) 0xC1FF) {
+            @Override
+            public byte onWrite(char address, byte data) {
+                calls[0]++;
+                return (byte) (data + 1);
+            }
+
+            @Override
+            public byte onRead(char address, byte data) {
+                calls[0]++;
+                return data;
+            }
+        });
+
+        memory.write((char) 0xC0FF, (byte) 0x10);
+        memory.write((char) 0xC200, (byte) 0x10);
+        assertEquals8(0x10, memory.read((char) 0xC0FF));
+        assertEquals8(0x10, memory.read((char) 0xC200));
+        assertEquals(0, calls[0]);
+
+        memory.write((char) 0xC100, (byte) 0x10);
+        assertEquals8(0x11, memory.read((char) 0xC100));
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    public void bootromIsMappedUntilDisabled() throws Exception {
+        Cartridge c = new FakeCartridge();
+        c.write((char) 0x0000, (byte) 0xBE);
+        c.write((char) 0x0100, (byte) 0xBA);
+        memory.insertCartridge(c);
+
+        java.io.File bootrom = java.io.File.createTempFile("bootrom", ".bin");
+        bootrom.deleteOnExit();
+        java.nio.file.Files.write(bootrom.toPath(), new byte[]{(byte) 0x31, (byte) 0xFE});
+        memory.setBootrom(bootrom.getAbsolutePath());
+
+        assertEquals8(0x31, memory.read((char) 0x0000));
+        assertEquals8(0xBA, memory.read((char) 0x0100));
+
+        memory.write((char) 0xFF50, (byte) 0x01);
+        assertEquals8(0xBE, memory.read((char) 0x0000));
+    }
+
+    @Test
+    public void mmioDeviceOnlyRoutedInItsRange() {
+        final int[] writes = {0};
+        memory.addMMIODevice(new MMIODevice((char) 0xFF04, (char) 0xFF07) {
+            @Override
+            public void onWrite(char address, byte data) {
+                writes[0]++;
+            }
+
+            @Override
+            public byte onRead(char address) {
+                return (byte) (address & 0xFF);
+            }
+        });
+
+        memory.write((char) 0xFF03, (byte) 0x10);
+        memory.write((char) 0xFF08, (byte) 0x20);
+        assertEquals8(0x10, memory.read((char) 0xFF03));
+        assertEquals8(0x20, memory.read((char) 0xFF08));
+        assertEquals(0, writes[0]);
+
+        memory.write((char) 0xFF04, (byte) 0x10);
+        memory.write((char) 0xFF07, (byte) 0x10);
+        assertEquals8(0x04, memory.read((char) 0xFF04));
+        assertEquals8(0x07, memory.read((char) 0xFF07));
+        assertEquals(2, writes[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mmioDeviceOutsideIORegistersIsRejected() {
+        memory.addMMIODevice(new MMIODevice((char) 0xFF70, (char) 0xFF80) {
+            @Override
+            public void onWrite(char address, byte data) {
+            }
+
+            @Override
+            public byte onRead(char address) {
+                return 0;
+            }
+        });
+    }
+
+    @Test
+    public void externalRAMGoesToCartridgeWhenItHasRam() {
+        final byte[] cartridgeRam = new byte[0x2000];
+        memory.insertCartridge(new FakeCartridge() {
+            @Override
+            public boolean hasRam() {
+                return true;
+            }
+
+            @Override
+            public byte readRam(char address) {
+                return cartridgeRam[address - 0xA000];
+            }
+
+            @Override
+            public void writeRam(char address, byte data) {
+                cartridgeRam[address - 0xA000] = data;
+            }
+        });
+        memory.write((char) 0xA010, (byte) 0x42);
+        assertEquals8(0x42, cartridgeRam[0x10]);
+        assertEquals8(0x42, memory.read((char) 0xA010));
+        assertEquals8(0x00, memory.getExternalRAM()[0x10]);
+
+        memory.removeCartridge();
+        memory.write((char) 0xA010, (byte) 0x24);
+        assertEquals8(0x24, memory.getExternalRAM()[0x10]);
+    }
+
     private void assertDataIsStoredAndReadCorrectly(char absoluteAddress, byte[] internalStructure, byte valueToWrite, int relativeIndex) {
         assertEquals(ZERO, memory.read(absoluteAddress));
         memory.write(absoluteAddress, valueToWrite);
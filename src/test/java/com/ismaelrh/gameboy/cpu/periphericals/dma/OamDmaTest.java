@@ -0,0 +1,125 @@
+package com.ismaelrh.gameboy.cpu.periphericals.dma;
+
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.gpu.Gpu;
+import com.ismaelrh.gameboy.gpu.lcd.NullLcd;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OamDmaTest {
+
+    private final static char DMA = 0xFF46;
+    private final static char OAM = 0xFE00;
+
+    private Memory memory;
+    private Scheduler scheduler;
+    private OamDma dma;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        scheduler = new Scheduler();
+        //The GPU range covers the DMA register, it has to be left to the DMA
+        memory.addMMIODevice(new Gpu(memory, new NullLcd(), scheduler));
+        dma = new OamDma(scheduler);
+        memory.addMMIODevice(dma);
+        scheduler.addDevice(dma);
+    }
+
+    @Test
+    public void copiesFromInternalRAMAndLocksOAMDuringTransfer() {
+        fill((char) 0xC100);
+        memory.write(DMA, (byte) 0xC1);
+
+        assertTrue(dma.isTransferring());
+        assertEquals8(0xC1, memory.read(DMA));
+        assertEquals8(0xFF, memory.read(OAM));
+        assertEquals8(1, memory.read(OAM, true));   //Already copied
+
+        scheduler.advance(OamDma.TRANSFER_CYCLES - 4);
+        assertEquals8(0xFF, memory.read((char) 0xFE9F));
+        memory.write(OAM, (byte) 0x55);              //Ignored
+
+        scheduler.advance(4);
+        assertFalse(dma.isTransferring());
+        assertCopied();
+    }
+
+    @Test
+    public void copiesFromCartridge() {
+        FakeCartridge cartridge = new FakeCartridge();
+        for (int i = 0; i < 160; i++) {
+            cartridge.write((char) (0x4200 + i), (byte) (i + 1));
+        }
+        memory.insertCartridge(cartridge);
+        memory.write(DMA, (byte) 0x42);
+        scheduler.advance(OamDma.TRANSFER_CYCLES);
+        assertCopied();
+    }
+
+    @Test
+    public void copiesFromVideoRAMEvenIfLocked() {
+        fill((char) 0x8800);
+        memory.setVideoRAMAccessible(false);
+        memory.write(DMA, (byte) 0x88);
+        scheduler.advance(OamDma.TRANSFER_CYCLES);
+        assertCopied();
+    }
+
+    @Test
+    public void sourcesAboveEchoRAMReadInternalRAM() {
+        fill((char) 0xDE00);
+        memory.write(DMA, (byte) 0xFE);
+        scheduler.advance(OamDma.TRANSFER_CYCLES);
+        assertCopied();
+    }
+
+    @Test
+    public void transferRestartedBeforeTheEndKeepsOAMLocked() {
+        fill((char) 0xC000);
+        memory.write(DMA, (byte) 0xC0);
+        scheduler.advance(400);
+        memory.write(DMA, (byte) 0xC0);
+        scheduler.advance(400);
+        assertEquals8(0xFF, memory.read(OAM));
+        scheduler.advance(OamDma.TRANSFER_CYCLES - 400);
+        assertCopied();
+    }
+
+    @Test
+    public void lockIsRestoredWithState() {
+        fill((char) 0xC000);
+        memory.write(DMA, (byte) 0xC0);
+        scheduler.advance(100);
+        ByteBuffer state = ByteBuffer.allocate(16);
+        dma.saveState(state);
+        scheduler.advance(OamDma.TRANSFER_CYCLES);
+        assertCopied();
+
+        state.flip();
+        dma.loadState(state);
+        assertTrue(dma.isTransferring());
+        assertEquals8(0xFF, memory.read(OAM));
+    }
+
+    //Bytes 1 to 160 from the address
+    private void fill(char address) {
+        for (int i = 0; i < 160; i++) {
+            memory.write((char) (address + i), (byte) (i + 1));
+        }
+    }
+
+    private void assertCopied() {
+        for (int i = 0; i < 160; i++) {
+            assertEquals8(i + 1, memory.read((char) (OAM + i)));
+        }
+    }
+}
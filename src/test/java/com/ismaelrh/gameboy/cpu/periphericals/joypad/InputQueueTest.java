@@ -0,0 +1,50 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InputQueueTest {
+
+    @Test
+    public void keepsOrderUntilFull() {
+        InputQueue queue = new InputQueue(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(InputQueue.EMPTY, queue.poll());
+    }
+
+    @Test
+    public void eventsFromAnotherThreadArriveInOrder() throws InterruptedException {
+        final int events = 1_000_000;
+        InputQueue queue = new InputQueue(64);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        int expected = 0;
+        while (expected < events) {
+            int event = queue.poll();
+            if (event == InputQueue.EMPTY) {
+                Thread.yield();
+            } else {
+                assertEquals(expected++, event);
+            }
+        }
+        producer.join();
+        assertEquals(InputQueue.EMPTY, queue.poll());
+    }
+}
@@ -0,0 +1,181 @@
+package com.ismaelrh.gameboy.cpu.periphericals.joypad;
+
+import com.ismaelrh.gameboy.cpu.Const;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JoypadTest {
+
+    private final static char P1 = 0xFF00;
+    private final static byte SELECT_DIRECTIONS = 0x20;
+    private final static byte SELECT_ACTIONS = 0x10;
+
+    private Memory memory;
+    private Scheduler scheduler;
+    private Joypad joypad;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        scheduler = new Scheduler();
+        joypad = new Joypad(scheduler);
+        memory.addMMIODevice(joypad);
+        scheduler.addDevice(joypad);
+    }
+
+    @Test
+    public void nothingSelectedReadsAllReleased() {
+        joypad.press(Button.A);
+        joypad.press(Button.RIGHT);
+        nextFrame();
+        assertEquals8(0xFF, memory.read(P1));
+    }
+
+    @Test
+    public void eventsAreAppliedAtTheStartOfTheNextFrame() {
+        memory.write(P1, SELECT_ACTIONS);
+        joypad.press(Button.START);
+        scheduler.advance(Const.LCD_CYCLES_PER_FRAME - 4);
+        assertEquals8(0xDF, memory.read(P1));
+        assertEquals(0, memory.interruptFlags);
+
+        scheduler.advance(4);
+        assertEquals(1, joypad.getFrame());
+        assertEquals8(0xD7, memory.read(P1));
+        assertEquals8(0x10, memory.interruptFlags);
+    }
+
+    @Test
+    public void tapWithinAFrameIsHeldForOneFrame() {
+        memory.write(P1, SELECT_ACTIONS);
+        joypad.press(Button.A);
+        joypad.release(Button.A);
+        nextFrame();
+        assertEquals8(0xDE, memory.read(P1));
+        assertEquals8(0x10, memory.interruptFlags);
+
+        nextFrame();
+        assertEquals8(0xDF, memory.read(P1));
+        assertEquals(0, joypad.getButtons());
+    }
+
+    @Test
+    public void tapPressedAgainStaysPressed() {
+        joypad.press(Button.B);
+        joypad.release(Button.B);
+        joypad.press(Button.B);
+        nextFrame();
+        nextFrame();
+        assertEquals(Button.B.getMask(), joypad.getButtons());
+    }
+
+    @Test
+    public void onlySelectedGroupIsRead() {
+        joypad.press(Button.A);
+        joypad.press(Button.DOWN);
+        nextFrame();
+        memory.write(P1, SELECT_ACTIONS);
+        assertEquals8(0xDE, memory.read(P1));
+        memory.write(P1, SELECT_DIRECTIONS);
+        assertEquals8(0xE7, memory.read(P1));
+        memory.write(P1, (byte) 0x00);
+        assertEquals8(0xC6, memory.read(P1));
+
+        joypad.release(Button.A);
+        nextFrame();
+        assertEquals8(0xC7, memory.read(P1));
+        assertEquals(Button.DOWN.getMask(), joypad.getButtons());
+    }
+
+    @Test
+    public void interruptionOnlyForSelectedGroup() {
+        memory.write(P1, SELECT_DIRECTIONS);
+        joypad.press(Button.A);
+        nextFrame();
+        assertEquals(0, memory.interruptFlags);
+
+        joypad.press(Button.UP);
+        nextFrame();
+        assertEquals8(0x10, memory.interruptFlags);
+
+        //Held, not pressed again
+        memory.interruptFlags = 0;
+        nextFrame();
+        assertEquals(0, memory.interruptFlags);
+    }
+
+    @Test
+    public void scriptedInputReplacesQueuedEvents() throws IOException {
+        joypad.setInput(ScriptedInput.parse(new StringReader("# Comment\n2 A b\n\n4\n5 start\n")));
+        joypad.press(Button.RIGHT);
+        int[] expected = {0, 0, 0x30, 0x30, 0, 0x80, 0x80};
+        for (int frame = 1; frame < expected.length; frame++) {
+            nextFrame();
+            assertEquals("frame " + frame, expected[frame], joypad.getButtons());
+        }
+    }
+
+    @Test
+    public void scriptedInputStartsOverWhenFramesGoBack() throws IOException {
+        ScriptedInput script = ScriptedInput.parse(new StringReader("10 UP\n20 DOWN\n"));
+        assertEquals(Button.DOWN.getMask(), script.getButtons(25, 0));
+        assertEquals(Button.UP.getMask(), script.getButtons(15, 0));
+        assertEquals(0, script.getButtons(9, 0));
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidScriptLine() throws IOException {
+        ScriptedInput.parse(new StringReader("10 UP\n12 JUMP\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void scriptFramesMustIncrease() throws IOException {
+        ScriptedInput.parse(new StringReader("10 UP\n10 DOWN\n"));
+    }
+
+    @Test
+    public void stateKeepsButtonsAndFrame() {
+        memory.write(P1, SELECT_ACTIONS);
+        joypad.press(Button.B);
+        nextFrame();
+        ByteBuffer state = ByteBuffer.allocate(32);
+        joypad.saveState(state);
+
+        joypad.release(Button.B);
+        nextFrame();
+        memory.write(P1, SELECT_DIRECTIONS);
+
+        state.flip();
+        joypad.loadState(state);
+        assertEquals(1, joypad.getFrame());
+        assertEquals8(0xDD, memory.read(P1));
+    }
+
+    @Test
+    public void fullQueueDropsEvents() {
+        int accepted = 0;
+        while (joypad.press(Button.A)) {
+            accepted++;
+        }
+        assertEquals(256, accepted);
+        nextFrame();
+        assertTrue(joypad.release(Button.A));
+        nextFrame();
+        assertFalse((joypad.getButtons() & Button.A.getMask()) != 0);
+    }
+
+    private void nextFrame() {
+        scheduler.advance(Const.LCD_CYCLES_PER_FRAME);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ismaelrh.gameboy.cpu.periphericals.serial;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SerialTest {
+
+    private final static char SB = 0xFF01;
+    private final static char SC = 0xFF02;
+
+    private Memory memory;
+    private Scheduler scheduler;
+    private Serial serial;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        scheduler = new Scheduler();
+        serial = new Serial(scheduler);
+        memory.addMMIODevice(serial);
+        scheduler.addDevice(serial);
+    }
+
+    @Test
+    public void transferWithInternalClock() {
+        send('A');
+        assertEquals8(0xFF, memory.read(SC));
+        scheduler.advance(4092);
+        assertEquals8(0x41, memory.read(SB));
+        assertEquals(0, memory.interruptFlags);
+
+        scheduler.advance(4);
+        assertEquals8(0xFF, memory.read(SB));   //Nothing connected
+        assertEquals8(0x7F, memory.read(SC));
+        assertEquals8(0x08, memory.interruptFlags);
+    }
+
+    @Test
+    public void transferWithExternalClockNeverEnds() {
+        memory.write(SB, (byte) 'A');
+        memory.write(SC, (byte) 0x80);
+        scheduler.advance(100000);
+        assertEquals8(0xFE, memory.read(SC));
+        assertEquals(0, memory.interruptFlags);
+        assertEquals("A", serial.getOutput());
+    }
+
+    @Test
+    public void outputIsCaptured() {
+        for (char character : "Passed".toCharArray()) {
+            send(character);
+        }
+        assertEquals("Passed", serial.getOutput());
+        assertTrue(serial.outputEndsWith("Passed"));
+        assertTrue(serial.outputEndsWith("d"));
+        assertFalse(serial.outputEndsWith("Failed"));
+        assertFalse(serial.outputEndsWith("Not Passed"));
+
+        serial.clearOutput();
+        assertEquals("", serial.getOutput());
+    }
+
+    @Test
+    public void outputGrows() {
+        for (int i = 0; i < 1000; i++) {
+            send((char) ('a' + i % 26));
+        }
+        assertEquals(1000, serial.getOutput().length());
+        assertTrue(serial.outputEndsWith("jkl"));
+    }
+
+    private void send(char character) {
+        memory.write(SB, (byte) character);
+        memory.write(SC, (byte) 0x81);
+    }
+}
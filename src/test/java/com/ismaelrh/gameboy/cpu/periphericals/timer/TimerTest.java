@@ -0,0 +1,111 @@
+package com.ismaelrh.gameboy.cpu.periphericals.timer;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.ismaelrh.gameboy.TestUtils.assertEquals8;
+import static org.junit.Assert.assertEquals;
+
+public class TimerTest {
+
+    private final static char DIV = 0xFF04;
+    private final static char TIMA = 0xFF05;
+    private final static char TMA = 0xFF06;
+    private final static char TAC = 0xFF07;
+
+    private Memory memory;
+    private Scheduler scheduler;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        scheduler = new Scheduler();
+        Timer timer = new Timer(memory, scheduler);
+        memory.addMMIODevice(timer);
+        scheduler.addDevice(timer);
+    }
+
+    @Test
+    public void divIncrementsEvery256Cycles() {
+        advance(252);
+        assertEquals8(0x00, memory.read(DIV));
+        advance(4);
+        assertEquals8(0x01, memory.read(DIV));
+        advance(256 * 255);
+        assertEquals8(0x00, memory.read(DIV));
+    }
+
+    @Test
+    public void divIsClearedOnWrite() {
+        advance(1000);
+        memory.write(DIV, (byte) 0x55);
+        assertEquals8(0x00, memory.read(DIV));
+        advance(256);
+        assertEquals8(0x01, memory.read(DIV));
+    }
+
+    @Test
+    public void timaDoesNotCountWhenStopped() {
+        memory.write(TAC, (byte) 0x01);
+        advance(10000);
+        assertEquals8(0x00, memory.read(TIMA));
+        assertEquals(Long.MAX_VALUE, scheduler.getNextEventCycle());
+    }
+
+    @Test
+    public void timaCountsAtSelectedRate() {
+        int[] cyclesPerIncrement = {1024, 16, 64, 256};
+        for (int mode = 0; mode < 4; mode++) {
+            memory.write(TAC, (byte) 0x00);
+            memory.write(TIMA, (byte) 0x00);
+            memory.write(TAC, (byte) (0x04 | mode));
+            advance(cyclesPerIncrement[mode] * 10 - 4);
+            assertEquals8(9, memory.read(TIMA));
+            advance(4);
+            assertEquals8(10, memory.read(TIMA));
+        }
+    }
+
+    @Test
+    public void timaOverflowReloadsModuloAndFiresInterruption() {
+        memory.write(TMA, (byte) 0xF0);
+        memory.write(TIMA, (byte) 0xFE);
+        memory.write(TAC, (byte) 0x05);   //16 cycles
+        advance(28);
+        assertEquals8(0xFF, memory.read(TIMA));
+        assertEquals8(0x00, memory.interruptFlags);
+        advance(4);
+        assertEquals8(0xF0, memory.read(TIMA));
+        assertEquals8(0x04, memory.interruptFlags);
+
+        //Next overflow after 16 increments from modulo
+        memory.interruptFlags = 0;
+        advance(16 * 16 - 4);
+        assertEquals8(0xFF, memory.read(TIMA));
+        advance(4);
+        assertEquals8(0xF0, memory.read(TIMA));
+        assertEquals8(0x04, memory.interruptFlags);
+    }
+
+    @Test
+    public void timaCanBeWritten() {
+        memory.write(TAC, (byte) 0x05);
+        advance(40);
+        assertEquals8(0x02, memory.read(TIMA));
+        memory.write(TIMA, (byte) 0x80);
+        assertEquals8(0x80, memory.read(TIMA));
+        advance(8);     //Keeps the cycles already counted towards next increment
+        assertEquals8(0x81, memory.read(TIMA));
+    }
+
+    private void advance(int cycles) {
+        //As the CPU does, in instruction sized steps
+        while (cycles > 0) {
+            int step = Math.min(4, cycles);
+            scheduler.advance(step);
+            cycles -= step;
+        }
+    }
+}
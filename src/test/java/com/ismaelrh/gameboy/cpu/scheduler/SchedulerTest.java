@@ -0,0 +1,82 @@
+package com.ismaelrh.gameboy.cpu.scheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SchedulerTest {
+
+    private Scheduler scheduler;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        scheduler = new Scheduler();
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void noEventsBeforeDeadline() {
+        scheduler.addDevice(new PeriodicDevice("a", 100));
+        scheduler.advance(96);
+        assertEquals(0, events.size());
+        assertEquals(100, scheduler.getNextEventCycle());
+        scheduler.advance(8);
+        assertEquals(1, events.size());
+        assertEquals("a@100", events.get(0));
+        assertEquals(200, scheduler.getNextEventCycle());
+        assertEquals(104, scheduler.getCycles());
+    }
+
+    @Test
+    public void eventsRunInOrderWhenSeveralAreReached() {
+        scheduler.addDevice(new PeriodicDevice("a", 100));
+        scheduler.addDevice(new PeriodicDevice("b", 150));
+        scheduler.advance(310);
+        assertEquals("[a@100, b@150, a@200, a@300, b@300]", events.toString());
+        assertEquals(400, scheduler.getNextEventCycle());
+    }
+
+    @Test
+    public void rescheduleAfterDeadlineChange() {
+        PeriodicDevice device = new PeriodicDevice("a", 100);
+        scheduler.addDevice(device);
+        device.next = Long.MAX_VALUE;
+        scheduler.reschedule();
+        scheduler.advance(1000);
+        assertEquals(0, events.size());
+
+        device.next = 1004;
+        scheduler.reschedule();
+        scheduler.advance(4);
+        assertEquals("[a@1004]", events.toString());
+    }
+
+    private class PeriodicDevice implements ScheduledDevice {
+
+        private final String name;
+        private final long period;
+        private long next;
+
+        PeriodicDevice(String name, long period) {
+            this.name = name;
+            this.period = period;
+            this.next = period;
+        }
+
+        @Override
+        public long getNextEventCycle() {
+            return next;
+        }
+
+        @Override
+        public void onEvent() {
+            events.add(name + "@" + next);
+            next += period;
+        }
+    }
+}
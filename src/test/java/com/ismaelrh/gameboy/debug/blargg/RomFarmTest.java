@@ -0,0 +1,44 @@
+package com.ismaelrh.gameboy.debug.blargg;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RomFarmTest {
+
+    private static final String ROMS = "src/test/resources/blargg/cpu/";
+
+    @Test
+    public void parallelRunsMatchSequentialOnes() {
+        List<String> roms = Arrays.asList(ROMS + "02.gb", ROMS + "06.gb", ROMS + "08.gb", ROMS + "06.gb");
+        List<RomResult> parallel = new RomFarm(4, 50_000_000L).run(roms);
+        List<RomResult> sequential = new RomFarm(1, 50_000_000L).run(roms);
+
+        assertEquals(roms.size(), parallel.size());
+        for (int i = 0; i < roms.size(); i++) {
+            assertEquals(roms.get(i), parallel.get(i).getRom());
+            assertTrue(parallel.get(i).toString(), parallel.get(i).isPassed());
+            assertEquals(sequential.get(i).getCycles(), parallel.get(i).getCycles());
+            assertEquals(sequential.get(i).getOutput(), parallel.get(i).getOutput());
+        }
+    }
+
+    @Test
+    public void missingRomIsReportedAsError() {
+        RomResult result = new RomFarm(1, 1000).runRom(ROMS + "missing.gb");
+        assertNotNull(result.getError());
+        assertTrue(!result.isPassed());
+    }
+
+    @Test
+    public void findRoms() throws Exception {
+        List<String> roms = RomFarm.findRoms(ROMS);
+        assertEquals(11, roms.size());
+        assertTrue(roms.get(0).endsWith("01.gb"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.ismaelrh.gameboy.debug.debugger;
+
+import com.ismaelrh.gameboy.cpu.ControlUnit;
+import com.ismaelrh.gameboy.cpu.ExecutionInfo;
+import com.ismaelrh.gameboy.cpu.Registers;
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DebuggerTest {
+
+    private Memory memory;
+    private Registers registers;
+    private FakeCartridge cartridge;
+    private ControlUnit controlUnit;
+    private RecordingController controller;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        cartridge = new FakeCartridge();
+        memory.insertCartridge(cartridge);
+        registers = new Registers();
+        registers.initForTest();
+        controlUnit = new ControlUnit(registers, memory);
+        controller = new RecordingController();
+    }
+
+    @Test
+    public void noDebuggerMeansNoHook() throws Exception {
+        controlUnit.runInstruction();
+        assertFalse(controlUnit.isInstrumented());
+    }
+
+    @Test
+    public void controllerCanBeAttachedAndDetached() throws Exception {
+        controlUnit.setDebuggerController(controller);
+        assertTrue(controlUnit.isInstrumented());
+        run(2);
+        assertEquals(2, controller.changes);
+
+        controlUnit.setDebuggerController(null);
+        assertFalse(controlUnit.isInstrumented());
+        run(2);
+        assertEquals(2, controller.changes);
+    }
+
+    @Test
+    public void stopsAtPCBreakpoint() throws Exception {
+        controlUnit.setDebuggerController(controller);
+        controller.debugger.addBreakpoint((char) 0x0102);
+        controller.debugger.enableBreakpoints();
+        run(4);
+        assertEquals(Arrays.asList((char) 0x0102), controller.stops);
+
+        controller.debugger.removeBreakpoint((char) 0x0102);
+        registers.setPC((char) 0x0100);
+        run(4);
+        assertEquals(1, controller.stops.size());
+    }
+
+    @Test
+    public void breakpointsAreIgnoredWhileDisabled() throws Exception {
+        controlUnit.setDebuggerController(controller);
+        controller.debugger.addBreakpoint((char) 0x0100);
+        run(1);
+        assertTrue(controller.stops.isEmpty());
+    }
+
+    @Test
+    public void instructionBreakpointMatchesOpcodeAndOperands() throws Exception {
+        load(0x0100, 0x3E, 0x05, 0x3E, 0x06, 0xCB, 0x37, 0xCB, 0x30, 0x00);    //ld a,5; ld a,6; swap a; swap b; nop
+        controlUnit.setDebuggerController(controller);
+        controller.debugger.enableBreakpoints();
+
+        controller.debugger.addInstructionBreakpoint("3E 06");
+        controller.debugger.addInstructionBreakpoint("CB 37");
+        run(5);
+        assertEquals(Arrays.asList((char) 0x0102, (char) 0x0104), controller.stops);
+
+        controller.stops.clear();
+        controller.debugger.removeInstructionBreakpoint("3E 06");
+        controller.debugger.removeInstructionBreakpoint("CB 37");
+        controller.debugger.addInstructionBreakpoint("3E");
+        registers.setPC((char) 0x0100);
+        run(5);
+        assertEquals(Arrays.asList((char) 0x0100, (char) 0x0102), controller.stops);
+
+        controller.stops.clear();
+        controller.debugger.removeInstructionBreakpoint("3E");
+        controller.debugger.addInstructionBreakpoint("CB");
+        registers.setPC((char) 0x0100);
+        run(5);
+        assertEquals(Arrays.asList((char) 0x0104, (char) 0x0106), controller.stops);
+    }
+
+    private void run(int instructions) throws Exception {
+        for (int i = 0; i < instructions; i++) {
+            controlUnit.runInstruction();
+        }
+    }
+
+    private void load(int address, int... bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            cartridge.write((char) (address + i), (byte) bytes[i]);
+        }
+    }
+
+    //Resumes right away on every stop, remembering where it was
+    private static class RecordingController implements DebuggerController {
+
+        private Debugger debugger;
+        private Registers registers;
+        private int changes = 0;
+        private final List<Character> stops = new ArrayList<>();
+
+        @Override
+        public void init(Memory memory, Registers registers, Debugger debugger, ExecutionInfo info) {
+            this.registers = registers;
+            this.debugger = debugger;
+        }
+
+        @Override
+        public void onChange() {
+            changes++;
+        }
+
+        @Override
+        public void onStop() {
+            stops.add(registers.getPC());
+            debugger.continueExecution();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ismaelrh.gameboy.debug.logCheck.binjgb;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.instructions.InstDecoder;
+import com.ismaelrh.gameboy.cpu.instructions.InstDispatchTable;
+import com.ismaelrh.gameboy.debug.trace.TraceReader;
+import com.ismaelrh.gameboy.debug.trace.TraceRecorder;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class BinJgbTraceConverterTest {
+
+    @Test
+    public void linesHaveBinJgbFormat() throws Exception {
+        Emulator emulator = new Emulator();
+        FakeCartridge cartridge = new FakeCartridge();
+        cartridge.write((char) 0x0101, (byte) 0x12);   //ld (DE),a
+        cartridge.write((char) 0x0102, (byte) 0xC3);   //jp 0150
+        cartridge.write((char) 0x0103, (byte) 0x50);
+        cartridge.write((char) 0x0104, (byte) 0x01);
+        emulator.insertCartridge(cartridge);
+        TraceRecorder recorder = new TraceRecorder(emulator.getScheduler(), 8);
+        emulator.setTraceRecorder(recorder);
+        for (int i = 0; i < 3; i++) {
+            emulator.step();
+        }
+
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            recorder.dump(file);
+            TraceReader trace = TraceReader.open(file);
+            BinJgbTraceConverter converter = new BinJgbTraceConverter();
+            assertEquals("A:01 F:Z-HC BC:0013 DE:00d8 HL:014d SP:fffe PC:0101 (cy: 4) ppu:+0 |[00]0x0101: 12        "
+                    + mnemonic(0x12), converter.toLine(trace, 1));
+            assertEquals("A:01 F:Z-HC BC:0013 DE:00d8 HL:014d SP:fffe PC:0102 (cy: 12) ppu:+0 |[00]0x0102: c3 50 01  "
+                    + mnemonic(0xC3), converter.toLine(trace, 2));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String mnemonic(int opcode) {
+        return new InstDispatchTable(new InstDecoder()).getInst(opcode).getDescription().getMnemonic();
+    }
+}
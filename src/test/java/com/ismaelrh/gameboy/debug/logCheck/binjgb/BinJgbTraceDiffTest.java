@@ -0,0 +1,133 @@
+package com.ismaelrh.gameboy.debug.logCheck.binjgb;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import com.ismaelrh.gameboy.debug.trace.TraceReader;
+import com.ismaelrh.gameboy.debug.trace.TraceRecorder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinJgbTraceDiffTest {
+
+    //Enough lines for several chunks of the parser
+    private static final int INSTRUCTIONS = 200_000;
+    //First instructions of the same ROM in binjgb's log format. Written from our own trace, not by binjgb,
+    //so it checks the format and the parser, not that both emulators agree
+    private static final Path FORMAT_FIXTURE = Paths.get("src/test/resources/binjgb/02-start.log");
+
+    private Path traceFile;
+    private Path logFile;
+    private TraceReader trace;
+
+    @Before
+    public void setUp() throws Exception {
+        traceFile = Files.createTempFile("trace", ".bin");
+        logFile = Files.createTempFile("binjgb", ".log");
+        trace = record(INSTRUCTIONS, INSTRUCTIONS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(traceFile);
+        Files.deleteIfExists(logFile);
+    }
+
+    @Test
+    public void sameExecutionHasNoDivergence() throws Exception {
+        writeLog(-1, INSTRUCTIONS);
+        BinJgbTraceDiff.Result result = new BinJgbTraceDiff(5, 2).compare(trace, logFile);
+        assertTrue(result.toString(), result.isSame());
+        assertEquals(INSTRUCTIONS, result.getCompared());
+    }
+
+    @Test
+    public void firstDivergenceIsReportedWithContext() throws Exception {
+        writeLog(150_000, INSTRUCTIONS);
+        BinJgbTraceDiff.Result result = new BinJgbTraceDiff(3, 2).compare(trace, logFile);
+        assertFalse(result.isSame());
+        assertEquals(150_000, result.getDivergence());
+        assertTrue(result.toString(), result.toString().contains("(HL)"));
+        assertTrue(result.toString(), result.toString().contains("    149997 expected A:"));
+        assertTrue(result.toString(), result.toString().contains(">>> 150000 got      A:"));
+    }
+
+    @Test
+    public void shorterLogIsNotADivergence() throws Exception {
+        writeLog(-1, 1000);
+        BinJgbTraceDiff.Result result = new BinJgbTraceDiff().compare(trace, logFile);
+        assertTrue(result.isSame());
+        assertEquals(1000, result.getCompared());
+    }
+
+    @Test
+    public void wrappedTraceIsAlignedWithTheLog() throws Exception {
+        writeLog(150_000, INSTRUCTIONS);
+        //Capacity 65536, the first 134464 instructions were overwritten
+        TraceReader wrapped = record(50_000, INSTRUCTIONS);
+        assertEquals(INSTRUCTIONS - 65536, wrapped.getFirstIndex());
+
+        BinJgbTraceDiff.Result result = new BinJgbTraceDiff(3, 2).compare(wrapped, logFile);
+        assertFalse(result.isSame());
+        assertEquals(150_000, result.getDivergence());
+        assertEquals(150_000 - (INSTRUCTIONS - 65536), result.getCompared());
+        assertTrue(result.toString(), result.toString().contains("First divergence at instruction 150000"));
+        assertTrue(result.toString(), result.toString().contains("    149997 expected A:"));
+        assertTrue(result.toString(), result.toString().contains(">>> 150000 got      A:"));
+    }
+
+    @Test
+    public void parsesBinJgbFormatFixture() throws Exception {
+        TraceReader start = record(64, 40);
+        BinJgbTraceDiff.Result result = new BinJgbTraceDiff().compare(start, FORMAT_FIXTURE);
+        assertTrue(result.toString(), result.isSame());
+        assertEquals(40, result.getCompared());
+    }
+
+    @Test
+    public void wrappedTraceParsesBinJgbFormatFixture() throws Exception {
+        TraceReader end = record(16, 40);
+        assertEquals(24, end.getFirstIndex());
+        BinJgbTraceDiff.Result result = new BinJgbTraceDiff().compare(end, FORMAT_FIXTURE);
+        assertTrue(result.toString(), result.isSame());
+        assertEquals(16, result.getCompared());
+    }
+
+    private TraceReader record(int capacity, int instructions) throws Exception {
+        Emulator emulator = new Emulator();
+        emulator.insertCartridge(CartridgeFactory.load("src/test/resources/blargg/cpu/02.gb", null));
+        TraceRecorder recorder = new TraceRecorder(emulator.getScheduler(), capacity);
+        emulator.setTraceRecorder(recorder);
+        while (recorder.getCount() < instructions) {
+            emulator.step();
+        }
+        recorder.dump(traceFile);
+        return TraceReader.open(traceFile);
+    }
+
+    //Header like binjgb's, then our trace with HL changed in one line
+    private void writeLog(int changedLine, int lines) throws Exception {
+        BinJgbTraceConverter converter = new BinJgbTraceConverter();
+        try (BufferedWriter out = Files.newBufferedWriter(logFile)) {
+            out.write("binjgb log\n\n");
+            for (int i = 0; i < lines; i++) {
+                String line = converter.toLine(trace, i);
+                if (i == changedLine) {
+                    char digit = line.charAt(31) == 'f' ? '0' : 'f';   //First digit of HL
+                    line = line.substring(0, 31) + digit + line.substring(32);
+                }
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ismaelrh.gameboy.debug.trace;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.cartridge.FakeCartridge;
+import com.ismaelrh.gameboy.cpu.instruction.Instruction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class TraceRecorderTest {
+
+    private Emulator emulator;
+    private FakeCartridge cartridge;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        emulator = new Emulator();
+        cartridge = new FakeCartridge();   //All NOPs
+        emulator.insertCartridge(cartridge);
+        file = Files.createTempFile("trace", ".bin");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void keepsTheLastRecordsOldestFirst() throws Exception {
+        TraceRecorder recorder = new TraceRecorder(emulator.getScheduler(), 4);
+        emulator.setTraceRecorder(recorder);
+        for (int i = 0; i < 10; i++) {
+            emulator.step();
+        }
+        assertEquals(10, recorder.getCount());
+        assertEquals(4, recorder.size());
+
+        recorder.dump(file);
+        TraceReader trace = TraceReader.open(file);
+        assertEquals(4, trace.size());
+        assertEquals(6, trace.getFirstIndex());
+        for (int i = 0; i < 4; i++) {
+            assertEquals((char) (0x0106 + i), trace.getPC(i));
+            assertEquals(4 * (6 + i), trace.getCycles(i));
+        }
+    }
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        TraceRecorder recorder = new TraceRecorder(emulator.getScheduler(), 5);
+        for (int i = 0; i < 20; i++) {
+            recorder.record(emulator.getRegisters(), new Instruction((byte) 0));
+        }
+        assertEquals(8, recorder.size());
+    }
+
+    @Test
+    public void recordsRegistersBeforeTheInstruction() throws Exception {
+        //ld a,5; ld hl,C123; swap a
+        int[] program = {0x3E, 0x05, 0x21, 0x23, 0xC1, 0xCB, 0x37};
+        for (int i = 0; i < program.length; i++) {
+            cartridge.write((char) (0x100 + i), (byte) program[i]);
+        }
+        TraceRecorder recorder = new TraceRecorder(emulator.getScheduler(), 16);
+        emulator.setTraceRecorder(recorder);
+        for (int i = 0; i < 3; i++) {
+            emulator.step();
+        }
+        recorder.dump(file);
+        TraceReader trace = TraceReader.open(file);
+
+        assertEquals(3, trace.size());
+        assertEquals(0, trace.getFirstIndex());
+        assertEquals(0x01B0, trace.getAF(0));   //Initial value
+        assertEquals(2, trace.getLength(0));
+        assertEquals(0x3E, trace.getByte(0, 0) & 0xFF);
+        assertEquals(0x05, trace.getByte(0, 1) & 0xFF);
+
+        assertEquals(0x05B0, trace.getAF(1));
+        assertEquals(3, trace.getLength(1));
+        assertEquals(0x23, trace.getByte(1, 1) & 0xFF);
+        assertEquals(0xC1, trace.getByte(1, 2) & 0xFF);
+
+        assertEquals(0xC123, trace.getHL(2));
+        assertEquals(0xFFFE, trace.getSP(2));
+        assertEquals(2, trace.getLength(2));
+        assertEquals(0xCB, trace.getByte(2, 0) & 0xFF);
+        assertEquals(0x37, trace.getByte(2, 1) & 0xFF);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws Exception {
+        Files.write(file, new byte[32]);
+        TraceReader.open(file);
+    }
+}
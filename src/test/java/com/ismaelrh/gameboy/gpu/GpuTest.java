@@ -0,0 +1,349 @@
+package com.ismaelrh.gameboy.gpu;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.gpu.lcd.Lcd;
+import com.ismaelrh.gameboy.gpu.lcd.NullLcd;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class GpuTest {
+
+    private Memory memory;
+    private Scheduler scheduler;
+    private Gpu gpu;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        scheduler = new Scheduler();
+        gpu = new Gpu(memory, new NullLcd(), scheduler);
+        memory.addMMIODevice(gpu);
+
+        Random random = new Random(1234);
+        for (int address = 0x8000; address < 0xA000; address++) {
+            memory.write((char) address, (byte) random.nextInt(256));
+        }
+        memory.write((char) 0xFF47, (byte) 0xE4);   //Identity pallete
+    }
+
+    @Test
+    public void decodeRow() {
+        //Low 0b10100101, High 0b11000011
+        int packed = TileUtils.decodeRow((byte) 0xA5, (byte) 0xC3);
+        int[] expected = {3, 2, 1, 0, 0, 1, 2, 3};
+        for (int i = 0; i < 8; i++) {
+            assertEquals(expected[i], TileUtils.getPackedIndex(packed, i));
+        }
+    }
+
+    @Test
+    public void scanlineTileSet1() {
+        memory.write((char) 0xFF40, (byte) 0x91);
+        assertAllScrolls();
+    }
+
+    @Test
+    public void scanlineTileSet0TileMap1() {
+        memory.write((char) 0xFF40, (byte) 0x89);
+        assertAllScrolls();
+    }
+
+    @Test
+    public void fullFrameIsPushedLineByLine() {
+        final int[] screen = new int[Gpu.SCREEN_WIDTH * Gpu.SCREEN_HEIGHT];
+        final int[] counters = new int[2]; //Lines, flushes
+        Gpu recordedGpu = new Gpu(memory, new Lcd() {
+            @Override
+            public void putScanline(int line, int[] pixels, int offset) {
+                System.arraycopy(pixels, offset, screen, line * Gpu.SCREEN_WIDTH, Gpu.SCREEN_WIDTH);
+                counters[0]++;
+            }
+
+            @Override
+            public void flush() {
+                counters[1]++;
+            }
+
+            @Override
+            public void disableLcd() {
+            }
+
+            @Override
+            public void enableLcd() {
+            }
+        }, scheduler);
+        memory.addMMIODevice(recordedGpu);
+        scheduler.addDevice(recordedGpu);
+        memory.write((char) 0xFF47, (byte) 0xE4);
+        memory.write((char) 0xFF40, (byte) 0x91);
+        memory.write((char) 0xFF43, (byte) 7);
+
+        //Until the first VBlank
+        while (counters[1] == 0) {
+            scheduler.advance(4);
+        }
+        assertEquals(Gpu.SCREEN_HEIGHT, counters[0]);
+        for (int y = 0; y < Gpu.SCREEN_HEIGHT; y++) {
+            for (int x = 0; x < Gpu.SCREEN_WIDTH; x++) {
+                assertEquals(referencePixel(x, y, 7, 0), screen[y * Gpu.SCREEN_WIDTH + x]);
+                assertEquals(referencePixel(x, y, 7, 0), recordedGpu.getFrameBuffer()[y * Gpu.SCREEN_WIDTH + x]);
+            }
+        }
+    }
+
+    @Test
+    public void windowOverBackground() {
+        scheduler.addDevice(gpu);
+        //Window map at 0x9C00, background map at 0x9800, both with signed and unsigned tiles
+        for (int lcdc : new int[]{0xF1, 0xE1}) {
+            memory.write((char) 0xFF40, (byte) lcdc);
+            memory.write((char) 0xFF43, (byte) 13);
+            memory.write((char) 0xFF42, (byte) 30);
+            int[][] positions = {{7, 0}, {0, 5}, {3, 140}, {50, 17}, {166, 100}, {167, 0}, {7, 144}};
+            for (int[] position : positions) {
+                memory.write((char) 0xFF4B, (byte) position[0]);
+                memory.write((char) 0xFF4A, (byte) position[1]);
+                runFrame();
+                for (int y = 0; y < Gpu.SCREEN_HEIGHT; y++) {
+                    int windowRow = y - position[1];
+                    for (int x = 0; x < Gpu.SCREEN_WIDTH; x++) {
+                        assertEquals("x=" + x + " y=" + y + " wx=" + position[0] + " wy=" + position[1],
+                                referenceWindowPixel(x, y, position[0], windowRow), gpu.getFrameBuffer()[y * Gpu.SCREEN_WIDTH + x]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void windowLinesAreOnlyCountedWhenDrawn() {
+        scheduler.addDevice(gpu);
+        memory.write((char) 0xFF40, (byte) 0xF1);
+        memory.write((char) 0xFF4B, (byte) 20);
+        memory.write((char) 0xFF4A, (byte) 10);
+        runFrame();
+
+        //Hidden from line 30 to 49, it goes on from its row 20 at line 50
+        advanceToLine(30);
+        memory.write((char) 0xFF4B, (byte) 200);
+        advanceToLine(50);
+        memory.write((char) 0xFF4B, (byte) 20);
+        advanceToLine(Gpu.SCREEN_HEIGHT);
+        for (int y = 50; y < Gpu.SCREEN_HEIGHT; y++) {
+            for (int x = 0; x < Gpu.SCREEN_WIDTH; x++) {
+                assertEquals("x=" + x + " y=" + y, referenceWindowPixel(x, y, 20, y - 30),
+                        gpu.getFrameBuffer()[y * Gpu.SCREEN_WIDTH + x]);
+            }
+        }
+        assertEquals((byte) 20, memory.read((char) 0xFF4B));
+        assertEquals((byte) 10, memory.read((char) 0xFF4A));
+    }
+
+    //A whole frame, from line 0 to the start of VBlank
+    private void runFrame() {
+        advanceToLine(0);
+        advanceToLine(Gpu.SCREEN_HEIGHT);
+    }
+
+    private void advanceToLine(int y) {
+        while ((memory.read((char) 0xFF44) & 0xFF) != y) {
+            scheduler.advance(4);
+        }
+    }
+
+    private int referenceWindowPixel(int x, int y, int windowX, int windowRow) {
+        int lcdc = memory.read((char) 0xFF40) & 0xFF;
+        int column = x - (windowX - 7);
+        if (windowRow < 0 || column < 0) {
+            return referencePixel(x, y, memory.read((char) 0xFF43) & 0xFF, memory.read((char) 0xFF42) & 0xFF);
+        }
+        boolean unsignedTiles = (lcdc & 0x10) != 0;
+        byte index = memory.read((char) (0x9C00 + (windowRow / 8) * 32 + column / 8));
+        char tileAddress = unsignedTiles ? (char) (0x8000 + (index & 0xFF) * 16) : (char) (0x9000 + index * 16);
+        int[] row = TileUtils.getRowOfTileIndexes(memory, tileAddress, windowRow % 8);
+        return Lcd.RGB_COLORS[row[column % 8]];
+    }
+
+    @Test
+    public void spritesOnRandomOAM() {
+        memory.write((char) 0xFF48, (byte) 0x1B);
+        memory.write((char) 0xFF49, (byte) 0xE4);
+        scheduler.addDevice(gpu);
+        Random random = new Random(99);
+        for (int lcdc : new int[]{0x93, 0x97}) {    //8x8 and 8x16 sprites
+            for (int round = 0; round < 10; round++) {
+                //OAM can only be written with the LCD off or outside modes 2 and 3
+                memory.write((char) 0xFF40, (byte) (lcdc & 0x7F));
+                for (int address = 0xFE00; address < 0xFEA0; address++) {
+                    memory.write((char) address, (byte) random.nextInt(256));
+                }
+                //Crowd a few lines so the 10 sprites limit and overlaps happen
+                for (int sprite = 0; sprite < 40; sprite += 2) {
+                    memory.write((char) (0xFE00 + sprite * 4), (byte) (16 + random.nextInt(4)));
+                    memory.write((char) (0xFE01 + sprite * 4), (byte) (random.nextInt(40)));
+                }
+                memory.write((char) 0xFF40, (byte) lcdc);
+                for (int y = 0; y < 20; y++) {
+                    assertLine(y, lcdc);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void onlyTenSpritesPerLine() {
+        memory.write((char) 0xFF48, (byte) 0xE4);
+        memory.write((char) 0xFF40, (byte) 0x93);
+        fillTile(1, 3);
+        //12 sprites on line 0, one every 8 pixels
+        for (int sprite = 0; sprite < 12; sprite++) {
+            writeSprite(sprite, 16, 8 + sprite * 8, 1, 0);
+        }
+        gpu.doScanline();
+        for (int x = 0; x < 80; x++) {
+            assertEquals("x=" + x, Lcd.RGB_COLORS[3], gpu.getFrameBuffer()[x]);
+        }
+        assertEquals(referencePixel(80, 0, 0, 0), gpu.getFrameBuffer()[80]);
+    }
+
+    @Test
+    public void spritesFollowOAMWritesAndLCDC() {
+        memory.write((char) 0xFF48, (byte) 0xE4);
+        memory.write((char) 0xFF40, (byte) 0x93);
+        fillTile(1, 3);
+        fillTile(2, 0);
+        memory.write((char) 0x9800, (byte) 2);
+        gpu.doScanline();
+        int background = gpu.getFrameBuffer()[0];
+        assertNotEquals(Lcd.RGB_COLORS[3], background);
+
+        writeSprite(0, 16, 8, 1, 0);
+        gpu.doScanline();
+        assertEquals(Lcd.RGB_COLORS[3], gpu.getFrameBuffer()[0]);
+
+        memory.write((char) 0xFF40, (byte) 0x91);   //Sprites off
+        gpu.doScanline();
+        assertEquals(background, gpu.getFrameBuffer()[0]);
+
+        memory.write((char) 0xFF40, (byte) 0x93);
+        memory.write((char) 0xFE00, (byte) 0);      //Moved above the screen
+        gpu.doScanline();
+        assertEquals(background, gpu.getFrameBuffer()[0]);
+    }
+
+    @Test
+    public void objectPalletesAreReadBack() {
+        memory.write((char) 0xFF48, (byte) 0x1B);
+        memory.write((char) 0xFF49, (byte) 0x6C);
+        assertEquals((byte) 0x1B, memory.read((char) 0xFF48));
+        assertEquals((byte) 0x6C, memory.read((char) 0xFF49));
+    }
+
+    private void fillTile(int tile, int colorIndex) {
+        for (int i = 0; i < 16; i += 2) {
+            memory.write((char) (0x8000 + tile * 16 + i), (byte) ((colorIndex & 1) != 0 ? 0xFF : 0));
+            memory.write((char) (0x8000 + tile * 16 + i + 1), (byte) ((colorIndex & 2) != 0 ? 0xFF : 0));
+        }
+    }
+
+    private void writeSprite(int sprite, int y, int x, int tile, int attributes) {
+        char entry = (char) (0xFE00 + sprite * 4);
+        memory.write(entry, (byte) y);
+        memory.write((char) (entry + 1), (byte) x);
+        memory.write((char) (entry + 2), (byte) tile);
+        memory.write((char) (entry + 3), (byte) attributes);
+    }
+
+    private void assertLine(int y, int lcdc) {
+        setLine(y);
+        gpu.doScanline();
+        for (int x = 0; x < Gpu.SCREEN_WIDTH; x++) {
+            assertEquals("x=" + x + " y=" + y + " lcdc=" + Integer.toHexString(lcdc),
+                    referenceSpritePixel(x, y, lcdc), gpu.getFrameBuffer()[y * Gpu.SCREEN_WIDTH + x]);
+        }
+    }
+
+    //The GPU draws the line it is on, run it up to the wanted one
+    private void setLine(int y) {
+        while ((memory.read((char) 0xFF44) & 0xFF) != y) {
+            scheduler.advance(4);
+        }
+    }
+
+    //Per pixel: the first 10 sprites of the line in OAM order, the lowest X (then OAM number) not transparent wins
+    private int referenceSpritePixel(int x, int y, int lcdc) {
+        int background = referencePixel(x, y, 0, 0);
+        int height = (lcdc & 0x04) != 0 ? 16 : 8;
+        int best = -1;
+        int bestX = 0;
+        int bestColor = 0;
+        int selected = 0;
+        for (int sprite = 0; sprite < 40 && selected < 10; sprite++) {
+            char entry = (char) (0xFE00 + sprite * 4);
+            int top = (memory.read(entry, true) & 0xFF) - 16;
+            if (y < top || y >= top + height) {
+                continue;
+            }
+            selected++;
+            int spriteX = memory.read((char) (entry + 1), true) & 0xFF;
+            int column = x - (spriteX - 8);
+            if (column < 0 || column > 7 || (best >= 0 && spriteX >= bestX)) {
+                continue;
+            }
+            int attributes = memory.read((char) (entry + 3), true);
+            int row = (attributes & 0x40) != 0 ? height - 1 - (y - top) : y - top;
+            int tile = memory.read((char) (entry + 2), true) & 0xFF;
+            if (height == 16) {
+                tile = (tile & 0xFE) + row / 8;
+            }
+            int[] indexes = TileUtils.getRowOfTileIndexes(memory, (char) (0x8000 + tile * 16), row % 8);
+            int color = indexes[(attributes & 0x20) != 0 ? 7 - column : column];
+            if (color != 0) {
+                best = sprite;
+                bestX = spriteX;
+                bestColor = color;
+            }
+        }
+        if (best < 0) {
+            return background;
+        }
+        int attributes = memory.read((char) (0xFE03 + best * 4), true);
+        if ((attributes & 0x80) != 0 && background != Lcd.RGB_COLORS[0]) {
+            return background;
+        }
+        int pallete = memory.read((char) ((attributes & 0x10) != 0 ? 0xFF49 : 0xFF48)) & 0xFF;
+        return Lcd.RGB_COLORS[(pallete >> (bestColor * 2)) & 0x3];
+    }
+
+    private void assertAllScrolls() {
+        int[][] scrolls = {{0, 0}, {3, 0}, {0, 5}, {101, 250}, {255, 255}, {250, 13}};
+        for (int[] scroll : scrolls) {
+            memory.write((char) 0xFF43, (byte) scroll[0]);
+            memory.write((char) 0xFF42, (byte) scroll[1]);
+            gpu.doScanline();
+            for (int x = 0; x < Gpu.SCREEN_WIDTH; x++) {
+                assertEquals("x=" + x + " scx=" + scroll[0] + " scy=" + scroll[1],
+                        referencePixel(x, 0, scroll[0], scroll[1]), gpu.getFrameBuffer()[x]);
+            }
+        }
+    }
+
+    //Straightforward per-pixel implementation using the original per-tile decoder
+    private int referencePixel(int x, int y, int scrollX, int scrollY) {
+        int lcdc = memory.read((char) 0xFF40) & 0xFF;
+        char mapStart = (lcdc & 0x08) != 0 ? (char) 0x9C00 : (char) 0x9800;
+        boolean unsignedTiles = (lcdc & 0x10) != 0;
+        int mapX = (x + scrollX) & 0xFF;
+        int mapY = (y + scrollY) & 0xFF;
+        byte index = memory.read((char) (mapStart + (mapY / 8) * 32 + mapX / 8));
+        char tileAddress = unsignedTiles ? (char) (0x8000 + (index & 0xFF) * 16) : (char) (0x9000 + index * 16);
+        int[] row = TileUtils.getRowOfTileIndexes(memory, tileAddress, mapY % 8);
+        return Lcd.RGB_COLORS[row[mapX % 8]];
+    }
+}
@@ -0,0 +1,76 @@
+package com.ismaelrh.gameboy.gpu;
+
+import com.ismaelrh.gameboy.cpu.memory.Memory;
+import com.ismaelrh.gameboy.cpu.scheduler.Scheduler;
+import com.ismaelrh.gameboy.gpu.lcd.NullLcd;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TileCacheTest {
+
+    private Memory memory;
+    private TileCache tileCache;
+
+    @Before
+    public void setUp() {
+        memory = new Memory();
+        tileCache = new Gpu(memory, new NullLcd(), new Scheduler()).getTileCache();
+    }
+
+    @Test
+    public void decodesTiles() {
+        for (int address = 0x8000; address < 0x9800; address++) {
+            memory.write((char) address, (byte) (address * 31));
+        }
+        for (int tile = 0; tile < TileCache.TILES; tile++) {
+            assertTileMatchesVideoRAM(tile);
+        }
+    }
+
+    @Test
+    public void writeInvalidatesOnlyThatTile() {
+        assertTileMatchesVideoRAM(5);
+        assertTileMatchesVideoRAM(6);
+
+        memory.write((char) (0x8000 + 5 * 16 + 3), (byte) 0xFF);
+        assertEquals(2, getPixel(5, 1, 0));
+        assertTileMatchesVideoRAM(5);
+        assertTileMatchesVideoRAM(6);
+
+        //Last tile of the area
+        memory.write((char) 0x97FE, (byte) 0x80);
+        assertEquals(1, getPixel(383, 7, 0));
+    }
+
+    @Test
+    public void clearInvalidatesAll() {
+        memory.write((char) 0x8000, (byte) 0xFF);
+        assertEquals(1, getPixel(0, 0, 0));
+        memory.clear();
+        assertEquals(0, getPixel(0, 0, 0));
+    }
+
+    @Test
+    public void lockedVideoRAMDoesNotChangeTiles() {
+        assertEquals(0, getPixel(0, 0, 0));
+        memory.setVideoRAMAccessible(false);
+        memory.write((char) 0x8000, (byte) 0xFF);
+        memory.setVideoRAMAccessible(true);
+        assertEquals(0, getPixel(0, 0, 0));
+    }
+
+    private int getPixel(int tile, int row, int pixel) {
+        return tileCache.getIndexes()[tileCache.getTileOffset(tile) + row * 8 + pixel];
+    }
+
+    private void assertTileMatchesVideoRAM(int tile) {
+        for (int row = 0; row < 8; row++) {
+            int[] expected = TileUtils.getRowOfTileIndexes(memory, (char) (0x8000 + tile * 16), row);
+            for (int pixel = 0; pixel < 8; pixel++) {
+                assertEquals(expected[pixel], getPixel(tile, row, pixel));
+            }
+        }
+    }
+}
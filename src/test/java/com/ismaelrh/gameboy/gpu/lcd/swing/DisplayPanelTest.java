@@ -0,0 +1,57 @@
+package com.ismaelrh.gameboy.gpu.lcd.swing;
+
+import com.ismaelrh.gameboy.gpu.lcd.Lcd;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DisplayPanelTest {
+
+    private DisplayPanel panel;
+
+    @Before
+    public void setUp() {
+        panel = new DisplayPanel(4, 2, 1);
+    }
+
+    @Test
+    public void frameIsVisibleOnlyAfterRefresh() {
+        drawFrame(Lcd.RGB_COLORS[3]);
+        assertEquals(Lcd.RGB_COLORS[0], panel.acquireFrontImage().getRGB(0, 0));
+
+        panel.requestRefresh();
+        BufferedImage front = panel.acquireFrontImage();
+        assertEquals(Lcd.RGB_COLORS[3], front.getRGB(0, 0));
+        assertEquals(Lcd.RGB_COLORS[3], front.getRGB(3, 1));
+
+        //Painting again without a new frame keeps the same image
+        assertSame(front, panel.acquireFrontImage());
+    }
+
+    @Test
+    public void paintAlwaysGetsLastCompletedFrame() {
+        drawFrame(Lcd.RGB_COLORS[1]);
+        panel.requestRefresh();
+        drawFrame(Lcd.RGB_COLORS[2]);
+        panel.requestRefresh();
+        assertEquals(Lcd.RGB_COLORS[2], panel.acquireFrontImage().getRGB(0, 0));
+
+        //Drawing on the back buffer does not affect what is painted
+        drawFrame(Lcd.RGB_COLORS[3]);
+        assertEquals(Lcd.RGB_COLORS[2], panel.acquireFrontImage().getRGB(0, 0));
+        panel.requestRefresh();
+        assertEquals(Lcd.RGB_COLORS[3], panel.acquireFrontImage().getRGB(0, 0));
+    }
+
+    private void drawFrame(int color) {
+        int[] line = new int[4];
+        Arrays.fill(line, color);
+        panel.putLine(0, line, 0);
+        panel.putLine(1, line, 0);
+    }
+}
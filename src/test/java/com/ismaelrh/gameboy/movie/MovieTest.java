@@ -0,0 +1,142 @@
+package com.ismaelrh.gameboy.movie;
+
+import com.ismaelrh.gameboy.Emulator;
+import com.ismaelrh.gameboy.cpu.cartridge.CartridgeFactory;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.Button;
+import com.ismaelrh.gameboy.cpu.periphericals.joypad.ScriptedInput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MovieTest {
+
+    private static final String ROM = "src/test/resources/blargg/cpu/02.gb";
+    private static final int FRAMES = 200;
+
+    private Path movieFile;
+    private Movie movie;
+
+    @Before
+    public void setUp() throws Exception {
+        Emulator emulator = new Emulator();
+        emulator.insertCartridge(CartridgeFactory.load(ROM, null));
+        //Start in the middle of a frame
+        emulator.runCycles(12345);
+        emulator.getJoypad().setInput(ScriptedInput.parse(new StringReader("0\n3 START\n8\n20 A RIGHT\n30\n")));
+
+        MovieRecorder recorder = new MovieRecorder(emulator, Movie.hashRom(ROM));
+        recorder.start();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            emulator.runFrames(1);
+            recorder.onFrame();
+        }
+        movieFile = Files.createTempFile("movie", ".gbm");
+        recorder.finish().write(movieFile);
+        movie = Movie.read(movieFile);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(movieFile);
+    }
+
+    @Test
+    public void inputIsRunLengthEncoded() {
+        assertEquals(5, movie.getRuns());
+        int[] buttons = {0, Button.START.getMask(), 0, Button.A.getMask() | Button.RIGHT.getMask(), 0};
+        int frames = 0;
+        for (int run = 0; run < movie.getRuns(); run++) {
+            assertEquals(buttons[run], movie.getRunButtons(run));
+            frames += movie.getRunFrames(run);
+        }
+        assertEquals(FRAMES, frames);
+        assertEquals(FRAMES, movie.getFrames());
+    }
+
+    @Test
+    public void replayIsBitExact() throws Exception {
+        Emulator emulator = MoviePlayer.createEmulator(ROM, movie);
+        MoviePlayer player = new MoviePlayer(movie);
+        MoviePlayer.Result result = player.replay(emulator);
+        assertTrue(result.toString(), result.isSame());
+        assertEquals(FRAMES, result.getFrames());
+
+        //The recorded input was applied frame by frame
+        assertEquals(Button.A.getMask() | Button.RIGHT.getMask(), player.getButtons(movie.getFirstFrame() + 25, 0));
+        assertEquals(0, emulator.getJoypad().getButtons());
+    }
+
+    @Test
+    public void differentPictureIsReported() throws Exception {
+        long[] hashes = new long[movie.getFrames()];
+        for (int frame = 0; frame < hashes.length; frame++) {
+            hashes[frame] = movie.getFrameHash(frame);
+        }
+        hashes[50]++;
+        byte[] runButtons = new byte[movie.getRuns()];
+        int[] runFrames = new int[movie.getRuns()];
+        for (int run = 0; run < runFrames.length; run++) {
+            runButtons[run] = (byte) movie.getRunButtons(run);
+            runFrames[run] = movie.getRunFrames(run);
+        }
+        byte[] state = new byte[movie.getStartState().remaining()];
+        movie.getStartState().get(state);
+        Movie changed = new Movie(movie.getRomHash(), movie.getFirstFrame(), state, runButtons, runFrames, hashes);
+
+        MoviePlayer.Result result = new MoviePlayer(changed).replay(MoviePlayer.createEmulator(ROM, changed));
+        assertFalse(result.isSame());
+        assertEquals(50, result.getDivergence());
+        assertEquals(51, result.getFrames());
+    }
+
+    @Test
+    public void truncatedMovieIsRejected() throws Exception {
+        byte[] bytes = Files.readAllBytes(movieFile);
+        Files.write(movieFile, Arrays.copyOf(bytes, bytes.length - 1));
+        try {
+            Movie.read(movieFile);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid movie"));
+        }
+    }
+
+    @Test
+    public void corruptLengthIsRejected() throws Exception {
+        byte[] bytes = Files.readAllBytes(movieFile);
+        ByteBuffer.wrap(bytes).putInt(36, Integer.MAX_VALUE);   //Snapshot length, after magic, version, hash and frame
+        Files.write(movieFile, bytes);
+        try {
+            Movie.read(movieFile);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("snapshot"));
+        }
+
+        ByteBuffer.wrap(bytes).putInt(36, -1);
+        Files.write(movieFile, bytes);
+        try {
+            Movie.read(movieFile);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid movie"));
+        }
+    }
+
+    @Test(expected = Exception.class)
+    public void otherRomIsRejected() throws Exception {
+        MoviePlayer.createEmulator("src/test/resources/blargg/cpu/03.gb", movie);
+    }
+}